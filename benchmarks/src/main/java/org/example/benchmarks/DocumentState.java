@@ -0,0 +1,65 @@
+package org.example.benchmarks;
+
+import org.example.XmlNode;
+import org.example.XmlStreamImporter;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A mérések közös állapota: a szintetikus dokumentum fájlja és a belőle beolvasott modell.
+ * Az 1 GB-os méret nincs az alapértelmezett paraméterek között; `-p size=1GB` és legalább
+ * `-jvmArgsAppend -Xmx12g` kell hozzá, mert a modell a heapen él.
+ */
+@State(Scope.Benchmark)
+public class DocumentState {
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"8"})
+    public int fanOut;
+
+    @Param({"2"})
+    public int attributes;
+
+    @Param({"1KB", "1MB", "64MB"})
+    public String size;
+
+    /**
+     * A szintetikus dokumentum fájlja.
+     */
+    public Path file;
+
+    /**
+     * A fájlból beolvasott dokumentum; a beolvasást nem mérő méréseknél ez a bemenet.
+     */
+    public XmlNode rootNode;
+
+    /**
+     * Az exportálás célfájlja.
+     */
+    public Path exportTarget;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = SyntheticDocument.create(depth, fanOut, attributes, SyntheticDocument.parseSize(size));
+        rootNode = new XmlStreamImporter().importFile(file.toFile());
+        // A sorszámok előszámítása, ahogy a beolvasás után az alkalmazásban is
+        rootNode.lineCount();
+        exportTarget = Files.createTempFile("export-", ".xml");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(exportTarget);
+    }
+}
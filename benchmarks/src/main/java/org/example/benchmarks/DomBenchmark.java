@@ -0,0 +1,69 @@
+package org.example.benchmarks;
+
+import org.example.PrimaryController;
+import org.example.XmlParsers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A DOM alapú segédfüggvények mérése (`getStringFromDocument`, DOM beolvasás).
+ * A DOM a fájlméret sokszorosát foglalja, ezért itt csak kisebb dokumentumok szerepelnek.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DomBenchmark {
+
+    @Param({"1KB", "1MB"})
+    public String size;
+
+    private Path file;
+    private Document document;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = SyntheticDocument.create(4, 8, 2, SyntheticDocument.parseSize(size));
+        document = XmlParsers.documentBuilder().parse(file.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * DOM beolvasás a szálhoz tartozó, újrahasznosított értelmezővel.
+     */
+    @Benchmark
+    public Document parseDom() throws Exception {
+        return XmlParsers.documentBuilder().parse(file.toFile());
+    }
+
+    /**
+     * DOM dokumentum szöveggé alakítása.
+     */
+    @Benchmark
+    public String stringFromDocument() throws Exception {
+        return PrimaryController.getStringFromDocument(document);
+    }
+}
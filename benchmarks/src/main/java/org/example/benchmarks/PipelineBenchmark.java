@@ -0,0 +1,94 @@
+package org.example.benchmarks;
+
+import org.example.LazyTreeItem;
+import org.example.NodeLineSource;
+import org.example.XmlFileExporter;
+import org.example.XmlNode;
+import org.example.XmlSerializer;
+import org.example.XmlStreamImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Az alkalmazás feldolgozási lépéseinek mérése: beolvasás, fa nézet felépítése,
+ * szerializálás, előnézet megjelenítése és exportálás.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PipelineBenchmark {
+
+    /**
+     * Az előnézet egy képernyőnyi sora.
+     */
+    private static final int VISIBLE_LINES = 40;
+
+    /**
+     * A fájl beolvasása és a modell felépítése.
+     */
+    @Benchmark
+    public XmlNode importFile(DocumentState state) throws Exception {
+        return new XmlStreamImporter().importFile(state.file.toFile());
+    }
+
+    /**
+     * A teljes fa nézet felépítése (nem lusta mód).
+     */
+    @Benchmark
+    public LazyTreeItem treeBuildEager(DocumentState state) {
+        LazyTreeItem root = new LazyTreeItem(state.rootNode);
+        root.materializeAll();
+        return root;
+    }
+
+    /**
+     * A fa nézet kezdeti felépítése lusta módban: a gyökér és az első szint.
+     */
+    @Benchmark
+    public int treeBuildLazy(DocumentState state) {
+        LazyTreeItem root = new LazyTreeItem(state.rootNode);
+        return root.getChildren().get(0).getChildren().size();
+    }
+
+    /**
+     * A dokumentum szöveggé alakítása, tárolás nélkül.
+     */
+    @Benchmark
+    public void serialize(DocumentState state) throws IOException {
+        new XmlSerializer().write(state.rootNode, Writer.nullWriter());
+    }
+
+    /**
+     * Az előnézet képernyőnyi sorainak előállítása a dokumentum elején, közepén és végén.
+     */
+    @Benchmark
+    public void previewRender(DocumentState state, Blackhole blackhole) {
+        NodeLineSource source = new NodeLineSource(state.rootNode);
+        int lines = source.lineCount();
+        for (int start : new int[]{0, lines / 2, Math.max(0, lines - VISIBLE_LINES)}) {
+            for (int i = start; i < Math.min(lines, start + VISIBLE_LINES); i++) {
+                blackhole.consume(source.line(i));
+            }
+        }
+    }
+
+    /**
+     * A dokumentum fájlba írása.
+     */
+    @Benchmark
+    public void export(DocumentState state) throws IOException {
+        XmlFileExporter.export(state.rootNode, state.exportTarget, new XmlSerializer());
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Paraméterezhető, szintetikus XML dokumentumokat előállító osztály a mérésekhez.
+ * A gyökérelem alá azonos alakú részfák kerülnek (adott mélységgel, elágazással és attribútumszámmal),
+ * amíg a fájl el nem éri a kért méretet; a kért méret elérésekor a félkész részfa további gyerekei elmaradnak.
+ */
+public final class SyntheticDocument {
+
+    private SyntheticDocument() {
+    }
+
+    /**
+     * Értelmezi a méretet, például `1KB`, `64MB` vagy `1GB`.
+     * @param size A méret szövegesen.
+     * @return A méret bájtban.
+     */
+    public static long parseSize(String size) {
+        String value = size.trim().toUpperCase();
+        long unit = 1;
+        if (value.endsWith("KB")) {
+            unit = 1024;
+        } else if (value.endsWith("MB")) {
+            unit = 1024 * 1024;
+        } else if (value.endsWith("GB")) {
+            unit = 1024L * 1024 * 1024;
+        }
+        String digits = unit == 1 ? value : value.substring(0, value.length() - 2);
+        return Long.parseLong(digits.trim()) * unit;
+    }
+
+    /**
+     * Létrehozza a dokumentumot egy ideiglenes fájlban.
+     * @param depth A részfák mélysége.
+     * @param fanOut Az elemenkénti gyerekek száma.
+     * @param attributes Az elemenkénti attribútumok száma.
+     * @param targetBytes A fájl kívánt mérete bájtban (legalább egy részfa mindig kiíródik).
+     * @return A létrehozott fájl; a hívó törli.
+     * @throws IOException Ha a fájl nem írható.
+     */
+    public static Path create(int depth, int fanOut, int attributes, long targetBytes) throws IOException {
+        Path file = Files.createTempFile("synthetic-" + depth + "x" + fanOut + "x" + attributes + "-", ".xml");
+        try (CountingWriter out = new CountingWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<resources>\n");
+            long id = 0;
+            do {
+                id = writeSubtree(out, 1, depth, fanOut, attributes, id, targetBytes);
+            } while (out.count < targetBytes);
+            out.write("</resources>\n");
+        }
+        return file;
+    }
+
+    private static long writeSubtree(CountingWriter out, int level, int depth, int fanOut, int attributes, long id,
+                                     long targetBytes) throws IOException {
+        String indentation = "\t".repeat(level);
+        String name = level == depth ? "constant" : "conversion";
+        out.write(indentation);
+        out.write('<');
+        out.write(name);
+        for (int i = 0; i < attributes; i++) {
+            out.write(" attr" + i + "=\"value-" + id + "-" + i + "\"");
+        }
+        id++;
+        if (level == depth) {
+            out.write(">text &amp; " + id + "</" + name + ">\n");
+            return id;
+        }
+        out.write(">\n");
+        for (int i = 0; i < fanOut && out.count < targetBytes; i++) {
+            id = writeSubtree(out, level + 1, depth, fanOut, attributes, id, targetBytes);
+        }
+        out.write(indentation + "</" + name + ">\n");
+        return id;
+    }
+
+    /**
+     * A kiírt karaktereket számoló író; ASCII tartalomnál ez a bájtok száma.
+     */
+    private static final class CountingWriter extends BufferedWriter {
+        private long count;
+
+        CountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            super.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(String s, int off, int len) throws IOException {
+            super.write(s, off, len);
+            count += len;
+        }
+    }
+}
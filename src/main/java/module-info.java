@@ -2,8 +2,12 @@ module org.example {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.xml;
+    requires jdk.jfr;
+    requires jdk.management;
     requires org.jetbrains.annotations;
 
+    uses org.example.CompressionCodec;
+
     opens org.example to javafx.fxml;
     exports org.example;
 }
@@ -10,8 +10,8 @@ import javafx.stage.Stage;
 import java.net.URL;
 import java.util.ResourceBundle;
 
-import org.w3c.dom.Document;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AddNewLineController implements Initializable {
 
@@ -19,7 +19,7 @@ public class AddNewLineController implements Initializable {
     public ChoiceBox typeChooser;
     public AnchorPane attributeAncor;
     private PrimaryController primaryController;
-    private TreeView<String> primaryTreeView;
+    private TreeView<XmlNode> primaryTreeView;
 
 
     /**
@@ -107,16 +107,24 @@ public class AddNewLineController implements Initializable {
      * @param actionEvent Az esemény, amely aktiválja a gyermek mentési műveletet.
      */
     public void onSaveChild(ActionEvent actionEvent) {
+        // Kiírás vagy összehasonlítás közben a fa nem változhat; az ablak nyitva marad
+        if (primaryController.isTaskRunning()) {
+            showAlert("Error!", "Háttérfeladat fut, próbáld újra később.");
+            return;
+        }
         // Ellenőrizzük, hogy van-e kiválasztott elem a TreeView-ban
-        TreeItem<String> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
-        if (selectedItem != null) {
-            // Összeállítjuk az új XML tag-et az inputok alapján
-            String newXmlTag = assembleXmlTag();
-
-            // Ha sikerült az XML tag összeállítása
-            if (!newXmlTag.isEmpty()) {
-                // Hozzáadjuk az új XML tag-et a kiválasztott elemhez gyerekként
-                selectedItem.getChildren().add(new TreeItem<>(newXmlTag));
+        TreeItem<XmlNode> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
+        if (selectedItem != null && !selectedItem.getValue().isElement() && !selectedItem.getValue().isDeclaration()) {
+            showAlert("Error!", "Text, comments, processing instructions and the doctype cannot have children.");
+        } else if (selectedItem != null) {
+            // Összeállítjuk az új XML elemet az inputok alapján
+            XmlNode newNode = assembleNode();
+
+            // Ha sikerült az XML elem összeállítása
+            if (newNode != null) {
+                // Hozzáadjuk az új XML elemet a kiválasztott elemhez gyerekként
+                primaryController.getTreeViewController()
+                        .insertChild(selectedItem, selectedItem.getChildren().size(), newNode);
                 primaryController.convertTreeViewToXml(); // Frissítjük a XML előnézetet
                 Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
                 stage.close();
@@ -130,29 +138,27 @@ public class AddNewLineController implements Initializable {
 
 
     /**
-     * Összeállítja az XML címkét az inputok alapján.
+     * Összeállítja az új XML elemet az inputok alapján.
      *
-     * @return Az összeállított XML címke.
+     * @return Az összeállított elem csomópontja, vagy null, ha nincs kiválasztott típus.
      */
-    private String assembleXmlTag() {
-        StringBuilder xmlTagBuilder = new StringBuilder();
-        if(typeChooser.getValue() != null) {
-            // Összeállítjuk az XML tag-et az inputok alapján
-            xmlTagBuilder.append(typeChooser.getValue()).append(" ");
-
-            // Hozzáadjuk az attribútumokat az inputok alapján
-            for (Node child : attributeAncor.getChildren()) {
-                if (child instanceof TextField) {
-                    TextField textField = (TextField) child;
-                    String attribute = textField.getPromptText();
-                    String value = textField.getText();
-                    if (!value.isEmpty()) {
-                        xmlTagBuilder.append(attribute).append("=\"").append(value).append("\" ");
-                    }
+    private XmlNode assembleNode() {
+        if (typeChooser.getValue() == null) {
+            return null;
+        }
+        // Hozzáadjuk az attribútumokat az inputok alapján
+        List<String> attributes = new ArrayList<>();
+        for (Node child : attributeAncor.getChildren()) {
+            if (child instanceof TextField) {
+                TextField textField = (TextField) child;
+                String value = textField.getText();
+                if (!value.isEmpty()) {
+                    attributes.add(textField.getPromptText());
+                    attributes.add(value);
                 }
             }
         }
-        return xmlTagBuilder.toString();
+        return new XmlNode(typeChooser.getValue().toString(), attributes.toArray(new String[0]), null);
     }
 
     /**
@@ -162,18 +168,23 @@ public class AddNewLineController implements Initializable {
      * @param actionEvent Az esemény, amely aktiválja a testvér mentési műveletet.
      */
     public void onSaveBrother(ActionEvent actionEvent) {
+        // Kiírás vagy összehasonlítás közben a fa nem változhat; az ablak nyitva marad
+        if (primaryController.isTaskRunning()) {
+            showAlert("Error!", "Háttérfeladat fut, próbáld újra később.");
+            return;
+        }
         // Ellenőrizzük, hogy van-e kiválasztott elem a TreeView-ban
-        TreeItem<String> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
+        TreeItem<XmlNode> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
         if (selectedItem != null && selectedItem.getParent() != null) {
-            // Összeállítjuk az új XML tag-et az inputok alapján
-            String newXmlTag = assembleXmlTag();
+            // Összeállítjuk az új XML elemet az inputok alapján
+            XmlNode newNode = assembleNode();
 
-            // Ha sikerült az XML tag összeállítása
-            if (!newXmlTag.isEmpty()) {
-                // Hozzáadjuk az új XML tag-et a kiválasztott elem testvérének
-                TreeItem<String> parent = selectedItem.getParent();
+            // Ha sikerült az XML elem összeállítása
+            if (newNode != null) {
+                // Hozzáadjuk az új XML elemet a kiválasztott elem testvérének
+                TreeItem<XmlNode> parent = selectedItem.getParent();
                 int selectedIndex = parent.getChildren().indexOf(selectedItem);
-                parent.getChildren().add(selectedIndex + 1, new TreeItem<>(newXmlTag));
+                primaryController.getTreeViewController().insertChild(parent, selectedIndex + 1, newNode);
                 primaryController.convertTreeViewToXml(); // Frissítjük a XML előnézetet
                 Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
                 stage.close();
@@ -185,6 +196,15 @@ public class AddNewLineController implements Initializable {
         }
     }
 
+    /**
+     * Alaphelyzetbe állítja az ablakot: nincs kiválasztott típus és nincsenek attribútummezők.
+     * Az ablak újra felhasználódik, ezért minden megnyitás előtt meg kell hívni.
+     */
+    public void reset() {
+        typeChooser.getSelectionModel().clearSelection();
+        attributeAncor.getChildren().clear();
+    }
+
     /**
      * Beállítja a fővezérlőt a megadott PrimaryController objektumra.
      *
@@ -199,7 +219,7 @@ public class AddNewLineController implements Initializable {
      *
      * @param primaryTreeView A fofa nézetet reprezentáló objektum.
      */
-    public void setPrimaryTreeView(TreeView<String> primaryTreeView) {
+    public void setPrimaryTreeView(TreeView<XmlNode> primaryTreeView) {
         this.primaryTreeView = primaryTreeView;
     }
 
@@ -212,6 +232,10 @@ public class AddNewLineController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         typeChooser.getItems().addAll("resources", "constant", "linking", "binding", "conversions", "conversion");
-        typeChooser.getSelectionModel().selectedItemProperty().addListener((v, oldValue, newValue) -> updateAttributeFields(newValue.toString()));
+        typeChooser.getSelectionModel().selectedItemProperty().addListener((v, oldValue, newValue) -> {
+            if (newValue != null) {
+                updateAttributeFields(newValue.toString());
+            }
+        });
     }
 }
@@ -1,8 +1,8 @@
 package org.example;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
@@ -19,31 +19,36 @@ public class App extends Application {
 
     /**
      * Az alkalmazás fo ablakának a létrehozásáért és megnyitásáért felel.
+     * Az indulás ideje mérve van (lásd {@link Metrics.Phase#STARTUP}).
+     * A párbeszédablakok az első képkocka után, háttérben töltődnek be, így nem lassítják a fő ablak megjelenését.
      * @param stage Kezdo ablak. Ez fog megnyílni eloszor.
      * @throws IOException Ha az alkalmazás ablakát leíró fxml fájl nem található, akkor dobódik.
      */
     @Override
     public void start(Stage stage) throws IOException {
-        scene = new Scene(loadFXML("primary"), 940, 540);
-        stage.setScene(scene);
-        stage.setTitle("XML converter");
-        stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/logo.png"))));
-        stage.show();
+        PrimaryController controller;
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.STARTUP)) {
+            FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource("primary.fxml"));
+            scene = new Scene(fxmlLoader.load(), 940, 570);
+            controller = fxmlLoader.getController();
+            stage.setScene(scene);
+            stage.setTitle("XML converter");
+            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/logo.png"))));
+            stage.show();
+            timer.items(1);
+        }
+        Platform.runLater(controller::preloadDialogs);
     }
 
     /**
-     * Az adott FXML fájl betoltéséért és annak tartalmának inicializálásáért felelős metódus.
-     *
-     * @param fxml Az FXML fájl elérési útja (a fájlnév kivételével).
-     * @return Az inicializált Java objektum, amely a betöltött FXML fájl tartalmát reprezentálja.
-     * @throws IOException Ha valamilyen hiba torténik az FXML fájl betoltése kozben.
+     * Argumentumok nélkül a grafikus felületet indítja; argumentumokkal a kötegelt,
+     * parancssori konvertálást futtatja (lásd {@link BatchConverter}), ablak megnyitása nélkül.
+     * @param args A parancssori argumentumok.
      */
-    static Parent loadFXML(String fxml) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource(fxml + ".fxml"));
-        return fxmlLoader.load();
-    }
-
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(BatchConverter.run(args));
+        }
         launch();
     }
 
@@ -0,0 +1,52 @@
+package org.example;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hosszan futó műveletek (beolvasás, szerializálás, exportálás) háttérszálakon történő futtatásáért felelős osztály.
+ * A feladatok egy közös munkaszál-készleten futnak, így a JavaFX alkalmazásszál végig válaszképes marad.
+ */
+public final class BackgroundTasks {
+
+    /**
+     * A munkaszálak sorszámozásához használt számláló.
+     */
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * A közös munkaszál-készlet. A szálak démon szálak, így nem akadályozzák az alkalmazás leállását.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), workerFactory());
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Létrehozza a munkaszálakat előállító gyárat.
+     * @return A démon munkaszálakat létrehozó gyár.
+     */
+    private static ThreadFactory workerFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "xml-worker-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Elindítja a feladatot a közös munkaszál-készleten.
+     * @param task A futtatandó feladat.
+     * @param <T> A feladat eredményének típusa.
+     * @return Ugyanaz a feladat, a láncolhatóság kedvéért.
+     */
+    public static <T> Task<T> run(Task<T> task) {
+        EXECUTOR.execute(task);
+        return task;
+    }
+}
@@ -0,0 +1,756 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.validation.Schema;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Grafikus felület nélküli, parancssori kötegelt konvertáló.
+ * A bemeneti mintákra (glob) illeszkedő XML fájlokat ugyanazzal a beolvasó és szerializáló
+ * lánccal alakítja át, mint a felület, és a kimeneti mappába írja őket, a minta gyökeréhez
+ * képesti relatív útvonalon. A végén kiírja az áteresztőképességet (fájl/s, MB/s).
+ * A `--format` opcióval JSON, YAML vagy CSV kimenet is kérhető (lásd {@link StreamingConversion}),
+ * a `--benchmark` pedig formátumonként méri az áteresztőképességet.
+ * A tömörített bemenetek (például `.xml.gz`, lásd {@link Compression}) kicsomagolva olvasódnak, és a kimenetük
+ * ugyanúgy tömörítve íródik ki.
+ * <p>
+ * JavaFX-et nem használ, így közvetlenül indítva (`java -cp ... org.example.BatchConverter`)
+ * a grafikus toolkit el sem indul; szerveren és CI-ban így érdemes futtatni.
+ */
+public class BatchConverter {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: BatchConverter [options] <glob>...",
+            "  -o, --out <dir>         output directory (required unless --benchmark)",
+            "  -f, --format <fmt>      output format: xml (default), json, yaml or csv",
+            "      --pretty            indented output, one element per line (default)",
+            "      --minify            compact output without indentation",
+            "      --normalized        xml: output for comparison: sorted attributes, no declaration or comments",
+            "                          (not Canonical XML / C14N: text is trimmed and DTD defaults are not applied)",
+            "      --indent <n|tab>    xml: indentation of pretty output, spaces or tab (default: tab)",
+            "      --arrays <names>    json/yaml: comma-separated elements mapped to arrays (default: *, all)",
+            "      --attribute-prefix <p>  json/yaml: prefix of attribute keys (default: @)",
+            "      --rows <element>    csv: element written as one row (default: the most frequent)",
+            "      --columns <keys>    csv: comma-separated columns, e.g. @name,@value,text() (default: all found)",
+            "      --delimiter <c>     csv: field delimiter (default: ,)",
+            "      --benchmark         convert the inputs to every format without writing, and print the throughput",
+            "  -t, --threads <n>       number of worker threads (default: available processors)",
+            "      --heap-budget <MB>  memory budget for files in flight (default: half of max heap)",
+            "      --report <file>     write a JSON report with throughput and per-phase timings",
+            "      --schema <xsd>      validate inputs against an XSD while parsing; invalid files fail",
+            "  -h, --help              print this help",
+            "Compressed inputs (e.g. *.xml.gz) are decompressed while parsing; their outputs are compressed the same way.",
+            "Text is normalized: leading and trailing whitespace is trimmed; xml outputs with trimmed text are reported as warnings.",
+            "Example: BatchConverter --out build/xml --threads 8 \"configs/**/*.xml\"");
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    /**
+     * A bemeneti minták.
+     */
+    private final List<String> patterns = new ArrayList<>();
+
+    /**
+     * A kimeneti mappa.
+     */
+    private Path outputDirectory;
+
+    /**
+     * Az XML kimenet formája.
+     */
+    private XmlSerializer.Mode mode = XmlSerializer.Mode.PRETTY;
+
+    /**
+     * A formázott XML kimenet behúzása.
+     */
+    private Indentation indentation = Indentation.TAB;
+
+    /**
+     * A kimenet formátuma, vagy null, ha XML.
+     */
+    private OutputFormat format;
+
+    /**
+     * A JSON, YAML és CSV kimenet beállításai.
+     */
+    private final ConversionOptions options = new ConversionOptions();
+
+    /**
+     * Igaz esetén konvertálás helyett minden formátum áteresztőképességét méri.
+     */
+    private boolean benchmark;
+
+    /**
+     * A párhuzamosan dolgozó szálak száma.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Az egyszerre feldolgozás alatt álló fájlokra jutó becsült memória felső korlátja bájtban.
+     */
+    private long heapBudget = ConversionEngine.defaultHeapBudget();
+
+    /**
+     * A JSON jelentés célfájlja, vagy null, ha nem kell jelentés.
+     */
+    private Path reportFile;
+
+    /**
+     * Az XSD séma, amely szerint a bemenetek ellenőrzésre kerülnek, vagy null.
+     */
+    private Path schemaFile;
+
+    /**
+     * A lefordított séma; a szálak közösen használják.
+     */
+    private Schema schema;
+
+    /**
+     * Egy érvénytelen fájl hibaüzenetében felsorolt sémahibák száma.
+     */
+    private static final int REPORTED_SCHEMA_PROBLEMS = 3;
+
+    /**
+     * A mérés köreinek száma formátumonként; csak az utolsó kör számít.
+     */
+    private static final int BENCHMARK_ROUNDS = 2;
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    /**
+     * Konstruktor, amely beállítja az üzenetek kimenetét.
+     * @param out Az összesítés kimenete.
+     * @param err A hibaüzenetek kimenete.
+     */
+    BatchConverter(@NotNull PrintStream out, @NotNull PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * A kötegelt konvertálás belépési pontja, JavaFX indítása nélkül.
+     * @param args A parancssori argumentumok.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Feldolgozza az argumentumokat és lefuttatja a konvertálást.
+     * @param args A parancssori argumentumok.
+     * @return A kilépési kód: 0 siker, 1 ha legalább egy fájl hibás, 2 hibás paraméterezés.
+     */
+    public static int run(@NotNull String[] args) {
+        BatchConverter converter = new BatchConverter(System.out, System.err);
+        try {
+            if (!converter.parse(args)) {
+                System.out.println(USAGE);
+                return EXIT_OK;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        return converter.convertAll();
+    }
+
+    /**
+     * Beállítja a konvertálót a parancssori argumentumok alapján.
+     * @param args A parancssori argumentumok.
+     * @return Hamis, ha csak a súgót kell kiírni.
+     * @throws IllegalArgumentException Ha az argumentumok hibásak.
+     */
+    boolean parse(@NotNull String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-h":
+                case "--help":
+                    return false;
+                case "-o":
+                case "--out":
+                    outputDirectory = Paths.get(value(args, ++i, arg));
+                    break;
+                case "-f":
+                case "--format":
+                    String name = value(args, ++i, arg);
+                    format = name.equalsIgnoreCase("xml") ? null : OutputFormat.of(name);
+                    break;
+                case "--pretty":
+                    mode = XmlSerializer.Mode.PRETTY;
+                    options.pretty(true);
+                    break;
+                case "--minify":
+                    mode = XmlSerializer.Mode.MINIFIED;
+                    options.pretty(false);
+                    break;
+                case "--normalized":
+                    mode = XmlSerializer.Mode.NORMALIZED;
+                    options.pretty(false);
+                    break;
+                case "--indent":
+                    indentation = Indentation.parse(value(args, ++i, arg));
+                    break;
+                case "--arrays":
+                    options.arrays(new LinkedHashSet<>(list(value(args, ++i, arg))));
+                    break;
+                case "--attribute-prefix":
+                    options.attributePrefix(value(args, ++i, arg));
+                    break;
+                case "--rows":
+                    options.rowElement(value(args, ++i, arg));
+                    break;
+                case "--columns":
+                    options.columns(list(value(args, ++i, arg)));
+                    break;
+                case "--delimiter":
+                    String delimiter = value(args, ++i, arg);
+                    if (delimiter.equals("\\t")) {
+                        delimiter = "\t";
+                    }
+                    if (delimiter.length() != 1) {
+                        throw new IllegalArgumentException("Delimiter must be a single character: " + delimiter);
+                    }
+                    options.delimiter(delimiter.charAt(0));
+                    break;
+                case "--benchmark":
+                    benchmark = true;
+                    break;
+                case "-t":
+                case "--threads":
+                    try {
+                        threads = Integer.parseInt(value(args, ++i, arg));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid thread count: " + args[i]);
+                    }
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("Thread count must be at least 1");
+                    }
+                    break;
+                case "--report":
+                    reportFile = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--schema":
+                    schemaFile = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--heap-budget":
+                    try {
+                        heapBudget = Long.parseLong(value(args, ++i, arg)) * 1024 * 1024;
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid heap budget: " + args[i]);
+                    }
+                    if (heapBudget < 1) {
+                        throw new IllegalArgumentException("Heap budget must be at least 1 MB");
+                    }
+                    break;
+                default:
+                    if (arg.startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    patterns.add(arg);
+            }
+        }
+        if (outputDirectory == null && !benchmark) {
+            throw new IllegalArgumentException("Missing output directory (--out)");
+        }
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("Missing input pattern");
+        }
+        return true;
+    }
+
+    /**
+     * @param value Vesszővel elválasztott lista.
+     * @return A lista nem üres elemei, a szélüktől megtisztítva.
+     */
+    private static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.strip());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @param args A parancssori argumentumok.
+     * @param index Az opció értékének helye.
+     * @param option Az opció neve, a hibaüzenethez.
+     * @return Az opció értéke.
+     */
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Megkeresi a bemeneti fájlokat, a `ConversionEngine`-nel párhuzamosan konvertálja őket, és kiírja az összesítést.
+     * @return A kilépési kód.
+     */
+    int convertAll() {
+        if (schemaFile != null) {
+            try {
+                schema = SchemaValidation.schema(schemaFile);
+            } catch (IOException | SAXException e) {
+                err.println("Cannot load schema " + schemaFile + ": " + e.getMessage());
+                return EXIT_FAILED;
+            }
+        }
+        Map<Path, Path> sources;
+        try {
+            sources = resolveSources();
+        } catch (IOException e) {
+            err.println("Cannot list input files: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+        if (sources.isEmpty()) {
+            err.println("No input files matched");
+            return EXIT_FAILED;
+        }
+
+        if (benchmark) {
+            return benchmark(sources);
+        }
+        List<ConversionEngine.Job> jobs;
+        try {
+            jobs = jobs(sources, format);
+        } catch (IOException e) {
+            err.println("Cannot read input file: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+        String conflict;
+        try {
+            conflict = targetConflict(jobs);
+        } catch (IOException e) {
+            err.println("Cannot check output files: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+        if (conflict != null) {
+            err.println(conflict);
+            return EXIT_USAGE;
+        }
+
+        int parallelism = Math.min(threads, jobs.size());
+        ConversionEngine.Summary summary = new ConversionEngine(parallelism, heapBudget).run(jobs, this::convert);
+        for (Map.Entry<Path, Throwable> failure : summary.getFailures().entrySet()) {
+            err.println("FAILED " + failure.getKey() + ": " + failure.getValue().getMessage());
+        }
+
+        double seconds = Math.max(summary.getNanos(), 1) / 1e9;
+        out.printf("Converted %,d of %,d files (%,.1f MB) in %.2f s: %,.1f files/s, %,.2f MB/s, %d threads%n",
+                summary.getConverted(), summary.getFiles(), summary.getBytes() / 1e6, seconds,
+                summary.getConverted() / seconds, summary.getBytes() / 1e6 / seconds, parallelism);
+        out.println("Parser reuse: " + XmlParsers.metrics());
+        if (reportFile != null) {
+            try {
+                writeReport(summary, parallelism);
+            } catch (IOException e) {
+                err.println("Cannot write report " + reportFile + ": " + e.getMessage());
+                return EXIT_FAILED;
+            }
+        }
+        return summary.getFailures().isEmpty() ? EXIT_OK : EXIT_FAILED;
+    }
+
+    /**
+     * @param sources A bemeneti fájlok a minta gyökérmappájával.
+     * @param format A kimenet formátuma, vagy null, ha XML.
+     * @return A konvertálandó fájlok; a kimenet kiterjesztése a formátumé, és a folyamatos konvertálás
+     * a fájl méretétől független memóriát foglal a keretből.
+     * @throws IOException Ha egy bemeneti fájl mérete nem kérdezhető le.
+     */
+    private List<ConversionEngine.Job> jobs(Map<Path, Path> sources, OutputFormat format) throws IOException {
+        List<ConversionEngine.Job> jobs = new ArrayList<>(sources.size());
+        for (Map.Entry<Path, Path> source : sources.entrySet()) {
+            Path input = source.getKey();
+            String relative = source.getValue().relativize(input).toString();
+            // Tömörített fájlnál a tartalom kicsomagolt mérete számít a memóriakeretbe és az áteresztőképességbe
+            long size = Compression.contentSize(input);
+            if (format == null) {
+                Path target = outputDirectory == null ? input : outputDirectory.resolve(relative);
+                jobs.add(new ConversionEngine.Job(input, target, size));
+            } else {
+                // A tömörítés kiterjesztése megmarad: a.xml.gz -> a.json.gz
+                String compression = Compression.extensionOf(relative);
+                String name = relative.substring(0, relative.length() - compression.length());
+                int dot = name.lastIndexOf('.');
+                String base = dot > Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'))
+                        ? name.substring(0, dot) : name;
+                Path target = outputDirectory == null ? input
+                        : outputDirectory.resolve(base + "." + format.getExtension() + compression);
+                jobs.add(new ConversionEngine.Job(input, target, size, ConversionEngine.STREAMING_MEMORY));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Megkeresi azokat a kimeneteket, amelyek egy bemenetet írnának felül (például ha a `--out` maga a bemenetek
+     * mappája), vagy amelyeket két bemenet is írna. A létező célfájlok valódi útvonala számít, így a szimbolikus
+     * hivatkozáson át elért bemenet is egyezik.
+     * @param jobs A konvertálandó fájlok.
+     * @return A hibaüzenet, vagy null, ha minden kimenet különálló fájl.
+     * @throws IOException Ha egy fájl valódi útvonala nem kérdezhető le.
+     */
+    private static String targetConflict(List<ConversionEngine.Job> jobs) throws IOException {
+        Set<Path> inputs = new HashSet<>();
+        for (ConversionEngine.Job job : jobs) {
+            inputs.add(job.getInput().toRealPath());
+        }
+        Map<Path, Path> targets = new HashMap<>();
+        for (ConversionEngine.Job job : jobs) {
+            Path target = job.getTarget().toAbsolutePath().normalize();
+            if (Files.exists(target) && inputs.contains(target.toRealPath())) {
+                return "Refusing to overwrite input file " + job.getInput() + "; choose another --out directory";
+            }
+            Path previous = targets.putIfAbsent(target, job.getInput());
+            if (previous != null) {
+                return "Both " + previous + " and " + job.getInput() + " would be written to " + target;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Megméri minden formátum áteresztőképességét: a bemeneteket formátumonként kétszer konvertálja (az első
+     * kör a JIT bemelegítése), a kimenetet eldobva, így a lemezre írás nem torzítja a mérést.
+     * Séma szerinti ellenőrzés nincs.
+     * @param sources A bemeneti fájlok a minta gyökérmappájával.
+     * @return A kilépési kód.
+     */
+    private int benchmark(Map<Path, Path> sources) {
+        List<OutputFormat> formats = new ArrayList<>();
+        formats.add(null);
+        formats.addAll(Arrays.asList(OutputFormat.values()));
+        StringBuilder json = new StringBuilder("{\n  \"benchmark\": [");
+        boolean failed = false;
+        for (OutputFormat benchmarked : formats) {
+            List<ConversionEngine.Job> jobs;
+            try {
+                jobs = jobs(sources, benchmarked);
+            } catch (IOException e) {
+                err.println("Cannot read input file: " + e.getMessage());
+                return EXIT_FAILED;
+            }
+            int parallelism = Math.min(threads, jobs.size());
+            ConversionEngine engine = new ConversionEngine(parallelism, heapBudget);
+            ConversionEngine.Summary summary = null;
+            for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+                summary = engine.run(jobs, (input, target) -> convert(input, benchmarked, Writer.nullWriter()));
+            }
+            for (Map.Entry<Path, Throwable> failure : summary.getFailures().entrySet()) {
+                err.println("FAILED " + failure.getKey() + ": " + failure.getValue().getMessage());
+                failed = true;
+            }
+            String name = benchmarked == null ? "xml" : benchmarked.getExtension();
+            double seconds = Math.max(summary.getNanos(), 1) / 1e9;
+            out.printf("%-4s %,d files (%,.1f MB) in %.2f s: %,.1f files/s, %,.2f MB/s, %d threads%n",
+                    name, summary.getConverted(), summary.getBytes() / 1e6, seconds,
+                    summary.getConverted() / seconds, summary.getBytes() / 1e6 / seconds, parallelism);
+            json.append(benchmarked == null ? "\n" : ",\n")
+                    .append("    {\"format\": ").append(jsonString(name))
+                    .append(", \"files\": ").append(summary.getConverted())
+                    .append(", \"bytes\": ").append(summary.getBytes())
+                    .append(", \"seconds\": ").append(String.format(Locale.ROOT, "%.3f", seconds))
+                    .append(", \"bytesPerSecond\": ")
+                    .append(String.format(Locale.ROOT, "%.1f", summary.getBytes() / seconds)).append('}');
+        }
+        if (reportFile != null) {
+            json.append("\n  ],\n  \"phases\": ").append(Metrics.toJson().replace("\n", "\n  ")).append("\n}\n");
+            try {
+                writeFile(reportFile, json.toString());
+            } catch (IOException e) {
+                err.println("Cannot write report " + reportFile + ": " + e.getMessage());
+                return EXIT_FAILED;
+            }
+        }
+        return failed ? EXIT_FAILED : EXIT_OK;
+    }
+
+    /**
+     * Kiírja a futás JSON jelentését: az összesítést, a hibás fájlokat és a lépésenkénti mérőszámokat.
+     * @param summary A futás összesítése.
+     * @param parallelism A dolgozó szálak száma.
+     * @throws IOException Ha a jelentés nem írható.
+     */
+    private void writeReport(ConversionEngine.Summary summary, int parallelism) throws IOException {
+        double seconds = Math.max(summary.getNanos(), 1) / 1e9;
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"files\": ").append(summary.getFiles()).append(",\n");
+        json.append("  \"converted\": ").append(summary.getConverted()).append(",\n");
+        json.append("  \"failed\": ").append(summary.getFailures().size()).append(",\n");
+        json.append("  \"bytes\": ").append(summary.getBytes()).append(",\n");
+        json.append("  \"seconds\": ").append(String.format(Locale.ROOT, "%.3f", seconds)).append(",\n");
+        json.append("  \"filesPerSecond\": ")
+                .append(String.format(Locale.ROOT, "%.2f", summary.getConverted() / seconds)).append(",\n");
+        json.append("  \"bytesPerSecond\": ")
+                .append(String.format(Locale.ROOT, "%.1f", summary.getBytes() / seconds)).append(",\n");
+        json.append("  \"threads\": ").append(parallelism).append(",\n");
+        json.append("  \"failures\": [");
+        boolean first = true;
+        for (Map.Entry<Path, Throwable> failure : summary.getFailures().entrySet()) {
+            json.append(first ? "\n" : ",\n");
+            first = false;
+            json.append("    {\"file\": ").append(jsonString(failure.getKey().toString()))
+                    .append(", \"error\": ").append(jsonString(String.valueOf(failure.getValue().getMessage())))
+                    .append('}');
+        }
+        json.append(first ? "],\n" : "\n  ],\n");
+        json.append("  \"phases\": ").append(Metrics.toJson().replace("\n", "\n  ")).append('\n');
+        json.append("}\n");
+
+        writeFile(reportFile, json.toString());
+    }
+
+    /**
+     * Kiírja a szöveget UTF-8 kódolással; a hiányzó mappák létrejönnek.
+     * @param file A célfájl.
+     * @param content A szöveg.
+     * @throws IOException Ha a fájl nem írható.
+     */
+    private static void writeFile(Path file, String content) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param value A szöveg.
+     * @return A szöveg JSON szövegliterálként, idézőjelekkel és a szükséges kódolással.
+     */
+    static String jsonString(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Beolvassa a fájlt, majd a megadott formátumban kiírja: XML-ként a deklarációja kódolásával,
+     * a többi formátumban UTF-8 kódolással.
+     * Ha meg van adva séma, a beolvasással párhuzamosan ellenőrzi is, és érvénytelen fájlt nem ír ki.
+     * A JSON, YAML és CSV kimenet a csomópontok felépítése nélkül, folyamatosan készül; ekkor a séma szerinti
+     * ellenőrzés egy külön olvasási menet.
+     * @param input A bemeneti fájl.
+     * @param target A kimeneti fájl; a hiányzó mappák létrejönnek.
+     * @throws IOException Ha hiba történik az olvasás vagy az írás során.
+     * @throws XMLStreamException Ha a bemenet nem jól formált XML.
+     * @throws SAXException Ha a bemenet nem felel meg a sémának.
+     */
+    void convert(@NotNull Path input, @NotNull Path target) throws IOException, XMLStreamException, SAXException {
+        if (format != null) {
+            if (schema != null) {
+                validate(input);
+            }
+            XmlFileExporter.export(target, writer -> convert(input, format, writer));
+            return;
+        }
+        XmlNode rootNode;
+        XmlStreamImporter.TextNormalization normalization = new XmlStreamImporter.TextNormalization();
+        if (schema == null) {
+            try (InputStream in = new BufferedInputStream(XmlStreamImporter.openFile(input), XmlStreamImporter.BUFFER_SIZE)) {
+                rootNode = new XmlStreamImporter().importStream(in, ProgressMonitor.NONE, normalization);
+            }
+        } else {
+            SchemaValidation.Report report;
+            try (SchemaValidation.Session session = SchemaValidation.validate(schema, XmlStreamImporter.openFile(input));
+                 InputStream in = new BufferedInputStream(session, XmlStreamImporter.BUFFER_SIZE)) {
+                rootNode = new XmlStreamImporter().importStream(in, ProgressMonitor.NONE, normalization);
+                report = session.finish();
+            }
+            checkReport(report);
+        }
+        XmlFileExporter.export(rootNode, target, new XmlSerializer(ProgressMonitor.NONE, mode, indentation));
+        // A kimenet elkészült, de nem azonos a bemenettel; ezt fájlonként jelezzük
+        if (!normalization.isLossless()) {
+            err.println(String.format("WARNING %s: %,d text values had leading or trailing whitespace trimmed",
+                    input, normalization.getTrimmed()));
+        }
+    }
+
+    /**
+     * Konvertálja a fájlt a megadott formátumba, séma szerinti ellenőrzés nélkül.
+     * @param input A bemeneti fájl.
+     * @param format A kimenet formátuma, vagy null, ha XML.
+     * @param out A kimenet célja.
+     * @throws IOException Ha hiba történik az olvasás vagy az írás során.
+     * @throws XMLStreamException Ha a bemenet nem jól formált XML.
+     */
+    private void convert(Path input, OutputFormat format, Writer out) throws IOException, XMLStreamException {
+        if (format == null) {
+            new XmlSerializer(ProgressMonitor.NONE, mode, indentation).write(new XmlStreamImporter().importFile(input.toFile()), out);
+        } else {
+            StreamingConversion.convert(input, out, format.newConverter(options), ProgressMonitor.NONE);
+        }
+    }
+
+    /**
+     * Ellenőrzi a fájlt a séma szerint egy külön olvasási menetben.
+     * @param input A bemeneti fájl.
+     * @throws IOException Ha a fájl nem olvasható.
+     * @throws SAXException Ha a fájl nem felel meg a sémának.
+     */
+    private void validate(Path input) throws IOException, SAXException {
+        SchemaValidation.Report report;
+        try (SchemaValidation.Session session = SchemaValidation.validate(schema, XmlStreamImporter.openFile(input))) {
+            session.transferTo(OutputStream.nullOutputStream());
+            report = session.finish();
+        }
+        checkReport(report);
+    }
+
+    /**
+     * @param report A séma szerinti ellenőrzés eredménye.
+     * @throws SAXException Ha a fájl nem felel meg a sémának; az üzenet az első néhány hibát sorolja fel.
+     */
+    private static void checkReport(SchemaValidation.Report report) throws SAXException {
+        if (!report.isValid()) {
+            throw new SAXException(report.getTotal() + " schema problem(s): "
+                    + report.summary(REPORTED_SCHEMA_PROBLEMS).trim().replace("\n", "; "));
+        }
+    }
+
+    /**
+     * Kifejti a bemeneti mintákat; minden fájl csak egyszer szerepel, akkor is, ha több minta illeszkedik rá.
+     * @return A bemeneti fájlok, mindegyikhez a minta gyökérmappájával (ehhez képest relatív a kimeneti útvonal).
+     * @throws IOException Ha egy mappa nem olvasható.
+     */
+    Map<Path, Path> resolveSources() throws IOException {
+        Map<Path, Path> sources = new LinkedHashMap<>();
+        for (String pattern : patterns) {
+            Path literal = literalPath(pattern);
+            if (literal != null && Files.isRegularFile(literal)) {
+                Path file = literal.toAbsolutePath().normalize();
+                sources.putIfAbsent(file, file.getParent());
+                continue;
+            }
+
+            Path base;
+            String globPart;
+            if (literal != null && Files.isDirectory(literal)) {
+                // Mappa esetén a benne (és az almappáiban) lévő összes XML fájl, a tömörítettek is
+                base = literal.toAbsolutePath().normalize();
+                StringBuilder extensions = new StringBuilder("**.{xml");
+                for (CompressionCodec codec : Compression.codecs()) {
+                    extensions.append(",xml").append(codec.getExtension());
+                }
+                globPart = extensions.append('}').toString();
+            } else {
+                // A minta gyökere: a helyettesítő karakter nélküli vezető útvonal elemek
+                String[] parts = pattern.replace('\\', '/').split("/", -1);
+                int fixed = 0;
+                while (fixed < parts.length - 1 && !isGlob(parts[fixed])) {
+                    fixed++;
+                }
+                String basePart = String.join("/", Arrays.copyOfRange(parts, 0, fixed));
+                globPart = String.join("/", Arrays.copyOfRange(parts, fixed, parts.length));
+                base = Paths.get(fixed == 0 ? "." : basePart.isEmpty() ? "/" : basePart).toAbsolutePath().normalize();
+            }
+            if (!Files.isDirectory(base)) {
+                err.println("Skipping " + pattern + ": no such directory " + base);
+                continue;
+            }
+
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + globPart);
+            Path root = base;
+            try (Stream<Path> files = Files.walk(base)) {
+                files.filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(root.relativize(file)))
+                        .sorted()
+                        .forEach(file -> sources.putIfAbsent(file, root));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * @param pattern A bemeneti minta.
+     * @return A minta útvonalként, ha nincs benne helyettesítő karakter, különben null.
+     */
+    private static Path literalPath(String pattern) {
+        if (isGlob(pattern)) {
+            return null;
+        }
+        try {
+            return Paths.get(pattern);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param part Az útvonal (részlet).
+     * @return Igaz, ha glob helyettesítő karaktert tartalmaz.
+     */
+    private static boolean isGlob(String part) {
+        for (int i = 0; i < part.length(); i++) {
+            switch (part.charAt(i)) {
+                case '*':
+                case '?':
+                case '[':
+                case '{':
+                    return true;
+                default:
+            }
+        }
+        return false;
+    }
+}
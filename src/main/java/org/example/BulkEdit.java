@@ -0,0 +1,182 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Egy tömeges szerkesztés leírása: a művelet és az argumentumai.
+ * Egy csomóponthoz megadja annak új nevét, attribútumait és szövegét; a végrehajtást
+ * (előzmény, indexek, nézet) a {@link TreeViewController#apply(java.util.List, BulkEdit)} végzi.
+ */
+public final class BulkEdit {
+
+    /**
+     * A tömeges műveletek.
+     */
+    public enum Operation {
+        SET_ATTRIBUTE("Set attribute", "Attribute", "Value"),
+        RENAME_ATTRIBUTE("Rename attribute", "Attribute", "New name"),
+        REMOVE_ATTRIBUTE("Remove attribute", "Attribute", null),
+        RENAME_ELEMENT("Rename element", "New name", null),
+        SET_TEXT("Set text", "Text", null),
+        DELETE("Delete element", null, null);
+
+        private final String label;
+        private final String firstArgument;
+        private final String secondArgument;
+
+        Operation(String label, String firstArgument, String secondArgument) {
+            this.label = label;
+            this.firstArgument = firstArgument;
+            this.secondArgument = secondArgument;
+        }
+
+        /**
+         * @return Az első argumentum megnevezése, vagy null, ha a műveletnek nincs argumentuma.
+         */
+        public String getFirstArgument() {
+            return firstArgument;
+        }
+
+        /**
+         * @return A második argumentum megnevezése, vagy null, ha a műveletnek nincs második argumentuma.
+         */
+        public String getSecondArgument() {
+            return secondArgument;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final Operation operation;
+    private final String first;
+    private final String second;
+
+    /**
+     * Konstruktor, amely ellenőrzi a művelethez szükséges argumentumokat.
+     * @param operation A művelet.
+     * @param first Az első argumentum (attribútumnév, új elemnév vagy szöveg); szövegnél az üres szöveg törli a tartalmat.
+     * @param second A második argumentum (attribútumérték vagy új attribútumnév).
+     * @throws IllegalArgumentException Ha egy kötelező név üres, vagy nem érvényes XML név.
+     */
+    public BulkEdit(@NotNull Operation operation, String first, String second) {
+        this.operation = operation;
+        // A nevek körüli szóközök elírások, a szövegé viszont tartalom
+        this.first = first == null ? "" : operation == Operation.SET_TEXT ? first : first.trim();
+        this.second = second == null ? "" : second;
+        switch (operation) {
+            case SET_ATTRIBUTE:
+            case REMOVE_ATTRIBUTE:
+            case RENAME_ATTRIBUTE:
+                if (this.first.isEmpty()) {
+                    throw new IllegalArgumentException("Attribute name is required");
+                }
+                if (operation == Operation.RENAME_ATTRIBUTE && this.second.trim().isEmpty()) {
+                    throw new IllegalArgumentException("New attribute name is required");
+                }
+                if (operation == Operation.SET_ATTRIBUTE && !XmlNode.isValidName(this.first)) {
+                    throw new IllegalArgumentException("Invalid attribute name: " + this.first);
+                }
+                if (operation == Operation.RENAME_ATTRIBUTE && !XmlNode.isValidName(this.second.trim())) {
+                    throw new IllegalArgumentException("Invalid attribute name: " + this.second.trim());
+                }
+                break;
+            case RENAME_ELEMENT:
+                if (this.first.isEmpty()) {
+                    throw new IllegalArgumentException("Element name is required");
+                }
+                if (!XmlNode.isValidName(this.first)) {
+                    throw new IllegalArgumentException("Invalid element name: " + this.first);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @return A művelet.
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return Igaz, ha a művelet törli az elemeket.
+     */
+    public boolean deletes() {
+        return operation == Operation.DELETE;
+    }
+
+    /**
+     * @param node A módosítandó csomópont.
+     * @return A csomópont új neve.
+     */
+    String name(@NotNull XmlNode node) {
+        return operation == Operation.RENAME_ELEMENT ? first : node.getName();
+    }
+
+    /**
+     * @param node A módosítandó csomópont.
+     * @return A csomópont új attribútumai név-érték párokként; a sorrend megmarad, az új attribútum a végére kerül.
+     */
+    String[] attributes(@NotNull XmlNode node) {
+        String[] attributes = node.getAttributes();
+        int position = indexOf(attributes, first);
+        switch (operation) {
+            case SET_ATTRIBUTE:
+                if (position < 0) {
+                    attributes = Arrays.copyOf(attributes, attributes.length + 2);
+                    attributes[attributes.length - 2] = first;
+                    attributes[attributes.length - 1] = second;
+                } else {
+                    attributes[position + 1] = second;
+                }
+                return attributes;
+            case RENAME_ATTRIBUTE:
+                String newName = second.trim();
+                // Ha az új nevű attribútum már létezik, az átnevezés nem írja felül
+                if (position >= 0 && indexOf(attributes, newName) < 0) {
+                    attributes[position] = newName;
+                }
+                return attributes;
+            case REMOVE_ATTRIBUTE:
+                if (position < 0) {
+                    return attributes;
+                }
+                String[] remaining = new String[attributes.length - 2];
+                System.arraycopy(attributes, 0, remaining, 0, position);
+                System.arraycopy(attributes, position + 2, remaining, position, attributes.length - position - 2);
+                return remaining;
+            default:
+                return attributes;
+        }
+    }
+
+    /**
+     * @param node A módosítandó csomópont.
+     * @return A csomópont új szöveges tartalma, vagy null.
+     */
+    String text(@NotNull XmlNode node) {
+        if (operation != Operation.SET_TEXT) {
+            return node.getText();
+        }
+        return first.isEmpty() ? null : first;
+    }
+
+    /**
+     * @return Az attribútum nevének pozíciója a név-érték párok között, vagy -1.
+     */
+    private static int indexOf(String[] attributes, String name) {
+        for (int i = 0; i < attributes.length; i += 2) {
+            if (attributes[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,142 @@
+package org.example;
+
+import javafx.fxml.FXML;
+import javafx.scene.Node;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import javafx.event.ActionEvent;
+
+import java.util.List;
+
+/**
+ * A tömeges szerkesztés kontroller osztálya: XPath kifejezéssel kiválasztott elemeken hajt végre egy műveletet.
+ * A Count gomb csak megszámolja a találatokat; az Apply egyetlen bejárással kiválasztja,
+ * majd egyetlen visszavonható lépésként módosítja őket.
+ */
+public class BulkEditController {
+    @FXML
+    public TextField pathField;
+    @FXML
+    public Label matchLabel;
+    @FXML
+    public ChoiceBox<BulkEdit.Operation> operationChoice;
+    @FXML
+    public TextField firstField;
+    @FXML
+    public TextField secondField;
+    private PrimaryController primaryController;
+
+    /**
+     * Feltölti a műveletek listáját, és a kiválasztott művelethez igazítja az argumentummezőket.
+     */
+    @FXML
+    public void initialize() {
+        operationChoice.getItems().setAll(BulkEdit.Operation.values());
+        operationChoice.getSelectionModel().selectedItemProperty()
+                .addListener((obs, oldOperation, operation) -> showArguments(operation));
+        operationChoice.getSelectionModel().selectFirst();
+    }
+
+    private void showArguments(BulkEdit.Operation operation) {
+        firstField.setPromptText(operation == null ? null : operation.getFirstArgument());
+        firstField.setDisable(operation == null || operation.getFirstArgument() == null);
+        secondField.setPromptText(operation == null ? null : operation.getSecondArgument());
+        secondField.setDisable(operation == null || operation.getSecondArgument() == null);
+    }
+
+    /**
+     * Megszámolja a kifejezésre illeszkedő elemeket, és kiírja a számukat.
+     *
+     * @param actionEvent Az esemény, amely aktiválta a műveletet.
+     */
+    public void onCount(ActionEvent actionEvent) {
+        List<XmlNode> matches = select();
+        if (matches != null) {
+            matchLabel.setText(matches.size() + " találat");
+        }
+    }
+
+    /**
+     * Végrehajtja a kiválasztott műveletet az összes illeszkedő elemen, frissíti az XML előnézetet,
+     * majd bezárja az ablakot. Hiba vagy találat hiányában az ablak nyitva marad az üzenettel.
+     *
+     * @param actionEvent Az esemény, amely aktiválta a műveletet.
+     */
+    public void onApply(ActionEvent actionEvent) {
+        if (this.primaryController == null) return;
+        if (this.primaryController.isTaskRunning()) {
+            matchLabel.setText("Háttérfeladat fut, próbáld újra később");
+            return;
+        }
+
+        BulkEdit edit;
+        try {
+            edit = new BulkEdit(operationChoice.getValue(), firstField.getText(), secondField.getText());
+        } catch (IllegalArgumentException e) {
+            matchLabel.setText("Hibás adat: " + e.getMessage());
+            return;
+        }
+        List<XmlNode> matches = select();
+        if (matches == null) return;
+        if (matches.isEmpty()) {
+            matchLabel.setText("Nincs találat");
+            return;
+        }
+
+        this.primaryController.getTreeViewController().apply(matches, edit);
+        this.primaryController.convertTreeViewToXml();
+
+        Stage window = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
+        window.close();
+    }
+
+    /**
+     * @return A kifejezésre illeszkedő elemek, vagy null, ha nincs dokumentum vagy a kifejezés hibás (ekkor az üzenet kiírva).
+     */
+    private List<XmlNode> select() {
+        XmlNode rootNode = this.primaryController == null ? null
+                : this.primaryController.getTreeViewController().getRootNode();
+        if (rootNode == null) {
+            matchLabel.setText("Nincs megnyitott dokumentum");
+            return null;
+        }
+        try {
+            return NodePath.compile(pathField.getText()).select(rootNode);
+        } catch (IllegalArgumentException e) {
+            matchLabel.setText("Hibás kifejezés: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Alaphelyzetbe állítja az ablakot: üres kifejezés és argumentumok, az első művelet, üzenet nélkül.
+     * Az ablak újra felhasználódik, ezért minden megnyitás előtt meg kell hívni.
+     */
+    public void reset() {
+        pathField.clear();
+        firstField.clear();
+        secondField.clear();
+        matchLabel.setText(null);
+        operationChoice.getSelectionModel().selectFirst();
+    }
+
+    /**
+     * Visszalépés eseménykezelő, amely bezárja az aktuális ablakot.
+     *
+     * @param actionEvent Az esemény, amely aktiválta a visszalépési műveletet.
+     */
+    public void onBack(ActionEvent actionEvent) {
+        ((Stage) ((Node) actionEvent.getSource()).getScene().getWindow()).close();
+    }
+
+    /**
+     * Beállítja a fővezérlőt a megadott PrimaryController objektumra.
+     *
+     * @param primaryController A fővezérlőt reprezentáló objektum.
+     */
+    public void setPrimaryController(PrimaryController primaryController) {
+        this.primaryController = primaryController;
+    }
+}
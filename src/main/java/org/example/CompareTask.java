@@ -0,0 +1,89 @@
+package org.example;
+
+import javafx.concurrent.Task;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Háttérben futó feladat, amely beolvas egy másik XML fájlt, és szerkezetileg összehasonlítja
+ * a megnyitott dokumentummal (lásd {@link XmlDiff}). A másik dokumentumból nem készül sorindex, keresőindex
+ * és ellenőrzés, mert csak az összehasonlítás idejére kell.
+ * Az előrehaladást a beolvasott bájtok alapján jelzi, és megszakítható.
+ */
+public class CompareTask extends Task<XmlDiff> {
+
+    /**
+     * A beolvasáshoz használt puffer mérete bájtban.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final XmlStreamImporter importer;
+    private final File file;
+    private final XmlNode rootNode;
+
+    /**
+     * Konstruktor, amely beállítja a beolvasót, az összehasonlítandó fájlt és a megnyitott dokumentumot.
+     * @param importer A dokumentum felépítését végző beolvasó.
+     * @param file Az összehasonlítandó XML fájl.
+     * @param rootNode A megnyitott dokumentum gyökér csomópontja.
+     */
+    public CompareTask(XmlStreamImporter importer, File file, XmlNode rootNode) {
+        this.importer = importer;
+        this.file = file;
+        this.rootNode = rootNode;
+    }
+
+    /**
+     * Beolvassa a fájlt, és összehasonlítja a megnyitott dokumentummal. A háttérszálon fut.
+     * @return Az eltérések.
+     * @throws Exception Ha a fájl nem olvasható, vagy nem jól formált XML.
+     */
+    @Override
+    protected XmlDiff call() throws Exception {
+        long totalBytes = file.length();
+        updateMessage("Beolvasás: " + file.getName());
+        ProgressMonitor cancellation = new ProgressMonitor() {
+            @Override
+            public void progress(long nodes) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return CompareTask.this.isCancelled();
+            }
+        };
+
+        XmlNode other;
+        try (CountingInputStream counter = new CountingInputStream(XmlStreamImporter.openFile(file.toPath()));
+             BufferedInputStream in = new BufferedInputStream(counter, BUFFER_SIZE)) {
+            other = importer.importStream(in, new ProgressMonitor() {
+                @Override
+                public void progress(long nodes) {
+                    long bytesRead = counter.getCount();
+                    updateProgress(bytesRead, totalBytes);
+                    updateMessage(String.format("Beolvasva: %,d / %,d kB, %,d elem",
+                            bytesRead / 1024, totalBytes / 1024, nodes));
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return CompareTask.this.isCancelled();
+                }
+            });
+        }
+        if (isCancelled()) {
+            throw new CancellationException("Compare cancelled");
+        }
+
+        updateMessage("Összehasonlítás: " + file.getName());
+        updateProgress(-1, 1);
+        XmlDiff diff = XmlDiff.compare(rootNode, other, cancellation);
+
+        updateProgress(1, 1);
+        updateMessage(String.format("Összehasonlítva: %s, %,d új, %,d törölt, %,d módosult elem", file.getName(),
+                diff.count(XmlDiff.Kind.ADDED), diff.count(XmlDiff.Kind.REMOVED), diff.count(XmlDiff.Kind.CHANGED)));
+        return diff;
+    }
+}
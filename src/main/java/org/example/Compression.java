@@ -0,0 +1,366 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A tömörített XML fájlok átlátszó olvasása és írása.
+ * A bemenet formátuma a fájl elejéből derül ki (lásd {@link CompressionCodec#matches}), a kimeneté a kiterjesztésből.
+ * A kicsomagolás egy külön szálon fut, és a kicsomagolt darabok egy korlátos soron át jutnak a beolvasóhoz,
+ * így a kicsomagolás és az elemzés átfedve fut, ideiglenes fájl nélkül.
+ * A formátumok: a beépített gzip, és a `ServiceLoader`-rel talált, illetve a {@link #register}-rel felvett kodekek.
+ */
+public final class Compression {
+
+    /**
+     * A beépített gzip kodek (`.gz`), a JDK `java.util.zip` osztályaival.
+     */
+    public static final CompressionCodec GZIP = new GzipCodec();
+
+    /**
+     * A formátum felismeréséhez beolvasott bájtok száma.
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * A kicsomagolt darabok mérete bájtban.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * A kicsomagoló és a beolvasó között várakozó darabok legnagyobb száma.
+     */
+    private static final int QUEUE_CAPACITY = 8;
+
+    /**
+     * A folyam végét, illetve a kicsomagolás hibáját jelző darabok.
+     */
+    private static final byte[] END = new byte[0];
+    private static final byte[] FAILED = new byte[0];
+
+    private static final List<CompressionCodec> CODECS = new CopyOnWriteArrayList<>(loadCodecs());
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "xml-decompress-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Compression() {
+    }
+
+    private static List<CompressionCodec> loadCodecs() {
+        List<CompressionCodec> codecs = new ArrayList<>();
+        codecs.add(GZIP);
+        for (CompressionCodec codec : ServiceLoader.load(CompressionCodec.class)) {
+            codecs.add(codec);
+        }
+        return codecs;
+    }
+
+    /**
+     * Felvesz egy kodeket; az azonos nevű korábbi kodek helyére lép.
+     * @param codec A felveendő kodek.
+     */
+    public static synchronized void register(@NotNull CompressionCodec codec) {
+        CODECS.removeIf(existing -> existing.getName().equals(codec.getName()));
+        CODECS.add(codec);
+    }
+
+    /**
+     * @return Az ismert kodekek, a felvétel sorrendjében.
+     */
+    public static List<CompressionCodec> codecs() {
+        return Collections.unmodifiableList(CODECS);
+    }
+
+    /**
+     * Felismeri a fájl tömörítését az első bájtjai alapján.
+     * @param file A vizsgált fájl.
+     * @return A fájl kodekje, vagy null, ha a fájl nem tömörített (vagy ismeretlen formátumú).
+     * @throws IOException Ha a fájl nem olvasható.
+     */
+    public static CompressionCodec detect(@NotNull Path file) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int length;
+        try (InputStream in = Files.newInputStream(file)) {
+            length = in.readNBytes(header, 0, HEADER_SIZE);
+        }
+        for (CompressionCodec codec : CODECS) {
+            if (codec.matches(header, length)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param file A kimeneti fájl.
+     * @return A kiterjesztéséhez tartozó kodek, vagy null, ha a kimenet nem tömörített.
+     */
+    public static CompressionCodec forTarget(@NotNull Path file) {
+        String name = file.getFileName().toString();
+        for (CompressionCodec codec : CODECS) {
+            if (hasExtension(name, codec)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param name A fájl neve.
+     * @return A név végén álló tömörítési kiterjesztés, az eredeti kis- és nagybetűkkel, vagy üres szöveg.
+     */
+    public static String extensionOf(@NotNull String name) {
+        for (CompressionCodec codec : CODECS) {
+            if (hasExtension(name, codec)) {
+                return name.substring(name.length() - codec.getExtension().length());
+            }
+        }
+        return "";
+    }
+
+    private static boolean hasExtension(String name, CompressionCodec codec) {
+        String extension = codec.getExtension();
+        return name.length() > extension.length()
+                && name.regionMatches(true, name.length() - extension.length(), extension, 0, extension.length());
+    }
+
+    /**
+     * A fájl tartalmának becsült mérete kicsomagolva, a memóriakerethez és a statisztikákhoz.
+     * @param file A fájl.
+     * @return A nem tömörített fájl mérete, illetve a kodek becslése; ha a kodek nem becsül, a tömörített méret.
+     * @throws IOException Ha a fájl nem olvasható.
+     */
+    public static long contentSize(@NotNull Path file) throws IOException {
+        long size = Files.size(file);
+        CompressionCodec codec = detect(file);
+        return codec == null ? size : Math.max(size, codec.uncompressedSize(file));
+    }
+
+    /**
+     * Kicsomagolja a folyamot egy külön szálon; a visszaadott folyam a kicsomagolt darabokat olvassa.
+     * A kicsomagolás hibája a következő olvasáskor, `IOException`-ként jelentkezik.
+     * @param codec A tömörítés formátuma.
+     * @param in A tömörített tartalom folyama; a kicsomagoló szál zárja le.
+     * @return A kicsomagolt tartalom folyama; a lezárása megállítja a kicsomagolást, és megvárja a szál végét.
+     */
+    public static InputStream decompress(@NotNull CompressionCodec codec, @NotNull InputStream in) {
+        return new PipelinedInputStream(codec, in);
+    }
+
+    /**
+     * A kicsomagoló szál által töltött, korlátos sorból olvasó folyam.
+     * A teljes darabok pufferei visszakerülnek a kicsomagolóhoz, így olvasás közben nem foglalódik új puffer.
+     */
+    private static final class PipelinedInputStream extends InputStream {
+
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 2);
+        private final Future<?> pump;
+        private volatile boolean closed;
+        private volatile Throwable failure;
+
+        private byte[] chunk = END;
+        private int position;
+        private boolean ended;
+
+        PipelinedInputStream(CompressionCodec codec, InputStream source) {
+            pump = EXECUTOR.submit(() -> pump(codec, source));
+        }
+
+        /**
+         * A kicsomagoló szál oldala: teljes darabokat olvas, és a sorba teszi őket, amíg a folyam tart.
+         */
+        private void pump(CompressionCodec codec, InputStream source) {
+            try (Metrics.Timer timer = Metrics.start(Metrics.Phase.DECOMPRESS);
+                 InputStream raw = source;
+                 InputStream in = codec.decompress(raw)) {
+                long total = 0;
+                while (!closed) {
+                    byte[] buffer = free.poll();
+                    if (buffer == null) {
+                        buffer = new byte[CHUNK_SIZE];
+                    }
+                    int n = in.readNBytes(buffer, 0, CHUNK_SIZE);
+                    total += n;
+                    if (n > 0) {
+                        send(n == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, n));
+                    }
+                    if (n < CHUNK_SIZE) {
+                        break;
+                    }
+                }
+                timer.bytes(total);
+                send(END);
+            } catch (Throwable e) {
+                failure = e;
+                send(FAILED);
+            }
+        }
+
+        /**
+         * Átadja a darabot a beolvasónak; ha a folyamot közben lezárták, eldobja.
+         */
+        private void send(byte[] buffer) {
+            try {
+                while (!closed && !queue.offer(buffer, 50, TimeUnit.MILLISECONDS)) {
+                    // A beolvasó lassabb: a kicsomagoló megvárja, így a sor mérete korlátos marad
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private boolean fill() throws IOException {
+            while (position >= chunk.length) {
+                if (ended) {
+                    return false;
+                }
+                if (chunk.length == CHUNK_SIZE) {
+                    free.offer(chunk);
+                }
+                try {
+                    chunk = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while decompressing");
+                }
+                position = 0;
+                if (chunk == END) {
+                    ended = true;
+                } else if (chunk == FAILED) {
+                    ended = true;
+                    throw new IOException(failure.getMessage(), failure);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? chunk[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(@NotNull byte[] buffer, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - position;
+        }
+
+        /**
+         * Megállítja a kicsomagolást, és megvárja, amíg a szál lezárja a tömörített folyamot.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+            try {
+                pump.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while closing the decompressor");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * A gzip formátum (RFC 1952); az egymás után fűzött tagokat is kicsomagolja.
+     */
+    private static final class GzipCodec implements CompressionCodec {
+
+        @Override
+        public @NotNull String getName() {
+            return "gzip";
+        }
+
+        @Override
+        public @NotNull String getExtension() {
+            return ".gz";
+        }
+
+        @Override
+        public boolean matches(@NotNull byte[] header, int length) {
+            return length >= 2 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b;
+        }
+
+        @Override
+        public @NotNull InputStream decompress(@NotNull InputStream in) throws IOException {
+            return new GZIPInputStream(in, CHUNK_SIZE);
+        }
+
+        @Override
+        public @NotNull OutputStream compress(@NotNull OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, CHUNK_SIZE);
+        }
+
+        /**
+         * Az utolsó tag záró mezője (ISIZE) szerinti méret; ez 4 GiB-nál nagyobb tartalomnál és több tagnál
+         * csak alsó becslés.
+         */
+        @Override
+        public long uncompressedSize(@NotNull Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < 18) {
+                    return -1;
+                }
+                ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                while (trailer.hasRemaining() && channel.read(trailer, size - 4 + trailer.position()) > 0) {
+                    // a záró négy bájt
+                }
+                return trailer.hasRemaining() ? -1 : Integer.toUnsignedLong(trailer.getInt(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Egy tömörítési formátum kódolója és dekódolója. A gzip beépített (lásd {@link Compression#GZIP});
+ * a többi formátum (például zstd) egy külső könyvtárra épülő megvalósítással csatlakoztatható,
+ * `ServiceLoader` szolgáltatásként vagy {@link Compression#register}-rel.
+ * A megvalósításoknak szálbiztosnak kell lenniük: a folyamokat több szál is kérheti egyszerre.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return A formátum rövid neve, például `gzip`.
+     */
+    @NotNull
+    String getName();
+
+    /**
+     * @return A tömörített fájlok kiterjesztése a ponttal, például `.gz`; a kimenet formátuma ebből derül ki.
+     */
+    @NotNull
+    String getExtension();
+
+    /**
+     * Felismeri a formátumot a fájl elejéről; a bemenet formátuma ebből derül ki, nem a kiterjesztésből.
+     * @param header A fájl első bájtjai.
+     * @param length Az érvényes bájtok száma; rövid fájlnál kevesebb, mint a tömb mérete.
+     * @return Igaz, ha a fájl ebben a formátumban van.
+     */
+    boolean matches(@NotNull byte[] header, int length);
+
+    /**
+     * @param in A tömörített tartalom folyama.
+     * @return A kicsomagolt tartalom folyama; a lezárása a bemenetet is lezárja.
+     * @throws IOException Ha a folyam eleje nem olvasható, vagy nem ebben a formátumban van.
+     */
+    @NotNull
+    InputStream decompress(@NotNull InputStream in) throws IOException;
+
+    /**
+     * @param out A tömörített tartalom célja.
+     * @return A tömörítő folyam; a lezárása írja ki a formátum zárását, és lezárja a célt.
+     * @throws IOException Ha a formátum fejléce nem írható ki.
+     */
+    @NotNull
+    OutputStream compress(@NotNull OutputStream out) throws IOException;
+
+    /**
+     * A kicsomagolt méret becslése a memóriakerethez és a statisztikákhoz, a fájl kicsomagolása nélkül.
+     * @param file A tömörített fájl.
+     * @return A kicsomagolt méret bájtban, vagy -1, ha a formátumból nem derül ki.
+     * @throws IOException Ha a fájl nem olvasható.
+     */
+    default long uncompressedSize(@NotNull Path file) throws IOException {
+        return -1;
+    }
+}
@@ -0,0 +1,311 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Több fájl párhuzamos konvertálását végző motor.
+ * A fájlok egy `ForkJoinPool` szálain futnak; a szálak egy közös, méret szerint csökkenő sorrendű listából
+ * veszik a következő fájlt, így mindig a legnagyobb várakozó indul, és a végén nem egyetlen nagy fájlra vár
+ * az összes szál.
+ * A memóriahasználatot egy heap-keret korlátozza: minden fájl a méretéből becsült memóriát
+ * foglalja le a keretből a feldolgozás idejére, így néhány óriási fájl sem futtathatja ki
+ * a JVM-et a memóriából, miközben sok kicsi párhuzamosan halad.
+ */
+public class ConversionEngine {
+
+    /**
+     * Egy fájl konvertálását végző művelet.
+     */
+    @FunctionalInterface
+    public interface Converter {
+        /**
+         * @param input A bemeneti fájl.
+         * @param target A kimeneti fájl.
+         * @throws Exception Ha a fájl nem konvertálható; a motor rögzíti (a hibákkal, például a memória
+         *                   elfogyásával együtt), és folytatja a többivel.
+         */
+        void convert(@NotNull Path input, @NotNull Path target) throws Exception;
+    }
+
+    /**
+     * Egy konvertálandó fájl: a bemenet, a kimenet és a bemenet mérete bájtban.
+     */
+    public static final class Job {
+        private final Path input;
+        private final Path target;
+        private final long size;
+        private final long memory;
+
+        /**
+         * Konstruktor olyan fájlhoz, amelynek a teljes modellje a memóriába kerül; a becsült memória a méretéből adódik.
+         * @param input A bemeneti fájl.
+         * @param target A kimeneti fájl.
+         * @param size A bemeneti fájl mérete bájtban.
+         */
+        public Job(@NotNull Path input, @NotNull Path target, long size) {
+            this(input, target, size, size * EXPANSION_FACTOR);
+        }
+
+        /**
+         * @param input A bemeneti fájl.
+         * @param target A kimeneti fájl.
+         * @param size A bemeneti fájl mérete bájtban.
+         * @param memory A feldolgozáshoz becsült memória bájtban (folyamatos konvertálásnál {@link ConversionEngine#STREAMING_MEMORY}).
+         */
+        public Job(@NotNull Path input, @NotNull Path target, long size, long memory) {
+            this.input = input;
+            this.target = target;
+            this.size = size;
+            this.memory = memory;
+        }
+
+        /**
+         * @return A bemeneti fájl.
+         */
+        public Path getInput() {
+            return input;
+        }
+
+        /**
+         * @return A kimeneti fájl.
+         */
+        public Path getTarget() {
+            return target;
+        }
+
+        /**
+         * @return A bemeneti fájl mérete bájtban.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return A feldolgozáshoz becsült memória bájtban.
+         */
+        public long getMemory() {
+            return memory;
+        }
+    }
+
+    /**
+     * A futás összesítése.
+     */
+    public static final class Summary {
+        private final int files;
+        private final int converted;
+        private final long bytes;
+        private final long nanos;
+        private final Map<Path, Throwable> failures;
+
+        private Summary(int files, int converted, long bytes, long nanos, Map<Path, Throwable> failures) {
+            this.files = files;
+            this.converted = converted;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.failures = failures;
+        }
+
+        /**
+         * @return Az összes fájl száma.
+         */
+        public int getFiles() {
+            return files;
+        }
+
+        /**
+         * @return A sikeresen konvertált fájlok száma.
+         */
+        public int getConverted() {
+            return converted;
+        }
+
+        /**
+         * @return A sikeresen konvertált fájlok összmérete bájtban.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return A futás ideje nanoszekundumban.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return A sikertelen fájlok és a hibáik, a bemenet sorrendjében.
+         */
+        public Map<Path, Throwable> getFailures() {
+            return failures;
+        }
+    }
+
+    /**
+     * A beolvasott modell becsült mérete a fájlmérethez képest: UTF-16 szövegek,
+     * csomópont objektumok és attribútum tömbök, valamint a kimeneti pufferek.
+     */
+    static final int EXPANSION_FACTOR = 6;
+
+    /**
+     * A modell felépítése nélküli, folyamatos konvertálás becsült memóriája a fájl méretétől függetlenül:
+     * a be- és kimeneti pufferek, az értelmező és a nyitott elemek lánca.
+     */
+    public static final long STREAMING_MEMORY = 1024 * 1024;
+
+    /**
+     * A heap-keret egysége bájtban; a szemafor engedélyei ennyi bájtot jelentenek.
+     */
+    private static final int PERMIT_BYTES = 1024;
+
+    /**
+     * A fájlonként legalább lefoglalt memória; a kis fájloknál is van rögzített költség.
+     */
+    private static final long MIN_RESERVATION = 64 * 1024;
+
+    private final int parallelism;
+    private final long heapBudget;
+
+    /**
+     * Konstruktor, amely beállítja a szálak számát és a heap-keretet.
+     * @param parallelism A párhuzamosan dolgozó szálak száma.
+     * @param heapBudget Az egyszerre feldolgozás alatt álló fájlokra jutó becsült memória felső korlátja bájtban.
+     */
+    public ConversionEngine(int parallelism, long heapBudget) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (heapBudget < MIN_RESERVATION) {
+            throw new IllegalArgumentException("Heap budget must be at least " + MIN_RESERVATION + " bytes");
+        }
+        this.parallelism = parallelism;
+        this.heapBudget = heapBudget;
+    }
+
+    /**
+     * @return Az alapértelmezett heap-keret: a maximális heap fele.
+     */
+    public static long defaultHeapBudget() {
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * Lefuttatja a konvertálást az összes fájlra, és megvárja a végét.
+     * Egy fájl hibája nem állítja meg a többit.
+     * @param jobs A konvertálandó fájlok.
+     * @param converter Az egy fájlt konvertáló művelet.
+     * @return A futás összesítése.
+     */
+    public Summary run(@NotNull List<Job> jobs, @NotNull Converter converter) {
+        long start = System.nanoTime();
+        // Legnagyobb először: a nagy fájlok nem a futás végére maradnak
+        List<Job> ordered = new ArrayList<>(jobs);
+        ordered.sort(Comparator.comparingLong(Job::getSize).reversed());
+
+        // A fair szemafor miatt a nagy foglalás nem éhezik ki a sok kicsi mögött
+        int budgetPermits = (int) Math.min(Integer.MAX_VALUE, heapBudget / PERMIT_BYTES);
+        Semaphore memory = new Semaphore(budgetPermits, true);
+        Map<Path, Throwable> failures = new ConcurrentHashMap<>();
+        AtomicInteger converted = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+
+        // Minden szál a közös listából veszi a következő fájlt; a lopás a sorrendet a kicsik felé fordítaná
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int index = next.getAndIncrement(); index < ordered.size(); index = next.getAndIncrement()) {
+                Job job = ordered.get(index);
+                int permits = permits(job.getMemory(), budgetPermits);
+                try {
+                    memory.acquire(permits);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.put(job.getInput(), e);
+                    continue;
+                }
+                try {
+                    converter.convert(job.getInput(), job.getTarget());
+                    converted.incrementAndGet();
+                    bytes.addAndGet(job.getSize());
+                } catch (Throwable e) {
+                    // Egy fájl hibája (akár Error is) nem szakíthatja meg a futást összesítés nélkül
+                    failures.put(job.getInput(), e);
+                } finally {
+                    memory.release(permits);
+                }
+            }
+        };
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(parallelism);
+        for (int i = 0; i < Math.min(parallelism, ordered.size()); i++) {
+            tasks.add(ForkJoinTask.adapt(worker));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism, ConversionEngine::newWorker, null, false);
+        try {
+            // Szálanként egy feladat, amely a lista végéig dolgozik
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } finally {
+            pool.shutdown();
+        }
+
+        return new Summary(jobs.size(), converted.get(), bytes.get(), System.nanoTime() - start,
+                orderedFailures(jobs, failures));
+    }
+
+    /**
+     * @param memory A fájl feldolgozásához becsült memória bájtban.
+     * @param budgetPermits A teljes keret engedélyekben.
+     * @return A fájl feldolgozásához lefoglalandó engedélyek száma; a keretnél nagyobb igény az egész keretet kapja,
+     * így egyedül fut, de lefut.
+     */
+    static int permits(long memory, int budgetPermits) {
+        long estimate = Math.max(MIN_RESERVATION, memory);
+        return (int) Math.min(budgetPermits, (estimate + PERMIT_BYTES - 1) / PERMIT_BYTES);
+    }
+
+    /**
+     * @param jobs A fájlok eredeti sorrendben.
+     * @param failures A sikertelen fájlok.
+     * @return A sikertelen fájlok a bemenet sorrendjében.
+     */
+    private static Map<Path, Throwable> orderedFailures(List<Job> jobs, Map<Path, Throwable> failures) {
+        if (failures.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Path, Throwable> ordered = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            Throwable failure = failures.get(job.getInput());
+            if (failure != null) {
+                ordered.put(job.getInput(), failure);
+            }
+        }
+        return Collections.unmodifiableMap(ordered);
+    }
+
+    /**
+     * Létrehozza a dolgozó szálat; a szálak démonok, és a nevük a hibakereséshez beszédes.
+     * @param pool A szálat birtokló pool.
+     * @return Az új dolgozó szál.
+     */
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("xml-convert-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,171 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A JSON, YAML és CSV kimenet beállításai. A beállító metódusok az objektumot adják vissza, így láncolhatók.
+ */
+public final class ConversionOptions {
+
+    /**
+     * Az összes elemnévre illeszkedő minta a tömbként leképezett elemek között.
+     */
+    public static final String ALL_ELEMENTS = "*";
+
+    private Set<String> arrays = Collections.singleton(ALL_ELEMENTS);
+    private String attributePrefix = "@";
+    private String textKey = "#text";
+    private String childrenKey = "#children";
+    private boolean pretty = true;
+    private String rowElement;
+    private List<String> columns;
+    private char delimiter = ',';
+
+    /**
+     * Megadja, mely elemek kerüljenek JSON/YAML tömbbe. A szomszédos, azonos nevű testvérek egy tömböt alkotnak;
+     * a nem felsorolt elemek egyetlen értékként íródnak ki. Ha egy nem felsorolt név egy elemben többször is
+     * előfordul, az elem gyerekei sorrendben íródnak ki (lásd {@link #childrenKey}).
+     * @param arrays Az elemnevek; a `*` minden elemre illeszkedik.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions arrays(@NotNull Set<String> arrays) {
+        this.arrays = Collections.unmodifiableSet(new LinkedHashSet<>(arrays));
+        return this;
+    }
+
+    /**
+     * @param attributePrefix Az attribútumok kulcsainak előtagja a JSON/YAML kimenetben; lehet üres.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions attributePrefix(@NotNull String attributePrefix) {
+        this.attributePrefix = attributePrefix;
+        return this;
+    }
+
+    /**
+     * @param textKey Az elem szövegének kulcsa, ha az elemnek attribútuma vagy gyereke is van.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions textKey(@NotNull String textKey) {
+        this.textKey = textKey;
+        return this;
+    }
+
+    /**
+     * @param childrenKey A gyerekek sorrendben felsorolt tömbjének kulcsa azokban az elemekben, ahol a gyerekek
+     *                    nevei kulcsként ütköznének (lásd {@link StructuredConverter}).
+     * @return Ez az objektum.
+     */
+    public ConversionOptions childrenKey(@NotNull String childrenKey) {
+        this.childrenKey = childrenKey;
+        return this;
+    }
+
+    /**
+     * @param pretty Igaz esetén a JSON kimenet behúzott, soronként egy értékkel; hamis esetén tömörített.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions pretty(boolean pretty) {
+        this.pretty = pretty;
+        return this;
+    }
+
+    /**
+     * @param rowElement A CSV sorainak elemneve, vagy null, ha a leggyakoribb elem legyen.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions rowElement(String rowElement) {
+        this.rowElement = rowElement;
+        return this;
+    }
+
+    /**
+     * @param columns A CSV oszlopai (lásd {@link CsvConverter}), vagy null, ha a sorokban előforduló összes érték.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions columns(List<String> columns) {
+        this.columns = columns == null ? null : List.copyOf(columns);
+        return this;
+    }
+
+    /**
+     * @param delimiter A CSV mezőelválasztó karaktere.
+     * @return Ez az objektum.
+     */
+    public ConversionOptions delimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * @param name Az elem neve.
+     * @return Igaz, ha az elem JSON/YAML tömbbe kerül.
+     */
+    public boolean isArray(@NotNull String name) {
+        return arrays.contains(ALL_ELEMENTS) || arrays.contains(name);
+    }
+
+    /**
+     * @return A tömbként leképezett elemek nevei.
+     */
+    public Set<String> getArrays() {
+        return arrays;
+    }
+
+    /**
+     * @return Az attribútumok kulcsainak előtagja.
+     */
+    public String getAttributePrefix() {
+        return attributePrefix;
+    }
+
+    /**
+     * @return Az elem szövegének kulcsa.
+     */
+    public String getTextKey() {
+        return textKey;
+    }
+
+    /**
+     * @return A gyerekek sorrendben felsorolt tömbjének kulcsa.
+     */
+    public String getChildrenKey() {
+        return childrenKey;
+    }
+
+    /**
+     * @return Igaz, ha a JSON kimenet behúzott.
+     */
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    /**
+     * @return A CSV sorainak elemneve, vagy null.
+     */
+    public String getRowElement() {
+        return rowElement;
+    }
+
+    /**
+     * @return A CSV oszlopai, vagy null.
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return A CSV mezőelválasztó karaktere.
+     */
+    public char getDelimiter() {
+        return delimiter;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Olyan bemeneti folyam, amely számolja az eddig beolvasott bájtok számát.
+ * A beolvasás előrehaladásának kijelzéséhez használjuk.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    /**
+     * Az eddig beolvasott bájtok száma. Más szálról is olvasható.
+     */
+    private volatile long count;
+
+    /**
+     * Konstruktor, amely becsomagolja a megadott folyamot.
+     * @param in A becsomagolt bemeneti folyam.
+     */
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * @return Az eddig beolvasott bájtok száma.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+}
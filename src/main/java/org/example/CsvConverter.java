@@ -0,0 +1,259 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CSV kimenetet író konvertáló: egy ismétlődő elem (például `constant`) minden előfordulása egy sor.
+ * Az oszlopok kulcsai az elemhez képest, a {@link NodePath} jelöléséhez hasonlóan:
+ * `@a` az elem attribútuma, `text()` a szövege, `c` a `c` gyerekének szövege, `c/@a` a gyerek attribútuma.
+ * A mélyebb leszármazottak nem kerülnek a sorba; az azonos nevű gyerekek értékei `|` jellel összefűzve.
+ * A sorelem belsejében lévő újabb sorelem nem külön sor.
+ * Ha a sorelem vagy az oszlopok nincsenek megadva, egy előzetes menet határozza meg őket: a sorelem
+ * a leggyakoribb elemnév (egyenlőségnél az elsőként előforduló), az oszlopok pedig az összes előforduló kulcs,
+ * az első előfordulásuk sorrendjében. Az oszlopok neve a fejlécsorba kerül.
+ */
+public final class CsvConverter implements OutputConverter {
+
+    /**
+     * Az elem szövegének kulcsa.
+     */
+    public static final String TEXT_KEY = "text()";
+
+    private final ConversionOptions options;
+    private String rowElement;
+    private List<String> columns;
+
+    private Appendable out;
+    /**
+     * Az oszlopok helye kulcsfajtánként, hogy soronként ne kelljen kulcsokat összefűzni.
+     */
+    private final Map<String, Integer> attributeColumns = new HashMap<>();
+    private final Map<String, Integer> childColumns = new HashMap<>();
+    private final Map<String, Integer> childAttributeColumns = new HashMap<>();
+    private int textColumn = -1;
+    private String[] values;
+
+    private int depth;
+    /**
+     * A sorelem mélysége, vagy -1, ha nem vagyunk sorban.
+     */
+    private int rowDepth = -1;
+    /**
+     * A sorelem éppen nyitott gyerekének neve.
+     */
+    private String child;
+
+    /**
+     * Konstruktor, amely beállítja a kimenet beállításait.
+     * @param options A kimenet beállításai; a sorelem és az oszlopok hiányában előzetes menet kell.
+     */
+    public CsvConverter(@NotNull ConversionOptions options) {
+        this.options = options;
+        this.rowElement = options.getRowElement();
+        this.columns = options.getColumns();
+    }
+
+    @Override
+    public OutputConverter prepass() {
+        return rowElement != null && columns != null ? null : new Scanner();
+    }
+
+    @Override
+    public void start(@NotNull Appendable out) throws IOException {
+        if (rowElement == null || columns == null) {
+            throw new IllegalStateException("Row element and columns are not known; run the prepass first");
+        }
+        this.out = out;
+        for (int i = columns.size() - 1; i >= 0; i--) {
+            String key = columns.get(i);
+            if (key.equals(TEXT_KEY)) {
+                textColumn = i;
+            } else if (key.startsWith("@")) {
+                attributeColumns.put(key.substring(1), i);
+            } else if (key.contains("/@")) {
+                childAttributeColumns.put(key, i);
+            } else {
+                childColumns.put(key, i);
+            }
+        }
+        values = new String[columns.size()];
+        writeRow(columns.toArray(new String[0]));
+    }
+
+    @Override
+    public void startElement(@NotNull String name, @NotNull String[] attributes) throws IOException {
+        depth++;
+        if (rowDepth < 0) {
+            if (name.equals(rowElement)) {
+                rowDepth = depth;
+                for (int i = 0; i < attributes.length; i += 2) {
+                    set(attributeColumns.get(attributes[i]), attributes[i + 1]);
+                }
+            }
+        } else if (depth == rowDepth + 1) {
+            child = name;
+            for (int i = 0; i < attributes.length; i += 2) {
+                set(childAttributeColumns.get(name + "/@" + attributes[i]), attributes[i + 1]);
+            }
+        }
+    }
+
+    @Override
+    public void endElement(String text) throws IOException {
+        if (depth == rowDepth) {
+            if (text != null && textColumn >= 0) {
+                set(textColumn, text);
+            }
+            writeRow(values);
+            Arrays.fill(values, null);
+            rowDepth = -1;
+        } else if (rowDepth >= 0 && depth == rowDepth + 1 && text != null) {
+            set(childColumns.get(child), text);
+        }
+        depth--;
+    }
+
+    @Override
+    public void end() {
+        // Minden sor a sorelem végén kiíródik
+    }
+
+    /**
+     * @param index Az oszlop helye, vagy null, ha a kulcs nem oszlop.
+     * @param value Az érték; ha az oszlopnak már van értéke, hozzáfűződik.
+     */
+    private void set(Integer index, String value) {
+        if (index != null) {
+            values[index] = values[index] == null ? value : values[index] + "|" + value;
+        }
+    }
+
+    private void writeRow(String[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                out.append(options.getDelimiter());
+            }
+            if (row[i] != null) {
+                writeField(row[i]);
+            }
+        }
+        out.append("\r\n");
+    }
+
+    /**
+     * Kiírja a mezőt az RFC 4180 szerint: idézőjelek között, ha elválasztót, idézőjelet vagy sortörést tartalmaz,
+     * vagy szóközzel kezdődik, illetve végződik.
+     */
+    private void writeField(String value) throws IOException {
+        boolean quote = !value.isEmpty() && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ');
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == options.getDelimiter() || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        int start = 0;
+        for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', i + 1)) {
+            Indentation.write(out, value, start, i + 1);
+            out.append('"');
+            start = i + 1;
+        }
+        Indentation.write(out, value, start, value.length());
+        out.append('"');
+    }
+
+    /**
+     * Az előzetes menet: megszámolja az elemneveket, és elemnevenként összegyűjti a sorkulcsokat.
+     * A menet végén beállítja a konvertáló hiányzó sorelemét és oszlopait.
+     */
+    private final class Scanner implements OutputConverter {
+
+        /**
+         * Elemnevenként az előfordulások száma és a kulcsok, az első előfordulás sorrendjében.
+         */
+        private final Map<String, Candidate> candidates = new LinkedHashMap<>();
+        /**
+         * A nyitott elemek jelöltjei; null, ha az elem nem lehet sor.
+         */
+        private final List<Candidate> open = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        @Override
+        public void start(@NotNull Appendable out) {
+        }
+
+        @Override
+        public void startElement(@NotNull String name, @NotNull String[] attributes) {
+            Candidate candidate = rowElement == null || rowElement.equals(name)
+                    ? candidates.computeIfAbsent(name, key -> new Candidate()) : null;
+            if (candidate != null) {
+                candidate.count++;
+                for (int i = 0; i < attributes.length; i += 2) {
+                    candidate.keys.add("@" + attributes[i]);
+                }
+            }
+            Candidate parent = open.isEmpty() ? null : open.get(open.size() - 1);
+            if (parent != null) {
+                for (int i = 0; i < attributes.length; i += 2) {
+                    parent.keys.add(name + "/@" + attributes[i]);
+                }
+            }
+            open.add(candidate);
+            names.add(name);
+        }
+
+        @Override
+        public void endElement(String text) {
+            int last = open.size() - 1;
+            Candidate candidate = open.remove(last);
+            String name = names.remove(last);
+            if (text != null) {
+                if (candidate != null) {
+                    candidate.keys.add(TEXT_KEY);
+                }
+                Candidate parent = last == 0 ? null : open.get(last - 1);
+                if (parent != null) {
+                    parent.keys.add(name);
+                }
+            }
+        }
+
+        @Override
+        public void end() {
+            if (rowElement == null) {
+                long best = 0;
+                for (Map.Entry<String, Candidate> entry : candidates.entrySet()) {
+                    if (entry.getValue().count > best) {
+                        best = entry.getValue().count;
+                        rowElement = entry.getKey();
+                    }
+                }
+                if (rowElement == null) {
+                    throw new IllegalStateException("The document has no elements");
+                }
+            }
+            if (columns == null) {
+                Candidate row = candidates.get(rowElement);
+                columns = row == null ? List.of() : List.copyOf(row.keys);
+            }
+        }
+    }
+
+    private static final class Candidate {
+        long count;
+        final Set<String> keys = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,318 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A dokumentum szerkesztéseinek visszavonási (undo) és újra végrehajtási (redo) előzménye.
+ * Minden bejegyzés csak a szerkesztés inverzéhez szükséges hivatkozásokat tárolja
+ * (a szülőt, a pozíciót, a csomópontot, illetve módosításnál a régi nevet, attribútumokat és szöveget),
+ * a dokumentumról nem készül másolat: egy szerkesztés költsége a dokumentum méretétől és mélységétől független.
+ * A törölt részfák a bejegyzésen keresztül élnek tovább, így visszavonáskor ugyanazok a csomópontok kerülnek vissza.
+ * A {@link #beginGroup()} és {@link #endGroup()} között rögzített szerkesztések (például egy tömeges módosítás)
+ * egyetlen lépésként vonhatók vissza.
+ */
+public class EditHistory {
+
+    /**
+     * Az alapértelmezett legnagyobb visszavonható lépésszám.
+     */
+    public static final int DEFAULT_LIMIT = 1000;
+
+    /**
+     * A visszavonás és az újra végrehajtás által okozott változások figyelője; a nézet ezen keresztül követi a modellt.
+     */
+    public interface Listener {
+        /**
+         * @param parent A szülő csomópont.
+         * @param index A beszúrt gyerek pozíciója.
+         * @param child A beszúrt gyerek.
+         */
+        void inserted(@NotNull XmlNode parent, int index, @NotNull XmlNode child);
+
+        /**
+         * @param parent A szülő csomópont.
+         * @param index Az eltávolított gyerek korábbi pozíciója.
+         * @param child Az eltávolított gyerek.
+         */
+        void removed(@NotNull XmlNode parent, int index, @NotNull XmlNode child);
+
+        /**
+         * @param node A módosított csomópont, már az új értékekkel.
+         * @param previousName A csomópont neve a változás előtt.
+         * @param previousAttributes A csomópont attribútumai a változás előtt.
+         */
+        void updated(@NotNull XmlNode node, @NotNull String previousName, @NotNull String[] previousAttributes);
+    }
+
+    /**
+     * Egy visszavonható szerkesztés.
+     */
+    private interface Edit {
+        void undo(Listener listener);
+
+        void redo(Listener listener);
+    }
+
+    /**
+     * Gyerek beszúrása; az inverze a gyerek eltávolítása.
+     */
+    private static final class Insert implements Edit {
+        private final XmlNode parent;
+        private final int index;
+        private final XmlNode child;
+
+        Insert(XmlNode parent, int index, XmlNode child) {
+            this.parent = parent;
+            this.index = index;
+            this.child = child;
+        }
+
+        @Override
+        public void undo(Listener listener) {
+            parent.removeChild(child);
+            listener.removed(parent, index, child);
+        }
+
+        @Override
+        public void redo(Listener listener) {
+            parent.addChild(index, child);
+            listener.inserted(parent, index, child);
+        }
+    }
+
+    /**
+     * Gyerek eltávolítása; az inverze ugyanannak a csomópontnak a visszaszúrása.
+     */
+    private static final class Remove implements Edit {
+        private final Insert insert;
+
+        Remove(XmlNode parent, int index, XmlNode child) {
+            this.insert = new Insert(parent, index, child);
+        }
+
+        @Override
+        public void undo(Listener listener) {
+            insert.redo(listener);
+        }
+
+        @Override
+        public void redo(Listener listener) {
+            insert.undo(listener);
+        }
+    }
+
+    /**
+     * A név, az attribútumok és a szöveg módosítása; mindkét állapotot tárolja.
+     */
+    private static final class Update implements Edit {
+        private final XmlNode node;
+        private final String oldName;
+        private final String[] oldAttributes;
+        private final String oldText;
+        private final String newName;
+        private final String[] newAttributes;
+        private final String newText;
+
+        Update(XmlNode node, String oldName, String[] oldAttributes, String oldText) {
+            this.node = node;
+            this.oldName = oldName;
+            this.oldAttributes = oldAttributes;
+            this.oldText = oldText;
+            this.newName = node.getName();
+            this.newAttributes = node.getAttributes();
+            this.newText = node.getText();
+        }
+
+        @Override
+        public void undo(Listener listener) {
+            node.update(oldName, oldAttributes, oldText);
+            listener.updated(node, newName, newAttributes);
+        }
+
+        @Override
+        public void redo(Listener listener) {
+            node.update(newName, newAttributes, newText);
+            listener.updated(node, oldName, oldAttributes);
+        }
+    }
+
+    /**
+     * Több szerkesztés egy lépésként; visszavonáskor fordított sorrendben.
+     */
+    private static final class Group implements Edit {
+        private final List<Edit> edits;
+
+        Group(List<Edit> edits) {
+            this.edits = edits;
+        }
+
+        @Override
+        public void undo(Listener listener) {
+            for (int i = edits.size() - 1; i >= 0; i--) {
+                edits.get(i).undo(listener);
+            }
+        }
+
+        @Override
+        public void redo(Listener listener) {
+            for (Edit edit : edits) {
+                edit.redo(listener);
+            }
+        }
+    }
+
+    private final Deque<Edit> undoStack = new ArrayDeque<>();
+    private final Deque<Edit> redoStack = new ArrayDeque<>();
+    private final Listener listener;
+    private final int limit;
+
+    /**
+     * A nyitott csoport szerkesztései, vagy null, ha nincs nyitott csoport.
+     */
+    private List<Edit> group;
+
+    /**
+     * Konstruktor, az alapértelmezett lépésszámmal.
+     * @param listener A visszavonás és az újra végrehajtás változásainak figyelője.
+     */
+    public EditHistory(@NotNull Listener listener) {
+        this(listener, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Konstruktor, amely beállítja a figyelőt és a legnagyobb visszavonható lépésszámot.
+     * @param listener A visszavonás és az újra végrehajtás változásainak figyelője.
+     * @param limit A legnagyobb visszavonható lépésszám; a legrégebbi lépések ezen felül elvesznek.
+     */
+    public EditHistory(@NotNull Listener listener, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        this.listener = listener;
+        this.limit = limit;
+    }
+
+    /**
+     * Rögzíti a már végrehajtott beszúrást.
+     * @param parent A szülő csomópont.
+     * @param index A beszúrt gyerek pozíciója.
+     * @param child A beszúrt gyerek.
+     */
+    public void recordInsert(@NotNull XmlNode parent, int index, @NotNull XmlNode child) {
+        push(new Insert(parent, index, child));
+    }
+
+    /**
+     * Rögzíti a már végrehajtott eltávolítást.
+     * @param parent A korábbi szülő csomópont.
+     * @param index A gyerek korábbi pozíciója.
+     * @param child Az eltávolított gyerek.
+     */
+    public void recordRemove(@NotNull XmlNode parent, int index, @NotNull XmlNode child) {
+        push(new Remove(parent, index, child));
+    }
+
+    /**
+     * Rögzíti a már végrehajtott módosítást; az új állapot a csomópont aktuális értékeiből jön.
+     * @param node A módosított csomópont.
+     * @param oldName A korábbi név.
+     * @param oldAttributes A korábbi attribútumok név-érték párjai.
+     * @param oldText A korábbi szöveges tartalom, vagy null.
+     */
+    public void recordUpdate(@NotNull XmlNode node, @NotNull String oldName, @NotNull String[] oldAttributes, String oldText) {
+        push(new Update(node, oldName, oldAttributes, oldText));
+    }
+
+    /**
+     * Csoportot nyit: a lezárásig rögzített szerkesztések egyetlen visszavonható lépést alkotnak.
+     */
+    public void beginGroup() {
+        if (group != null) {
+            throw new IllegalStateException("Group already open");
+        }
+        group = new ArrayList<>();
+    }
+
+    /**
+     * Lezárja a nyitott csoportot; üres csoport nem kerül az előzménybe.
+     */
+    public void endGroup() {
+        if (group == null) {
+            throw new IllegalStateException("No open group");
+        }
+        List<Edit> edits = group;
+        group = null;
+        if (!edits.isEmpty()) {
+            push(edits.size() == 1 ? edits.get(0) : new Group(edits));
+        }
+    }
+
+    private void push(Edit edit) {
+        if (group != null) {
+            group.add(edit);
+            return;
+        }
+        undoStack.push(edit);
+        if (undoStack.size() > limit) {
+            undoStack.removeLast();
+        }
+        // Új szerkesztés után a visszavont lépések már nem hajthatók végre újra
+        redoStack.clear();
+    }
+
+    /**
+     * Visszavonja a legutóbbi szerkesztést.
+     * @return Hamis, ha nincs visszavonható szerkesztés.
+     */
+    public boolean undo() {
+        Edit edit = undoStack.poll();
+        if (edit == null) {
+            return false;
+        }
+        edit.undo(listener);
+        redoStack.push(edit);
+        return true;
+    }
+
+    /**
+     * Újra végrehajtja a legutóbb visszavont szerkesztést.
+     * @return Hamis, ha nincs újra végrehajtható szerkesztés.
+     */
+    public boolean redo() {
+        Edit edit = redoStack.poll();
+        if (edit == null) {
+            return false;
+        }
+        edit.redo(listener);
+        undoStack.push(edit);
+        return true;
+    }
+
+    /**
+     * @return Igaz, ha van visszavonható szerkesztés.
+     */
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    /**
+     * @return Igaz, ha van újra végrehajtható szerkesztés.
+     */
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * Törli az előzményt, például új dokumentum megnyitásakor.
+     */
+    public void clear() {
+        group = null;
+        undoStack.clear();
+        redoStack.clear();
+    }
+}
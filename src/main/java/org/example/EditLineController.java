@@ -1,6 +1,7 @@
 package org.example;
 
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.Node;
@@ -8,6 +9,9 @@ import javafx.scene.control.TreeItem;
 import javafx.stage.Stage;
 import javafx.event.ActionEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Az XML dokumentum sorainak módosításáért felelos kontroller osztály.
  */
@@ -17,126 +21,116 @@ public class EditLineController {
     @FXML
     public AnchorPane anchorForAttributes;
     private PrimaryController primaryController;
-    private TreeItem<String> selectedItem;
-
-
-    /**
-     * Beállítja a szoveget a kiválasztott elem alapján.
-     * @param selectedItemString A kiválasztott elem szövege.
-     */
-    public void setText(String selectedItemString) {
-        String processedString = preprocessString(selectedItemString);
-        String extractedText = extractText(processedString);
-        showEditedText(extractedText);
-    }
-
-    /**
-     * A kiválasztott szoveg elofeldolgozása.
-     *
-     * @param selectedItemString A kiválasztott elem szovege.
-     * @return Az előfeldolgozott szoveg, amely eltávolítja az elso sortorést, ha van ilyen.
-     */
-    private String preprocessString(String selectedItemString) {
-        int newlineIndex = selectedItemString.indexOf('\n');
-        if (newlineIndex != -1) {
-            return selectedItemString.substring(0, newlineIndex);
-        } else {
-            return selectedItemString;
-        }
-    }
+    private TreeItem<XmlNode> selectedItem;
 
     /**
-     * Kinyeri a szöveget a feldolgozott szovegből, ha van HTML formázás.
-     *
-     * @param processedString A feldolgozott szoveg, amelybol a szoveg kinyerése torténik.
-     * @return Az extrahált szoveg, ha van HTML formázás, külonben a feldolgozott szoveg.
+     * Az attribútumok szövegmezői: minden sorban egy név és egy érték mező.
      */
-    private String extractText(String processedString) {
-        int startIndex = processedString.indexOf('<');
-        if (startIndex != -1) {
-            int endIndex = processedString.indexOf('>');
-            if (endIndex != -1) {
-                return processedString.substring(startIndex + 1, endIndex);
-            }
-        }
-        return processedString;
-    }
+    private final List<TextField[]> attributeFields = new ArrayList<>();
 
     /**
-     * Megjeleníti a szerkesztett szoveget, ha van ilyen.
-     *
-     * @param text A szerkesztett szoveg, amely megjelenítésre kerul.
+     * Az elem szöveges tartalmának szövegmezője.
      */
-    private void showEditedText(String text) {
-        if (text != null && !text.isEmpty()) {
-            String[] parts = parse(text);
-            if (parts.length > 0) {
-                display(parts);
-            }
-        }
-    }
+    private TextField textField;
 
     /**
-     * Feldarabolja a szöveget szóközök mentén.
+     * Megjeleníti a kiválasztott elem nevét, attribútumait és szövegét a szövegmezőkben.
+     * Az adatok közvetlenül a csomópontból jönnek, így a szóközt tartalmazó értékek sem sérülnek.
      *
-     * @param text A szöveg, amelyet feldarabol.
-     * @return Egy tömb, amely a szavakat tartalmazza a szövegből.
+     * @param node A kiválasztott elem csomópontja.
      */
-    private String[] parse(String text) {
-        return text.split("\\s+");
-    }
+    private void display(XmlNode node) {
+        textFieldType.setText(node.getName());
+        // A deklaráció, a megjegyzés, a feldolgozási utasítás és a dokumentumtípus neve a fajtáját jelöli, nem írható át
+        textFieldType.setEditable(node.isElement());
+        attributeFields.clear();
+        anchorForAttributes.getChildren().clear();
 
-    /**
-     * Megjeleníti a szöveg részeit, egyes részeket beállítva egy TextField-be.
-     *
-     * @param parts A szövegrészektől alkotott tömb, amelyek megjelenítésre kerülnek.
-     */
-    private void display(String[] parts) {
-        textFieldType.setText(parts[0]);
         double yPos = 0;
-        for (int i = 1; i < parts.length; i++) {
-            TextField attributeField = new TextField(parts[i]);
-            attributeField.setLayoutX(26);
-            attributeField.setLayoutY(yPos);
+        for (int i = 0; i < node.getAttributeCount(); i++) {
+            TextField nameField = new TextField(node.getAttributeName(i));
+            nameField.setLayoutX(0);
+            nameField.setLayoutY(yPos);
+            nameField.setPrefWidth(90);
+            TextField valueField = new TextField(node.getAttributeValue(i));
+            valueField.setLayoutX(100);
+            valueField.setLayoutY(yPos);
+            valueField.setPrefWidth(150);
             yPos += 30;
-            anchorForAttributes.getChildren().add(attributeField);
+            attributeFields.add(new TextField[]{nameField, valueField});
+            anchorForAttributes.getChildren().addAll(nameField, valueField);
         }
+
+        textField = new TextField(node.getText() == null ? "" : node.getText());
+        textField.setPromptText("text");
+        // A deklarációnak nincs szövege
+        textField.setDisable(node.isDeclaration());
+        textField.setLayoutX(0);
+        textField.setLayoutY(yPos);
+        textField.setPrefWidth(250);
+        anchorForAttributes.getChildren().add(textField);
     }
 
     /**
-     * Mentés eseménykezelő, amely elmenti a módosított értékeket, konvertálja a fastruktúrát XML-be,
+     * Mentés eseménykezelő, amely elmenti a módosított értékeket, frissíti az XML előnézetet,
      * majd bezárja az aktuális ablakot.
      *
      * @param actionEvent Az esemény, amely aktiválta a mentési műveletet.
      */
     public void onSave(ActionEvent actionEvent) {
         if (this.selectedItem == null || this.primaryController == null) return;
+        // Kiírás vagy összehasonlítás közben a fa nem változhat; az ablak nyitva marad
+        if (this.primaryController.isTaskRunning()) {
+            showAlert("Error!", "Háttérfeladat fut, próbáld újra később.");
+            return;
+        }
 
-        StringBuilder newValue = new StringBuilder(textFieldType.getText());
-        getAttributes(newValue);
-
-        this.selectedItem.setValue(newValue.toString());
+        // Név nélküli elem nem menthető
+        String name = textFieldType.getText().trim();
+        if (name.isEmpty()) return;
+
+        String text = textField.getText().trim();
+        // Üres szövegrész helyett a csomópontot kell törölni
+        if (text.isEmpty() && this.selectedItem.getValue().isText()) return;
+        String[] attributes = getAttributes();
+        // Érvénytelen név vagy ismétlődő attribútum mellett a kiírt dokumentum nem lenne jól formált
+        try {
+            XmlNode.checkContent(name, attributes, text.isEmpty() ? null : text);
+        } catch (IllegalArgumentException e) {
+            showAlert("Error!", e.getMessage());
+            return;
+        }
+        this.primaryController.getTreeViewController()
+                .update(this.selectedItem, name, attributes, text.isEmpty() ? null : text);
         this.primaryController.convertTreeViewToXml();
 
         Stage window = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
         window.close();
     }
 
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
     /**
-     * Az attribútumokat gyűjti össze a megadott StringBuilder-be.
+     * Az attribútumokat gyűjti össze a szövegmezőkből; az üres nevű attribútumok kimaradnak.
      *
-     * @param newValue A StringBuilder objektum, amelybe az attribútumok kerülnek.
+     * @return Az attribútumok név-érték párjai egymás után.
      */
-    private void getAttributes(StringBuilder newValue){
-        for (Node child : anchorForAttributes.getChildren()) {
-            if (!(child instanceof TextField)) {
-                continue;
-            }
-            String attributeText = ((TextField) child).getText().trim();
-            if (!attributeText.isEmpty()) {
-                newValue.append(" ").append(attributeText);
+    private String[] getAttributes(){
+        List<String> attributes = new ArrayList<>(2 * attributeFields.size());
+        for (TextField[] row : attributeFields) {
+            String name = row[0].getText().trim();
+            if (!name.isEmpty()) {
+                attributes.add(name);
+                attributes.add(row[1].getText());
             }
         }
+        return attributes.toArray(new String[0]);
     }
 
     /**
@@ -158,13 +152,12 @@ public class EditLineController {
     }
 
     /**
-     * Beállítja a kiválasztott elemet és frissíti a szöveget az elem értékével.
+     * Beállítja a kiválasztott elemet és megjeleníti az adatait.
      *
-     * @param selectedItem Az új kiválasztott elem {@code TreeItem<String>} formátumban.
+     * @param selectedItem Az új kiválasztott elem {@code TreeItem<XmlNode>} formátumban.
      */
-    public void setSelectedItem(TreeItem<String> selectedItem) {
+    public void setSelectedItem(TreeItem<XmlNode> selectedItem) {
         this.selectedItem = selectedItem;
-        setText(selectedItem.getValue());
+        display(selectedItem.getValue());
     }
 }
-
@@ -0,0 +1,286 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A fájl legfelső szintű elemeinek (a dokumentum gyökérelemének közvetlen gyerekeinek) bájtpozíció indexe.
+ * Az i. bejegyzés a gyökérelem i. gyerek eleméhez tartozik (a megjegyzések és a feldolgozási utasítások
+ * nem számítanak), így egy elem eredeti szövege a fájl újraolvasása nélkül, közvetlen pozícionálással elérhető.
+ * Az index a beolvasáskori fájltartalomra vonatkozik; a modell későbbi módosításait nem követi.
+ */
+public class ElementOffsetIndex {
+
+    private final Path path;
+    private final long[] starts;
+    private final long[] ends;
+    private final int count;
+
+    /**
+     * Konstruktor egy már elkészült indexhez, például a gyorsítótárból visszaállítva.
+     * @param path Az indexelt fájl.
+     * @param starts Az elemek kezdő bájtpozíciói.
+     * @param ends Az elemek utáni bájtpozíciók.
+     * @param count Az elemek száma.
+     */
+    ElementOffsetIndex(Path path, long[] starts, long[] ends, int count) {
+        this.path = path;
+        this.starts = starts;
+        this.ends = ends;
+        this.count = count;
+    }
+
+    /**
+     * @return Az indexelt fájl.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return Az indexelt elemek száma.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param index Az elem sorszáma a gyökérelem gyerekei között.
+     * @return Az elem nyitó címkéjének (`&lt;`) bájtpozíciója a fájlban.
+     */
+    public long start(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * @param index Az elem sorszáma a gyökérelem gyerekei között.
+     * @return Az elem utolsó bájtja utáni pozíció a fájlban.
+     */
+    public long end(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Beolvassa az elem eredeti szövegét a fájlból, közvetlenül a pozíciójáról.
+     * @param index Az elem sorszáma a gyökérelem gyerekei között.
+     * @return Az elem szövege a nyitó címkétől a záró címkéig.
+     * @throws IOException Ha a fájl nem olvasható.
+     */
+    public String readElement(int index) throws IOException {
+        long start = start(index);
+        long length = end(index) - start;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Element too large: " + length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file: " + path);
+                }
+            }
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Element " + index + " out of " + count);
+        }
+    }
+
+    /**
+     * A beolvasás közben átfolyó bájtokból felépíti az indexet.
+     * Egy egyszerű, bájtszintű lexikális elemző követi a címkéket és a mélységet; a megjegyzések,
+     * CDATA szakaszok, feldolgozási utasítások, a DOCTYPE és az attribútumértékek tartalmát átugorja.
+     * A többbájtos UTF-8 karakterek egyik bájtja sem ASCII, így nem zavarják az elemzést.
+     */
+    public static class Indexer extends FilterInputStream {
+
+        private static final int TEXT = 0;
+        private static final int TAG_OPEN = 1;
+        private static final int START_TAG = 2;
+        private static final int END_TAG = 3;
+        private static final int MARKUP = 4;
+        private static final int COMMENT = 5;
+        private static final int CDATA = 6;
+        private static final int DOCTYPE = 7;
+        private static final int PROCESSING_INSTRUCTION = 8;
+
+        private final Path path;
+        private long[] starts = new long[64];
+        private long[] ends = new long[64];
+        private int startCount;
+        private int endCount;
+
+        private int state = TEXT;
+        private int depth;
+        private byte quote;
+        private int subsetDepth;
+        private byte previous;
+        private byte beforePrevious;
+        private long tagStart;
+        private long pos;
+
+        /**
+         * Konstruktor, amely becsomagolja a fájl tartalmát szolgáltató folyamot.
+         * @param path A fájl elérési útja.
+         * @param in A fájl tartalmát szolgáltató folyam.
+         */
+        public Indexer(@NotNull Path path, @NotNull InputStream in) {
+            super(in);
+            this.path = path;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                accept((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            for (int i = 0; i < n; i++) {
+                accept(b[off + i]);
+            }
+            return n;
+        }
+
+        /**
+         * Feldolgoz egy bájtot: követi a címkék határait és a mélységet, és rögzíti
+         * a gyökérelem gyerekeinek kezdő és záró pozícióját.
+         * @param b A feldolgozott bájt.
+         */
+        private void accept(byte b) {
+            switch (state) {
+                case TEXT:
+                    if (b == '<') {
+                        state = TAG_OPEN;
+                        tagStart = pos;
+                    }
+                    break;
+                case TAG_OPEN:
+                    if (b == '/') {
+                        state = END_TAG;
+                    } else if (b == '!') {
+                        state = MARKUP;
+                    } else if (b == '?') {
+                        state = PROCESSING_INSTRUCTION;
+                    } else {
+                        state = START_TAG;
+                        if (depth == 1) {
+                            starts = add(starts, startCount++, tagStart);
+                        }
+                    }
+                    break;
+                case START_TAG:
+                    if (quote != 0) {
+                        if (b == quote) {
+                            quote = 0;
+                        }
+                    } else if (b == '"' || b == '\'') {
+                        quote = b;
+                    } else if (b == '>') {
+                        if (previous == '/') {
+                            // Önzáró elem: a mélység nem változik
+                            if (depth == 1) {
+                                ends = add(ends, endCount++, pos + 1);
+                            }
+                        } else {
+                            depth++;
+                        }
+                        state = TEXT;
+                    }
+                    break;
+                case END_TAG:
+                    if (b == '>') {
+                        depth--;
+                        if (depth == 1) {
+                            ends = add(ends, endCount++, pos + 1);
+                        }
+                        state = TEXT;
+                    }
+                    break;
+                case MARKUP:
+                    // "<!" után: megjegyzés, CDATA szakasz vagy DOCTYPE
+                    if (b == '-') {
+                        state = COMMENT;
+                    } else if (b == '[') {
+                        state = CDATA;
+                    } else {
+                        state = DOCTYPE;
+                        subsetDepth = 0;
+                    }
+                    break;
+                case COMMENT:
+                    if (b == '>' && previous == '-' && beforePrevious == '-') {
+                        state = TEXT;
+                    }
+                    break;
+                case CDATA:
+                    if (b == '>' && previous == ']' && beforePrevious == ']') {
+                        state = TEXT;
+                    }
+                    break;
+                case DOCTYPE:
+                    if (quote != 0) {
+                        if (b == quote) {
+                            quote = 0;
+                        }
+                    } else if (b == '"' || b == '\'') {
+                        quote = b;
+                    } else if (b == '[') {
+                        subsetDepth++;
+                    } else if (b == ']') {
+                        subsetDepth--;
+                    } else if (b == '>' && subsetDepth == 0) {
+                        state = TEXT;
+                    }
+                    break;
+                case PROCESSING_INSTRUCTION:
+                    if (b == '>' && previous == '?') {
+                        state = TEXT;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state: " + state);
+            }
+            beforePrevious = previous;
+            previous = b;
+            pos++;
+        }
+
+        private static long[] add(long[] array, int index, long value) {
+            if (index == array.length) {
+                array = Arrays.copyOf(array, index * 2);
+            }
+            array[index] = value;
+            return array;
+        }
+
+        /**
+         * Elkészíti az indexet a teljes beolvasás után.
+         * @return A legfelső szintű elemek pozícióinak indexe.
+         */
+        public ElementOffsetIndex build() {
+            // Csonka fájl esetén az utolsó, le nem zárt elem kimarad
+            int count = Math.min(startCount, endCount);
+            return new ElementOffsetIndex(path, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), count);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import javafx.concurrent.Task;
+
+import java.io.File;
+
+/**
+ * Háttérben futó feladat, amely a dokumentumot közvetlenül a csomópontokból a kiválasztott fájlba írja
+ * (a deklaráció kódolásával, ideiglenes fájlon és atomi átnevezésen át, lásd {@link XmlFileExporter}),
+ * XML-ként vagy más formátumba konvertálva (lásd {@link StreamingConversion}).
+ * Megszakítás vagy hiba esetén a célfájl érintetlen marad.
+ */
+public class ExportTask extends Task<Void> {
+
+    private final File file;
+    private final XmlNode rootNode;
+    private final OutputFormat format;
+    private final XmlSerializer.Mode mode;
+
+    /**
+     * Konstruktor, amely beállítja a célfájlt és a kiírandó dokumentumot.
+     * @param file A célfájl.
+     * @param rootNode A kiírandó dokumentum gyökér csomópontja.
+     */
+    public ExportTask(File file, XmlNode rootNode) {
+        this(file, rootNode, XmlSerializer.Mode.PRETTY);
+    }
+
+    /**
+     * Konstruktor, amely a kimenet formátumát is beállítja.
+     * @param file A célfájl.
+     * @param rootNode A kiírandó dokumentum gyökér csomópontja.
+     * @param format A kimenet formátuma az alapértelmezett beállításokkal, vagy null, ha XML.
+     */
+    public ExportTask(File file, XmlNode rootNode, OutputFormat format) {
+        this(file, rootNode, format, XmlSerializer.Mode.PRETTY);
+    }
+
+    /**
+     * Konstruktor XML kimenethez, a kimenet formájával.
+     * @param file A célfájl.
+     * @param rootNode A kiírandó dokumentum gyökér csomópontja.
+     * @param mode Az XML kimenet formája.
+     */
+    public ExportTask(File file, XmlNode rootNode, XmlSerializer.Mode mode) {
+        this(file, rootNode, null, mode);
+    }
+
+    private ExportTask(File file, XmlNode rootNode, OutputFormat format, XmlSerializer.Mode mode) {
+        this.file = file;
+        this.rootNode = rootNode;
+        this.format = format;
+        this.mode = mode;
+    }
+
+    /**
+     * Kiírja a dokumentumot a célfájlba. A háttérszálon fut.
+     * @return Mindig null.
+     * @throws Exception Ha hiba történik az írás során.
+     */
+    @Override
+    protected Void call() throws Exception {
+        updateMessage("Exportálás: " + file.getName());
+        long totalNodes = XmlSerializer.countNodes(rootNode);
+        ProgressMonitor monitor = new ProgressMonitor() {
+            @Override
+            public void progress(long nodes) {
+                updateProgress(nodes, totalNodes);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return ExportTask.this.isCancelled();
+            }
+        };
+
+        if (format == null) {
+            XmlFileExporter.export(rootNode, file.toPath(), new XmlSerializer(monitor, mode, Indentation.TAB));
+        } else {
+            OutputConverter converter = format.newConverter(new ConversionOptions());
+            XmlFileExporter.export(file.toPath(), out -> StreamingConversion.convert(rootNode, out, converter, monitor));
+        }
+
+        updateMessage("Exportálva: " + file.getName());
+        return null;
+    }
+}
@@ -0,0 +1,211 @@
+package org.example;
+
+import javafx.concurrent.Task;
+
+import javax.xml.validation.Schema;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Háttérben futó feladat, amely beolvassa az XML fájlt, felépíti a dokumentum csomópontjait,
+ * és ugyanabban a menetben elkészíti a legfelső szintű elemek bájtpozícióit.
+ * Az előnézet a csomópontokból áll elő (lásd {@link NodeLineSource}), így pontosan azt mutatja, ami a kiírásba kerül.
+ * Végül, még a háttérszálon, felépíti a kereséshez használt fordított indexet, és ellenőrzi a hivatkozásokat.
+ * Ha meg van adva XSD séma, a beolvasással párhuzamosan a séma szerinti ellenőrzés is lefut.
+ * A tömörített fájlok egy külön szálon, a beolvasással átfedve csomagolódnak ki (lásd {@link Compression});
+ * ekkor a fájl bájtjaira épülő elemindex nem készül.
+ * Az előrehaladást a beolvasott bájtok és a felépített elemek száma alapján jelzi, és megszakítható.
+ */
+public class ImportTask extends Task<ImportTask.Result> {
+
+    /**
+     * A beolvasáshoz használt puffer mérete bájtban.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * A beolvasás eredménye: a felépített dokumentum, az előnézet sorforrása és az indexek.
+     */
+    public static final class Result {
+        private final XmlNode rootNode;
+        private final LineSource lineSource;
+        private final ElementOffsetIndex elementIndex;
+        private final SearchIndex searchIndex;
+        private final ReferenceValidator validator;
+        private final SchemaValidation.Report schemaReport;
+        private final XmlStreamImporter.TextNormalization normalization;
+
+        Result(XmlNode rootNode, LineSource lineSource, ElementOffsetIndex elementIndex, SearchIndex searchIndex,
+               ReferenceValidator validator, SchemaValidation.Report schemaReport,
+               XmlStreamImporter.TextNormalization normalization) {
+            this.rootNode = rootNode;
+            this.lineSource = lineSource;
+            this.elementIndex = elementIndex;
+            this.searchIndex = searchIndex;
+            this.validator = validator;
+            this.schemaReport = schemaReport;
+            this.normalization = normalization;
+        }
+
+        /**
+         * @return A dokumentum gyökér csomópontja.
+         */
+        public XmlNode getRootNode() {
+            return rootNode;
+        }
+
+        /**
+         * @return Az előnézetben megjelenítendő sorok forrása.
+         */
+        public LineSource getLineSource() {
+            return lineSource;
+        }
+
+        /**
+         * @return A gyökérelem gyerekeinek bájtpozíciói a beolvasott fájlban.
+         */
+        public ElementOffsetIndex getElementIndex() {
+            return elementIndex;
+        }
+
+        /**
+         * @return Az elemnevek és attribútumok keresőindexe.
+         */
+        public SearchIndex getSearchIndex() {
+            return searchIndex;
+        }
+
+        /**
+         * @return A hivatkozások ellenőrzője, a teljes dokumentum ellenőrzésének eredményével.
+         */
+        public ReferenceValidator getValidator() {
+            return validator;
+        }
+
+        /**
+         * @return A séma szerinti ellenőrzés eredménye, vagy null, ha nem volt megadva séma.
+         */
+        public SchemaValidation.Report getSchemaReport() {
+            return schemaReport;
+        }
+
+        /**
+         * @return A beolvasáskor normalizált (áthelyezett vagy levágott) szövegek száma.
+         */
+        public XmlStreamImporter.TextNormalization getTextNormalization() {
+            return normalization;
+        }
+    }
+
+    private final XmlStreamImporter importer;
+    private final File file;
+    private final File schemaFile;
+
+    /**
+     * Konstruktor, amely beállítja a beolvasót és a beolvasandó fájlt.
+     * @param importer A dokumentum felépítését végző beolvasó.
+     * @param file A beolvasandó XML fájl.
+     */
+    public ImportTask(XmlStreamImporter importer, File file) {
+        this(importer, file, null);
+    }
+
+    /**
+     * Konstruktor, amely a beolvasás mellé séma szerinti ellenőrzést is kér.
+     * @param importer A dokumentum felépítését végző beolvasó.
+     * @param file A beolvasandó XML fájl.
+     * @param schemaFile Az XSD séma fájl, vagy null, ha nincs ellenőrzés.
+     */
+    public ImportTask(XmlStreamImporter importer, File file, File schemaFile) {
+        this.importer = importer;
+        this.file = file;
+        this.schemaFile = schemaFile;
+    }
+
+    /**
+     * Beolvassa a fájlt és felépíti a dokumentumot. A háttérszálon fut.
+     * Séma nélkül előbb a pillanatkép-gyorsítótárat próbálja (lásd {@link SnapshotCache}); ha nincs érvényes pillanatkép,
+     * beolvas, és a végén elmenti a dokumentum pillanatképét a következő megnyitáshoz.
+     * @return A felépített dokumentum és az előnézet sorforrása.
+     * @throws Exception Ha a fájl nem olvasható, vagy nem jól formált XML.
+     */
+    @Override
+    protected Result call() throws Exception {
+        long totalBytes = file.length();
+        updateMessage("Beolvasás: " + file.getName());
+        // A séma a gyorsítótárból jön, ha ugyanazzal már volt ellenőrzés
+        Schema schema = schemaFile == null ? null : SchemaValidation.schema(schemaFile.toPath());
+        CompressionCodec codec = Compression.detect(file.toPath());
+        // Séma esetén mindig beolvasunk, mert az ellenőrzés a beolvasott bájtfolyamon fut;
+        // a pillanatkép elemindexe a fájl bájtjaira mutat, ezért tömörített fájlhoz nem készül
+        boolean cached = schema == null && codec == null && SnapshotCache.isEnabled();
+
+        XmlNode rootNode;
+        ElementOffsetIndex elementIndex;
+        SchemaValidation.Report schemaReport = null;
+        XmlStreamImporter.TextNormalization normalization;
+        SnapshotCache.Snapshot snapshot = cached ? SnapshotCache.load(file.toPath()) : null;
+        if (snapshot != null) {
+            rootNode = snapshot.getRootNode();
+            elementIndex = snapshot.getElementIndex();
+            normalization = snapshot.getTextNormalization();
+        } else {
+            normalization = new XmlStreamImporter.TextNormalization();
+            // A nagy fájlok memóriába leképezve, csúszó ablakokkal olvasódnak; az elemindex ugyanabban a menetben készül.
+            // Tömörített fájlnál a számláló a tömörített bájtokat látja, így a folyamatjelző a fájl méretéhez mér.
+            try (CountingInputStream counter = new CountingInputStream(XmlStreamImporter.openRawFile(file.toPath()));
+                 ElementOffsetIndex.Indexer elementIndexer = codec == null ? new ElementOffsetIndex.Indexer(file.toPath(), counter) : null;
+                 InputStream content = codec == null ? elementIndexer : Compression.decompress(codec, counter);
+                 InputStream validating = schema == null ? content : SchemaValidation.validate(schema, content);
+                 BufferedInputStream in = new BufferedInputStream(validating, BUFFER_SIZE)) {
+                rootNode = importer.importStream(in, new ProgressMonitor() {
+                    @Override
+                    public void progress(long nodes) {
+                        long bytesRead = counter.getCount();
+                        updateProgress(bytesRead, totalBytes);
+                        updateMessage(String.format("Beolvasva: %,d / %,d kB, %,d elem",
+                                bytesRead / 1024, totalBytes / 1024, nodes));
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return ImportTask.this.isCancelled();
+                    }
+                }, normalization);
+
+                if (isCancelled()) {
+                    throw new CancellationException("Import cancelled");
+                }
+
+                if (validating instanceof SchemaValidation.Session) {
+                    updateMessage("Séma ellenőrzés: " + file.getName());
+                    schemaReport = ((SchemaValidation.Session) validating).finish();
+                }
+                elementIndex = elementIndexer == null ? null : elementIndexer.build();
+            }
+            if (cached) {
+                updateMessage("Gyorsítótár írása: " + file.getName());
+                SnapshotCache.store(file.toPath(), rootNode, elementIndex, normalization);
+            }
+        }
+
+        // A részfák sorszámainak előszámítása még a háttérszálon, hogy az első szerkesztés gyors legyen
+        rootNode.lineCount();
+
+        updateMessage("Indexelés: " + file.getName());
+        SearchIndex searchIndex = SearchIndex.build(rootNode);
+        ReferenceValidator validator = ReferenceValidator.build(rootNode);
+
+        updateProgress(1, 1);
+        if (schemaReport != null) {
+            updateMessage(String.format("Betöltve: %s, %,d sémahiba", file.getName(), schemaReport.getTotal()));
+        } else if (snapshot != null) {
+            updateMessage("Betöltve a gyorsítótárból: " + file.getName());
+        } else {
+            updateMessage("Betöltve: " + file.getName());
+        }
+        return new Result(rootNode, new NodeLineSource(rootNode), elementIndex, searchIndex, validator, schemaReport, normalization);
+    }
+}
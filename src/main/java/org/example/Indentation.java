@@ -0,0 +1,146 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A kimenet behúzása, előre elkészített pufferből írva.
+ * A puffer egy sortörés és utána a behúzási egység sokszor egymás után; egy sor behúzása ennek
+ * egy darabja, így a kiíráshoz nem jön létre új szöveg. Ha a mélység túlnő a pufferen, a puffer duplázódik.
+ * A példányok szálbiztosak és megoszthatók.
+ */
+public final class Indentation {
+
+    /**
+     * Tabulátoros behúzás; az előnézet és az alapértelmezett XML kimenet ezt használja.
+     */
+    public static final Indentation TAB = new Indentation("\t");
+
+    /**
+     * A pufferben kezdetben elférő szintek száma.
+     */
+    private static final int INITIAL_LEVELS = 64;
+
+    private final String unit;
+
+    /**
+     * A sortörés és a behúzási egységek; csak cserélődik, sosem módosul.
+     */
+    private volatile String buffer;
+
+    /**
+     * A mélységenként elkészített behúzás szövegek az előnézet soraihoz.
+     */
+    private volatile String[] prefixes = new String[0];
+
+    private Indentation(String unit) {
+        this.unit = unit;
+        this.buffer = "\n" + unit.repeat(INITIAL_LEVELS);
+    }
+
+    /**
+     * @param spaces A szintenkénti szóközök száma, 0 és 16 között.
+     * @return A szóközös behúzás.
+     */
+    public static Indentation spaces(int spaces) {
+        if (spaces < 0 || spaces > 16) {
+            throw new IllegalArgumentException("Indent must be between 0 and 16 spaces: " + spaces);
+        }
+        return new Indentation(" ".repeat(spaces));
+    }
+
+    /**
+     * @param value `tab`, vagy a szintenkénti szóközök száma.
+     * @return A megadott behúzás.
+     * @throws IllegalArgumentException Ha az érték egyik sem.
+     */
+    public static Indentation parse(@NotNull String value) {
+        if (value.equalsIgnoreCase("tab")) {
+            return TAB;
+        }
+        try {
+            return spaces(Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid indent: " + value);
+        }
+    }
+
+    /**
+     * @return A szintenkénti behúzás szövege.
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Kiírja a megadott szint behúzását.
+     * @param out A kimenet célja.
+     * @param depth A behúzás szintje.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    public void indent(@NotNull Appendable out, int depth) throws IOException {
+        write(out, bufferFor(depth), 1, 1 + depth * unit.length());
+    }
+
+    /**
+     * Kiír egy sortörést és utána a megadott szint behúzását.
+     * @param out A kimenet célja.
+     * @param depth A behúzás szintje.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    public void newLine(@NotNull Appendable out, int depth) throws IOException {
+        write(out, bufferFor(depth), 0, 1 + depth * unit.length());
+    }
+
+    /**
+     * A behúzás szövegként, az előnézet sorainak elejére; mélységenként egyszer jön létre.
+     * @param depth A behúzás szintje.
+     * @return A behúzás.
+     */
+    public String prefix(int depth) {
+        String[] cached = prefixes;
+        if (depth < cached.length) {
+            return cached[depth];
+        }
+        String[] grown = new String[Math.max(depth + 1, 2 * cached.length)];
+        String source = bufferFor(grown.length - 1);
+        for (int i = 0; i < grown.length; i++) {
+            grown[i] = i < cached.length ? cached[i] : source.substring(1, 1 + i * unit.length());
+        }
+        prefixes = grown;
+        return grown[depth];
+    }
+
+    private String bufferFor(int depth) {
+        String current = buffer;
+        int needed = 1 + depth * unit.length();
+        if (needed <= current.length()) {
+            return current;
+        }
+        int levels = Math.max(depth, 2 * (current.length() - 1) / Math.max(unit.length(), 1));
+        String grown = "\n" + unit.repeat(levels);
+        buffer = grown;
+        return grown;
+    }
+
+    /**
+     * Kiírja a szöveg egy darabját; `Writer` esetén közvetlenül, részszöveg létrehozása nélkül.
+     * @param out A kimenet célja.
+     * @param text A szöveg.
+     * @param start A darab eleje.
+     * @param end A darab vége (kizárólagos).
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    static void write(@NotNull Appendable out, @NotNull String text, int start, int end) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (out instanceof Writer) {
+            ((Writer) out).write(text, start, end - start);
+        } else {
+            out.append(text, start, end);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * JSON kimenetet író konvertáló; a leképezést lásd {@link StructuredConverter}.
+ * Minden érték szövegként íródik ki, ahogy az XML-ben szerepel.
+ */
+public final class JsonConverter extends StructuredConverter {
+
+    /**
+     * Szintenként igaz, ha a nyitott objektumban vagy tömbben már van érték (a vesszőhöz).
+     */
+    private boolean[] nonEmpty = new boolean[32];
+    private int level = -1;
+
+    /**
+     * Igaz, ha az utolsó kiírt elem egy kulcs, tehát az érték ugyanabba a sorba, elválasztó nélkül kerül.
+     */
+    private boolean afterKey;
+
+    /**
+     * Konstruktor, amely beállítja a kimenet beállításait.
+     * @param options A kimenet beállításai.
+     */
+    public JsonConverter(@NotNull ConversionOptions options) {
+        super(options);
+    }
+
+    /**
+     * Az érték előtti elválasztó: vessző és (formázott kimenetnél) új sor, kivéve a kulcs utáni értéknél.
+     */
+    private void separate() throws IOException {
+        if (afterKey) {
+            afterKey = false;
+            return;
+        }
+        if (level >= 0) {
+            if (nonEmpty[level]) {
+                out.append(',');
+            }
+            nonEmpty[level] = true;
+            if (options.isPretty()) {
+                newLine(out, level + 1);
+            }
+        }
+    }
+
+    private void begin(char bracket) throws IOException {
+        separate();
+        out.append(bracket);
+        if (++level == nonEmpty.length) {
+            nonEmpty = Arrays.copyOf(nonEmpty, 2 * level);
+        }
+        nonEmpty[level] = false;
+    }
+
+    private void finish(char bracket) throws IOException {
+        if (nonEmpty[level--] && options.isPretty()) {
+            newLine(out, level + 1);
+        }
+        out.append(bracket);
+    }
+
+    @Override
+    protected void beginObject() throws IOException {
+        begin('{');
+    }
+
+    @Override
+    protected void endObject() throws IOException {
+        finish('}');
+    }
+
+    @Override
+    protected void beginArray() throws IOException {
+        begin('[');
+    }
+
+    @Override
+    protected void endArray() throws IOException {
+        finish(']');
+    }
+
+    @Override
+    protected void key(@NotNull String key) throws IOException {
+        separate();
+        writeQuoted(out, key);
+        out.append(options.isPretty() ? ": " : ":");
+        afterKey = true;
+    }
+
+    @Override
+    protected void value(@NotNull String value) throws IOException {
+        separate();
+        writeQuoted(out, value);
+    }
+
+    @Override
+    protected void nullValue() throws IOException {
+        separate();
+        out.append("null");
+    }
+}
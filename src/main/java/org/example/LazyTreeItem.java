@@ -0,0 +1,164 @@
+package org.example;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Olyan fa elem, amely a gyerekeit csak a kinyitáskor hozza létre a mögöttes `XmlNode` alapján.
+ * Becsukáskor, ha kevés a szabad memória, a létrehozott gyerek elemeket eldobja;
+ * a következő kinyitáskor ezek újra létrejönnek.
+ */
+public class LazyTreeItem extends TreeItem<XmlNode> {
+
+    /**
+     * A foglalt heap aránya, amely felett a becsukott elemek gyerekei eldobásra kerülnek.
+     */
+    private static final double MEMORY_TIGHT_RATIO = 0.75;
+
+    /**
+     * A mögöttes dokumentum csomópont.
+     */
+    private final XmlNode node;
+
+    /**
+     * Igaz, ha a gyerek fa elemek már létre lettek hozva.
+     */
+    private boolean materialized;
+
+    /**
+     * Konstruktor, amely a megadott csomóponthoz hozza létre a fa elemet.
+     * @param node A mögöttes dokumentum csomópont.
+     */
+    public LazyTreeItem(@NotNull XmlNode node) {
+        super(node);
+        this.node = node;
+        expandedProperty().addListener((obs, wasExpanded, isExpanded) -> {
+            if (!isExpanded && isMemoryTight()) {
+                release();
+            }
+        });
+    }
+
+    /**
+     * @return A mögöttes dokumentum csomópont.
+     */
+    public XmlNode getNode() {
+        return node;
+    }
+
+    /**
+     * Levél-e az elem; a mögöttes csomópont alapján dől el, a gyerek elemek létrehozása nélkül.
+     * @return Igaz, ha a csomópontnak nincs gyereke.
+     */
+    @Override
+    public boolean isLeaf() {
+        return node.getChildCount() == 0;
+    }
+
+    /**
+     * Visszaadja a gyerek fa elemeket; az első hívásra hozza létre őket.
+     * @return A gyerek fa elemek listája.
+     */
+    @Override
+    public ObservableList<TreeItem<XmlNode>> getChildren() {
+        if (!materialized) {
+            materialized = true;
+            List<TreeItem<XmlNode>> items = new ArrayList<>(node.getChildCount());
+            for (XmlNode child : node.getChildren()) {
+                items.add(new LazyTreeItem(child));
+            }
+            super.getChildren().setAll(items);
+        }
+        return super.getChildren();
+    }
+
+    /**
+     * Beszúr egy új csomópontot a gyerekek közé, a mögöttes dokumentumban és a fa nézetben is.
+     * @param index A beszúrás helye.
+     * @param child Az új csomópont.
+     * @return Az új csomóponthoz tartozó fa elem.
+     */
+    public LazyTreeItem insertChild(int index, @NotNull XmlNode child) {
+        // Előbb létrehozzuk a meglévő gyerekeket, hogy a fa elemek és a csomópontok sorrendje egyezzen
+        ObservableList<TreeItem<XmlNode>> items = getChildren();
+        node.addChild(index, child);
+        LazyTreeItem item = new LazyTreeItem(child);
+        items.add(index, item);
+        return item;
+    }
+
+    /**
+     * @return Igaz, ha a gyerek fa elemek már létre lettek hozva.
+     */
+    public boolean isMaterialized() {
+        return materialized;
+    }
+
+    /**
+     * A létrehozott gyerek fa elemeket a mögöttes csomópont aktuális gyerekeihez igazítja, egyetlen változásként,
+     * akárhány gyerek szúródott be vagy tűnt el. A megmaradt csomópontok fa elemei (és a kinyitott állapotuk) megmaradnak.
+     * Ha a gyerekek még nem jöttek létre, nincs teendő: a kinyitáskor a csomópontból jönnek létre.
+     */
+    void syncChildren() {
+        if (!materialized) {
+            return;
+        }
+        Map<XmlNode, TreeItem<XmlNode>> existing = new IdentityHashMap<>();
+        for (TreeItem<XmlNode> item : super.getChildren()) {
+            existing.put(item.getValue(), item);
+        }
+        List<TreeItem<XmlNode>> items = new ArrayList<>(node.getChildCount());
+        for (XmlNode child : node.getChildren()) {
+            TreeItem<XmlNode> item = existing.get(child);
+            items.add(item != null ? item : new LazyTreeItem(child));
+        }
+        super.getChildren().setAll(items);
+    }
+
+    /**
+     * Eltávolítja az elemet a szülőjéből, a mögöttes dokumentumban és a fa nézetben is.
+     */
+    public void removeFromParent() {
+        TreeItem<XmlNode> parentItem = getParent();
+        if (node.getParent() != null) {
+            node.getParent().removeChild(node);
+        }
+        if (parentItem != null) {
+            parentItem.getChildren().remove(this);
+        }
+    }
+
+    /**
+     * Létrehozza a teljes részfát; a nem lusta (eager) megjelenítési módhoz használjuk.
+     */
+    public void materializeAll() {
+        for (TreeItem<XmlNode> child : getChildren()) {
+            ((LazyTreeItem) child).materializeAll();
+        }
+    }
+
+    /**
+     * Eldobja a létrehozott gyerek fa elemeket; a csomópontok megmaradnak.
+     */
+    private void release() {
+        if (materialized) {
+            materialized = false;
+            super.getChildren().clear();
+        }
+    }
+
+    /**
+     * @return Igaz, ha a foglalt heap aránya meghaladja a küszöböt.
+     */
+    private static boolean isMemoryTight() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * MEMORY_TIGHT_RATIO;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example;
+
+/**
+ * Az előnézetben megjelenített sorok forrása.
+ * Az előnézet csak a látható sorokat kéri le, így a forrás a teljes szöveget soha nem tartja egyben.
+ */
+public interface LineSource {
+
+    /**
+     * @return A sorok száma.
+     */
+    int lineCount();
+
+    /**
+     * Visszaadja a megadott sort, sortörés nélkül.
+     * @param index A sor indexe, 0-tól `lineCount() - 1`-ig.
+     * @return A sor szövege.
+     */
+    String line(int index);
+}
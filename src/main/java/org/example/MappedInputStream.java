@@ -0,0 +1,181 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memóriába leképezett (memory-mapped) fájlt olvasó folyam, csúszó ablakokkal.
+ * A fájlból egyszerre csak egy rögzített méretű ablak van leképezve, így a több gigabájtos fájlok
+ * sem igényelnek összefüggő címteret, és a heapet sem terhelik: az adatok közvetlenül
+ * az operációs rendszer lapgyorsítótárából kerülnek az értelmező pufferébe, rendszerhívás nélkül.
+ * <p>
+ * A Java a leképezést csak a puffer felszabadításakor (szemétgyűjtéskor) bontja, ezért Windows alatt
+ * a fájl addig nem írható felül; a beolvasó emiatt csak a nagy fájlokat olvassa így.
+ */
+public class MappedInputStream extends InputStream {
+
+    /**
+     * Az alapértelmezett ablakméret bájtban.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Az a fájlméret, amely fölött a beolvasó leképezéssel olvas; kisebb fájloknál a hagyományos olvasás az olcsóbb.
+     */
+    public static final long MAP_THRESHOLD = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    /**
+     * Az aktuális ablak, vagy null, ha még nincs leképezve.
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * Az aktuális ablak kezdete a fájlban.
+     */
+    private long windowStart;
+
+    /**
+     * A megjelölt pozíció a fájlban, vagy -1.
+     */
+    private long mark = -1;
+
+    /**
+     * Konstruktor, az alapértelmezett ablakmérettel.
+     * @param path A beolvasandó fájl.
+     * @throws IOException Ha a fájl nem nyitható meg.
+     */
+    public MappedInputStream(@NotNull Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Konstruktor, amely beállítja az ablak méretét.
+     * @param path A beolvasandó fájl.
+     * @param windowSize Az egyszerre leképezett bájtok száma.
+     * @throws IOException Ha a fájl nem nyitható meg.
+     */
+    public MappedInputStream(@NotNull Path path, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @return A folyam aktuális pozíciója a fájlban.
+     */
+    public long position() {
+        return window == null ? windowStart : windowStart + window.position();
+    }
+
+    /**
+     * Biztosítja, hogy az aktuális ablakban legyen olvasható bájt; szükség esetén a következő ablakra lép.
+     * @return Hamis, ha elértük a fájl végét.
+     * @throws IOException Ha a leképezés nem sikerül.
+     */
+    private boolean ensureWindow() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        return mapAt(position());
+    }
+
+    /**
+     * Leképezi a megadott pozíciótól kezdődő ablakot.
+     * @param position A pozíció a fájlban.
+     * @return Hamis, ha a pozíció a fájl végén van.
+     * @throws IOException Ha a leképezés nem sikerül.
+     */
+    private boolean mapAt(long position) throws IOException {
+        if (position >= size) {
+            window = null;
+            windowStart = size;
+            return false;
+        }
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureWindow()) {
+            return -1;
+        }
+        int count = Math.min(len, window.remaining());
+        window.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long from = position();
+        long to = Math.min(size, from + n);
+        if (window != null && to < windowStart + window.limit()) {
+            window.position((int) (to - windowStart));
+        } else {
+            mapAt(to);
+        }
+        return to - from;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        mark = position();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        if (mark < 0) {
+            throw new IOException("Mark not set");
+        }
+        long current = position();
+        if (window != null && mark >= windowStart && mark < windowStart + window.limit()) {
+            window.position((int) (mark - windowStart));
+        } else if (mark != current) {
+            mapAt(mark);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
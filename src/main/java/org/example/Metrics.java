@@ -0,0 +1,255 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A feldolgozási lépések időmérése és számlálói.
+ * Minden lépés egy {@link Timer}-rel mérhető; lezáráskor a mért idő, a feldolgozott elemek és bájtok,
+ * valamint a szál által foglalt memória a lépés összesítőjébe kerül, és egy {@link PhaseEvent} JFR esemény
+ * is keletkezik. Az összesítés az állapotsorban szövegként, fej nélküli módban JSON-ként jeleníthető meg.
+ * Az egymásba ágyazott lépések (például az exportálás közbeni szerializálás) mindkét lépésnél számítanak.
+ */
+public final class Metrics {
+
+    /**
+     * A mért feldolgozási lépések.
+     */
+    public enum Phase {
+        STARTUP("startup"),
+        DECOMPRESS("decompress"),
+        PARSE("parse"),
+        SNAPSHOT_LOAD("snapshot"),
+        TREE_BUILD("tree"),
+        SERIALIZE("serialize"),
+        CONVERT("convert"),
+        PREVIEW_RENDER("preview"),
+        DIALOG_LOAD("dialog"),
+        EXPORT("export");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @return A lépés rövid neve a kimenetekben.
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Egy lépés összesítője, és a legutóbbi futásának adatai az állapotsorhoz.
+     */
+    private static final class Totals {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder items = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder allocated = new LongAdder();
+        volatile long lastNanos = -1;
+        volatile long lastItems;
+        volatile long lastBytes;
+        volatile long lastAllocated;
+    }
+
+    private static final Totals[] TOTALS = new Totals[Phase.values().length];
+
+    static {
+        for (int i = 0; i < TOTALS.length; i++) {
+            TOTALS[i] = new Totals();
+        }
+    }
+
+    /**
+     * A szálankénti memóriafoglalás lekérdezéséhez; null, ha a JVM nem támogatja.
+     */
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    private Metrics() {
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                return allocation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Az aktuális szál által eddig foglalt bájtok száma, vagy 0, ha nem mérhető.
+     */
+    private static long allocatedBytes() {
+        return ALLOCATION == null ? 0 : ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Elindítja egy lépés mérését; a mérés a visszaadott időzítő lezárásáig tart.
+     * @param phase A mért lépés.
+     * @return Az időzítő, try-with-resources blokkban használandó.
+     */
+    public static Timer start(@NotNull Phase phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Egy lépés futását mérő időzítő. Csak azon a szálon használható, amelyik elindította.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final Phase phase;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long start;
+        private final long startAllocated;
+        private long items;
+        private long bytes;
+        private boolean closed;
+
+        private Timer(Phase phase) {
+            this.phase = phase;
+            this.startAllocated = allocatedBytes();
+            event.begin();
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * @param items A lépésben feldolgozott elemek (vagy sorok) száma.
+         * @return Ez az időzítő.
+         */
+        public Timer items(long items) {
+            this.items = items;
+            return this;
+        }
+
+        /**
+         * @param bytes A lépésben beolvasott vagy kiírt bájtok száma.
+         * @return Ez az időzítő.
+         */
+        public Timer bytes(long bytes) {
+            this.bytes = bytes;
+            return this;
+        }
+
+        /**
+         * Lezárja a mérést, és rögzíti az eredményt.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            long nanos = System.nanoTime() - start;
+            long allocated = allocatedBytes() - startAllocated;
+
+            Totals totals = TOTALS[phase.ordinal()];
+            totals.count.increment();
+            totals.nanos.add(nanos);
+            totals.items.add(items);
+            totals.bytes.add(bytes);
+            totals.allocated.add(allocated);
+            totals.lastItems = items;
+            totals.lastBytes = bytes;
+            totals.lastAllocated = allocated;
+            totals.lastNanos = nanos;
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.getLabel();
+                event.items = items;
+                event.bytes = bytes;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Nullázza az összes számlálót.
+     */
+    public static void reset() {
+        for (int i = 0; i < TOTALS.length; i++) {
+            TOTALS[i] = new Totals();
+        }
+    }
+
+    /**
+     * Az állapotsor szövege: minden már lefutott lépés legutóbbi futásának ideje és áteresztőképessége.
+     * @return Az állapotsor szövege, vagy üres szöveg, ha még nem futott lépés.
+     */
+    public static String statusText() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            Totals totals = TOTALS[phase.ordinal()];
+            long nanos = totals.lastNanos;
+            if (nanos < 0) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append("  |  ");
+            }
+            text.append(phase.getLabel()).append(' ').append(formatDuration(nanos));
+            double seconds = Math.max(nanos, 1) / 1e9;
+            if (totals.lastItems > 0) {
+                text.append(String.format(Locale.ROOT, ", %,.0f items/s", totals.lastItems / seconds));
+            }
+            if (totals.lastBytes > 0) {
+                text.append(String.format(Locale.ROOT, ", %.1f MB/s", totals.lastBytes / 1e6 / seconds));
+            }
+            if (totals.lastAllocated > 0) {
+                text.append(String.format(Locale.ROOT, ", %.1f MB alloc", totals.lastAllocated / 1e6));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Az összesítés JSON formában, lépésenként: futások száma, teljes idő, elemek, bájtok,
+     * foglalt memória és az ezekből számolt áteresztőképesség.
+     * @return A JSON objektum szövege, a lépések nevével mint kulccsal.
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (Phase phase : Phase.values()) {
+            Totals totals = TOTALS[phase.ordinal()];
+            long nanos = totals.nanos.sum();
+            double seconds = Math.max(nanos, 1) / 1e9;
+            json.append(first ? "\n" : ",\n");
+            first = false;
+            json.append("  \"").append(phase.getLabel()).append("\": {")
+                    .append("\"count\": ").append(totals.count.sum())
+                    .append(", \"millis\": ").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6))
+                    .append(", \"items\": ").append(totals.items.sum())
+                    .append(", \"bytes\": ").append(totals.bytes.sum())
+                    .append(", \"allocatedBytes\": ").append(totals.allocated.sum())
+                    .append(", \"itemsPerSecond\": ")
+                    .append(String.format(Locale.ROOT, "%.1f", nanos == 0 ? 0 : totals.items.sum() / seconds))
+                    .append(", \"bytesPerSecond\": ")
+                    .append(String.format(Locale.ROOT, "%.1f", nanos == 0 ? 0 : totals.bytes.sum() / seconds))
+                    .append('}');
+        }
+        return json.append("\n}").toString();
+    }
+
+    /**
+     * @param nanos Az időtartam nanoszekundumban.
+     * @return Az időtartam olvasható formában (ms vagy s).
+     */
+    private static String formatDuration(long nanos) {
+        if (nanos < 1_000_000_000L) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A dokumentum csomópontjaiból közvetlenül előállított sorforrás.
+ * A teljes szerializált szöveg soha nem készül el: a csomópontokban tárolt részfa-sorszámok alapján
+ * a kért sor a gyökértől lefelé, kettes kereséssel található meg, és csak a látható sorok szövege jön létre.
+ * Egy szerkesztés csak a szerkesztett csomópont és a gyökér közötti út gyorsítótárát érvényteleníti.
+ */
+public class NodeLineSource implements LineSource {
+
+    private final XmlNode root;
+
+    /**
+     * Konstruktor, amely beállítja a megjelenítendő dokumentum gyökerét.
+     * @param root A dokumentum gyökér csomópontja.
+     */
+    public NodeLineSource(@NotNull XmlNode root) {
+        this.root = root;
+    }
+
+    @Override
+    public int lineCount() {
+        return root.lineCount();
+    }
+
+    @Override
+    public String line(int index) {
+        XmlNode node = root;
+        int depth = 0;
+        int remaining = index;
+        while (true) {
+            // A csomópont első sora a nyitó címke; a forrásban nem szereplő deklarációnak nincs sora
+            if (!node.isImplicitDeclaration()) {
+                if (remaining == 0) {
+                    return indentation(node, depth) + XmlSerializer.openTag(node);
+                }
+                remaining--;
+            }
+
+            // Gyerekekkel rendelkező elemnél a szöveg saját sorban, a nyitó címke után következik
+            if (node.getText() != null && node.getChildCount() > 0 && !node.isDeclaration()) {
+                if (remaining == 0) {
+                    return Indentation.TAB.prefix(depth + 1) + XmlSerializer.textLine(node);
+                }
+                remaining--;
+            }
+
+            // A gyerekek blokkja után a záró címke következik
+            int[] starts = node.childLineStarts();
+            int childCount = node.getChildCount();
+            if (remaining >= starts[childCount]) {
+                return indentation(node, depth) + XmlSerializer.closeTag(node);
+            }
+
+            // A sort tartalmazó gyerek megkeresése a prefix összegekben
+            int child = findChild(starts, childCount, remaining);
+            remaining -= starts[child];
+            if (!node.isDeclaration()) {
+                depth++;
+            }
+            node = node.getChild(child);
+        }
+    }
+
+    /**
+     * Megkeresi azt a gyereket, amelynek részfája tartalmazza a gyerekek blokkján belüli sort.
+     * @param starts A gyerekek kezdősorai.
+     * @param childCount A gyerekek száma.
+     * @param line A keresett sor a gyerekek blokkján belül.
+     * @return A gyerek indexe.
+     */
+    private static int findChild(int[] starts, int childCount, int line) {
+        int low = 0;
+        int high = childCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= line) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param node A csomópont.
+     * @param depth A csomópont mélysége.
+     * @return A csomópont sorainak behúzása; a deklaráció nincs behúzva. A behúzások mélységenként megosztottak.
+     */
+    private static String indentation(XmlNode node, int depth) {
+        return node.isDeclaration() ? "" : Indentation.TAB.prefix(depth);
+    }
+}
@@ -0,0 +1,387 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Az XPath egy részhalmaza a dokumentum csomópontjainak kiválasztásához, DOM felépítése nélkül.
+ * Támogatott:
+ * <ul>
+ *     <li>lépések `/` (gyerek) és `//` (leszármazott) elválasztással, névvel vagy `*`-gal,</li>
+ *     <li>feltételek szögletes zárójelben: `@a`, `@a='v'`, `@a!='v'`, `text()='v'`, `text()!='v'`,
+ *     `not(@a)`, `contains(@a,'v')`, `starts-with(@a,'v')`, `and`-del összekapcsolva,</li>
+ *     <li>több feltétel egymás után (`[..][..]`).</li>
+ * </ul>
+ * A `/` nélkül kezdődő kifejezés bárhol illeszkedhet, mintha `//`-rel kezdődne.
+ * A lefordított kifejezések gyorsítótárban maradnak; a kiértékelés egyetlen bejárás,
+ * amely minden csomópontnál egyszerre követi az összes lehetséges lépést, így az eredmény dokumentumsorrendű és ismétlődésmentes.
+ */
+public final class NodePath {
+
+    /**
+     * A lépések legnagyobb száma (a bejárás állapotai egy `long` bitjei).
+     */
+    private static final int MAX_STEPS = 63;
+
+    /**
+     * A gyorsítótárban tartott lefordított kifejezések legnagyobb száma.
+     */
+    private static final int CACHE_SIZE = 64;
+
+    private static final Map<String, NodePath> CACHE = new LinkedHashMap<String, NodePath>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, NodePath> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Egy feltétel egy csomópontra.
+     */
+    private interface Condition {
+        boolean test(XmlNode node);
+    }
+
+    /**
+     * Egy lépés: a tengely (gyerek vagy leszármazott), a név és a feltételek.
+     */
+    private static final class Step {
+        final boolean descendant;
+        final String name;
+        final List<Condition> conditions = new ArrayList<>();
+
+        Step(boolean descendant, String name) {
+            this.descendant = descendant;
+            this.name = name;
+        }
+
+        boolean test(XmlNode node) {
+            if (!node.isElement() || (name != null && !name.equals(node.getName()))) {
+                return false;
+            }
+            for (Condition condition : conditions) {
+                if (!condition.test(node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final String expression;
+    private final Step[] steps;
+
+    private NodePath(String expression, Step[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * Lefordítja a kifejezést, vagy visszaadja a gyorsítótárból.
+     * @param expression Az XPath kifejezés.
+     * @return A lefordított kifejezés.
+     * @throws IllegalArgumentException Ha a kifejezés hibás, vagy nem támogatott elemet tartalmaz.
+     */
+    public static NodePath compile(@NotNull String expression) {
+        String key = expression.trim();
+        synchronized (CACHE) {
+            NodePath path = CACHE.get(key);
+            if (path == null) {
+                path = new Parser(key).parse();
+                CACHE.put(key, path);
+            }
+            return path;
+        }
+    }
+
+    /**
+     * @return A kifejezés szövege.
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Kiválasztja az illeszkedő csomópontokat.
+     * @param rootNode A dokumentum gyökér csomópontja.
+     * @return Az illeszkedő csomópontok dokumentumsorrendben.
+     */
+    public List<XmlNode> select(@NotNull XmlNode rootNode) {
+        List<XmlNode> matches = new ArrayList<>();
+        int last = steps.length - 1;
+        // Egy keret: a csomópont, és a gyerekeinél, illetve az összes leszármazottjánál várt lépések bitjei
+        Deque<Object[]> stack = new ArrayDeque<>();
+        long first = 1L;
+        stack.push(new Object[]{rootNode, steps[0].descendant ? 0L : first, steps[0].descendant ? first : 0L});
+        while (!stack.isEmpty()) {
+            Object[] frame = stack.pop();
+            XmlNode node = (XmlNode) frame[0];
+            long childMask = (Long) frame[1];
+            long descendantMask = (Long) frame[2];
+            long active = childMask | descendantMask;
+            // Fordított sorrendben kerülnek a verembe, hogy dokumentumsorrendben jöjjenek ki
+            for (int c = node.getChildCount() - 1; c >= 0; c--) {
+                XmlNode child = node.getChild(c);
+                long nextChild = 0;
+                long nextDescendant = descendantMask;
+                boolean matched = false;
+                for (long bits = active; bits != 0; bits &= bits - 1) {
+                    int i = Long.numberOfTrailingZeros(bits);
+                    if (!steps[i].test(child)) {
+                        continue;
+                    }
+                    if (i == last) {
+                        matched = true;
+                    } else if (steps[i + 1].descendant) {
+                        nextDescendant |= 1L << (i + 1);
+                    } else {
+                        nextChild |= 1L << (i + 1);
+                    }
+                }
+                stack.push(new Object[]{child, nextChild, nextDescendant, matched});
+            }
+            if (frame.length > 3 && (Boolean) frame[3]) {
+                matches.add(node);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @param rootNode A dokumentum gyökér csomópontja.
+     * @return Az illeszkedő csomópontok száma.
+     */
+    public int count(@NotNull XmlNode rootNode) {
+        return select(rootNode).size();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * A kifejezés elemzője.
+     */
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        NodePath parse() {
+            if (text.isEmpty()) {
+                throw error("empty expression");
+            }
+            List<Step> steps = new ArrayList<>();
+            // A / nélküli kifejezés bárhol illeszkedhet
+            boolean descendant = true;
+            if (text.startsWith("//")) {
+                position = 2;
+            } else if (text.startsWith("/")) {
+                position = 1;
+                descendant = false;
+            }
+            while (true) {
+                steps.add(step(descendant));
+                if (position >= text.length()) {
+                    break;
+                }
+                if (text.startsWith("//", position)) {
+                    position += 2;
+                    descendant = true;
+                } else if (text.charAt(position) == '/') {
+                    position++;
+                    descendant = false;
+                } else {
+                    throw error("unexpected '" + text.charAt(position) + "'");
+                }
+            }
+            if (steps.size() > MAX_STEPS) {
+                throw error("too many steps");
+            }
+            return new NodePath(text, steps.toArray(new Step[0]));
+        }
+
+        private Step step(boolean descendant) {
+            String name;
+            if (position < text.length() && text.charAt(position) == '*') {
+                position++;
+                name = null;
+            } else {
+                name = name();
+            }
+            Step step = new Step(descendant, name);
+            skipSpaces();
+            while (position < text.length() && text.charAt(position) == '[') {
+                position++;
+                step.conditions.add(conjunction());
+                expect(']');
+                skipSpaces();
+            }
+            return step;
+        }
+
+        private Condition conjunction() {
+            List<Condition> parts = new ArrayList<>();
+            parts.add(condition());
+            while (keyword("and")) {
+                parts.add(condition());
+            }
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            return node -> {
+                for (Condition part : parts) {
+                    if (!part.test(node)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+
+        private Condition condition() {
+            skipSpaces();
+            if (keyword("not")) {
+                expect('(');
+                Condition inner = condition();
+                expect(')');
+                return node -> !inner.test(node);
+            }
+            if (keyword("contains")) {
+                return function((actual, value) -> actual.contains(value));
+            }
+            if (keyword("starts-with")) {
+                return function((actual, value) -> actual.startsWith(value));
+            }
+            Operand operand = operand();
+            skipSpaces();
+            if (text.startsWith("!=", position)) {
+                position += 2;
+                String value = literal();
+                return node -> {
+                    String actual = operand.value(node);
+                    return actual != null && !actual.equals(value);
+                };
+            }
+            if (position < text.length() && text.charAt(position) == '=') {
+                position++;
+                String value = literal();
+                return node -> value.equals(operand.value(node));
+            }
+            return node -> operand.value(node) != null;
+        }
+
+        private interface Operand {
+            String value(XmlNode node);
+        }
+
+        private interface Comparison {
+            boolean test(String actual, String value);
+        }
+
+        private Condition function(Comparison comparison) {
+            expect('(');
+            Operand operand = operand();
+            expect(',');
+            String value = literal();
+            expect(')');
+            return node -> {
+                String actual = operand.value(node);
+                return actual != null && comparison.test(actual, value);
+            };
+        }
+
+        private Operand operand() {
+            skipSpaces();
+            if (position < text.length() && text.charAt(position) == '@') {
+                position++;
+                String attribute = name();
+                return node -> node.getAttribute(attribute);
+            }
+            if (keyword("text")) {
+                expect('(');
+                expect(')');
+                return XmlNode::getText;
+            }
+            throw error("expected @attribute or text()");
+        }
+
+        private String literal() {
+            skipSpaces();
+            if (position >= text.length() || (text.charAt(position) != '\'' && text.charAt(position) != '"')) {
+                throw error("expected quoted value");
+            }
+            char quote = text.charAt(position++);
+            int end = text.indexOf(quote, position);
+            if (end < 0) {
+                throw error("unterminated value");
+            }
+            String value = text.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        private String name() {
+            int start = position;
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == ':') {
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            if (start == position) {
+                throw error("expected name");
+            }
+            return text.substring(start, position);
+        }
+
+        /**
+         * Átlépi a kulcsszót, ha az következik (és utána nem folytatódik a név).
+         */
+        private boolean keyword(String word) {
+            skipSpaces();
+            int end = position + word.length();
+            if (!text.startsWith(word, position)) {
+                return false;
+            }
+            if (end < text.length()) {
+                char next = text.charAt(end);
+                if (Character.isLetterOrDigit(next) || next == '_' || next == '-') {
+                    return false;
+                }
+            }
+            position = end;
+            return true;
+        }
+
+        private void expect(char c) {
+            skipSpaces();
+            if (position >= text.length() || text.charAt(position) != c) {
+                throw error("expected '" + c + "'");
+            }
+            position++;
+        }
+
+        private void skipSpaces() {
+            while (position < text.length() && text.charAt(position) == ' ') {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid path at " + (position + 1) + ": " + message + " in " + text);
+        }
+    }
+}
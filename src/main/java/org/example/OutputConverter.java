@@ -0,0 +1,53 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Elemeseményekből (elem kezdete, elem vége a szövegével) más formátumot író konvertáló.
+ * Az eseményeket a {@link StreamingConversion} küldi, egy XML folyamból StAX-szal olvasva vagy a memóriában lévő
+ * dokumentum bejárásával; a konvertáló csak a nyitott elemek láncát tarthatja meg, így a memóriahasználata
+ * a dokumentum méretétől független.
+ * Egy példány egyetlen konvertálásra használható.
+ */
+public interface OutputConverter {
+
+    /**
+     * A kiírás kezdete, az első elem előtt.
+     * @param out A kimenet célja.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    void start(@NotNull Appendable out) throws IOException;
+
+    /**
+     * Egy elem kezdete. A dokumentum gyökéreleme az első ilyen esemény; az XML deklaráció nem érkezik.
+     * @param name Az elem neve.
+     * @param attributes Az attribútumok név-érték párjai egymás után; a tömb nem módosítható.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    void startElement(@NotNull String name, @NotNull String[] attributes) throws IOException;
+
+    /**
+     * Egy elem vége.
+     * @param text Az elem szöveges tartalma a beolvasóval egyező módon összefűzve, vagy null.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    void endElement(String text) throws IOException;
+
+    /**
+     * A kiírás vége, az utolsó elem után.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    void end() throws IOException;
+
+    /**
+     * Az a konvertáló, amelynek a kiírás előtt látnia kell a teljes dokumentumot (például a CSV fejléchez
+     * az oszlopok miatt), itt adja meg az előzetes menet eseményeinek fogadóját. Az előzetes menet kimenete
+     * mindent eldob.
+     * @return Az előzetes menet fogadója, vagy null, ha nincs szükség előzetes menetre.
+     */
+    default OutputConverter prepass() {
+        return null;
+    }
+}
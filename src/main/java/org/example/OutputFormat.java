@@ -0,0 +1,72 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Az XML-en kívüli kimeneti formátumok, a hozzájuk tartozó folyamatos konvertálóval.
+ */
+public enum OutputFormat {
+    JSON("JSON files", "json"),
+    YAML("YAML files", "yaml"),
+    CSV("CSV files", "csv");
+
+    private final String description;
+    private final String extension;
+
+    OutputFormat(String description, String extension) {
+        this.description = description;
+        this.extension = extension;
+    }
+
+    /**
+     * @return A formátum leírása a fájlválasztóban.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return A formátum fájlkiterjesztése, pont nélkül.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Létrehoz egy új konvertálót; egy példány egyetlen konvertálásra használható.
+     * @param options A kimenet beállításai.
+     * @return Az új konvertáló.
+     */
+    public OutputConverter newConverter(@NotNull ConversionOptions options) {
+        switch (this) {
+            case JSON:
+                return new JsonConverter(options);
+            case YAML:
+                return new YamlConverter(options);
+            case CSV:
+                return new CsvConverter(options);
+            default:
+                throw new IllegalStateException("Unknown format: " + this);
+        }
+    }
+
+    /**
+     * @param name A formátum neve vagy kiterjesztése, kis- és nagybetűtől függetlenül (például `json`, `yml`).
+     * @return A formátum.
+     * @throws IllegalArgumentException Ha nincs ilyen formátum.
+     */
+    public static OutputFormat of(@NotNull String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        if (normalized.equals("yml")) {
+            return YAML;
+        }
+        for (OutputFormat format : values()) {
+            if (format.extension.equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format: " + name);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lapokra osztott sorforrás: a sorok `PAGE_LINES` méretű lapokban kerülnek beolvasásra,
+ * és a legutóbb használt lapok egy kis gyorsítótárban maradnak.
+ * Csak a lapok kezdőpozíciója van indexelve, így az index mérete a sorok számának töredéke.
+ */
+public abstract class PagedLineSource implements LineSource {
+
+    /**
+     * Egy lapon lévő sorok száma.
+     */
+    public static final int PAGE_LINES = 256;
+
+    /**
+     * A sorok legnagyobb hossza; az ennél hosszabb sorok (például tömörített XML) több megjelenített sorra törnek.
+     */
+    public static final int MAX_LINE_LENGTH = 4096;
+
+    /**
+     * A gyorsítótárban tartott lapok száma.
+     */
+    private static final int CACHED_PAGES = 8;
+
+    /**
+     * A legutóbb használt lapok, a használat sorrendjében.
+     */
+    private final Map<Integer, String[]> cache = new LinkedHashMap<Integer, String[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    /**
+     * Visszaadja a megadott sort; ha a lapja nincs a gyorsítótárban, beolvassa.
+     * @param index A sor indexe.
+     * @return A sor szövege.
+     */
+    @Override
+    public synchronized String line(int index) {
+        int page = index / PAGE_LINES;
+        String[] lines = cache.get(page);
+        if (lines == null) {
+            lines = readPage(page);
+            cache.put(page, lines);
+        }
+        int offset = index % PAGE_LINES;
+        return offset < lines.length ? lines[offset] : "";
+    }
+
+    /**
+     * Beolvassa a megadott lap sorait.
+     * @param page A lap indexe.
+     * @return A lap sorai (legfeljebb `PAGE_LINES` darab).
+     */
+    protected abstract String[] readPage(int page);
+}
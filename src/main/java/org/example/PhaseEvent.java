@@ -0,0 +1,38 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Egy feldolgozási lépés (beolvasás, fa felépítése, szerializálás, előnézet, exportálás) JFR eseménye.
+ * Kikapcsolt rögzítés mellett a költsége elhanyagolható; a `jfr` eszközzel vagy a JDK Mission Controllal
+ * az `org.example.Phase` eseményként kereshető.
+ */
+@Name("org.example.Phase")
+@Label("XML Converter Phase")
+@Category({"XML Converter"})
+@Description("Duration and throughput of one processing phase")
+@StackTrace(false)
+public final class PhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Items")
+    @Description("Elements or lines processed")
+    long items;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Allocated")
+    @DataAmount
+    @Description("Bytes allocated by the thread during the phase")
+    long allocated;
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Az indexek kulcsonkénti csomópontlistáinak (posting) kezelése.
+ * Egy kulcshoz egyetlen csomópont közvetlenül, több csomópont egy listában tartozik,
+ * mert a kulcsok többsége (például az azonosítók és a nevek) egyedi, és így kulcsonként egy lista megspórolható.
+ */
+final class Postings {
+
+    private Postings() {
+    }
+
+    /**
+     * Hozzáadja a csomópontot a kulcs bejegyzéseihez.
+     * @param map Az index.
+     * @param key A kulcs.
+     * @param node A hozzáadandó csomópont.
+     */
+    @SuppressWarnings("unchecked")
+    static void add(@NotNull Map<String, Object> map, @NotNull String key, @NotNull XmlNode node) {
+        Object postings = map.get(key);
+        if (postings == null) {
+            map.put(key, node);
+        } else if (postings instanceof XmlNode) {
+            List<XmlNode> list = new ArrayList<>(2);
+            list.add((XmlNode) postings);
+            list.add(node);
+            map.put(key, list);
+        } else {
+            ((List<XmlNode>) postings).add(node);
+        }
+    }
+
+    /**
+     * Egyetlen menetben eltávolítja a megadott csomópontokat a kulcs bejegyzései közül.
+     * @param map Az index.
+     * @param key A kulcs.
+     * @param removed Az eltávolítandó csomópontok (azonosság szerinti halmaz).
+     */
+    @SuppressWarnings("unchecked")
+    static void remove(@NotNull Map<String, Object> map, @NotNull String key, @NotNull Set<XmlNode> removed) {
+        Object postings = map.get(key);
+        if (postings instanceof XmlNode) {
+            if (removed.contains(postings)) {
+                map.remove(key);
+            }
+        } else if (postings != null) {
+            List<XmlNode> list = (List<XmlNode>) postings;
+            list.removeIf(removed::contains);
+            if (list.isEmpty()) {
+                map.remove(key);
+            } else if (list.size() == 1) {
+                map.put(key, list.get(0));
+            }
+        }
+    }
+
+    /**
+     * @param postings Egy kulcs bejegyzései, vagy null.
+     * @return A bejegyzések csomópontjai listaként; az eredmény nem módosítható.
+     */
+    @SuppressWarnings("unchecked")
+    static List<XmlNode> nodes(Object postings) {
+        if (postings == null) {
+            return Collections.emptyList();
+        }
+        if (postings instanceof XmlNode) {
+            return Collections.singletonList((XmlNode) postings);
+        }
+        return Collections.unmodifiableList((List<XmlNode>) postings);
+    }
+
+    /**
+     * @return Új, üres, azonosság (és nem egyenlőség) szerint összehasonlító csomóponthalmaz.
+     */
+    static Set<XmlNode> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import javafx.concurrent.Task;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Egy FXML-ből betöltött párbeszédablak, amely csak egyszer töltődik be, és minden megnyitáskor újra felhasználódik.
+ * Az FXML feldolgozása (a reflexió miatt ez a drága rész) indítás után, háttérben előre lefuthat (lásd {@link #preload()});
+ * a jelenet és az ablak az alkalmazásszálon, az első megnyitáskor jön létre.
+ * A kontroller előző megnyitásból maradt állapotát a megnyitás előtt a hívó állítja alaphelyzetbe (lásd {@link #show}).
+ * Csak az alkalmazásszálról használható.
+ *
+ * @param <C> A kontroller típusa.
+ */
+final class PreloadedDialog<C> {
+
+    private final String fxml;
+    private final String title;
+    private final double width;
+    private final double height;
+
+    /**
+     * A háttérben futó betöltés, vagy null, ha még nem indult el.
+     */
+    private Task<FXMLLoader> loading;
+    private C controller;
+    private Stage stage;
+
+    /**
+     * @param fxml Az ablakot leíró FXML fájl neve.
+     * @param title Az ablak címe.
+     * @param width A jelenet szélessége.
+     * @param height A jelenet magassága.
+     */
+    PreloadedDialog(@NotNull String fxml, @NotNull String title, double width, double height) {
+        this.fxml = fxml;
+        this.title = title;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Elindítja az FXML betöltését a közös munkaszál-készleten, ha még nem indult el.
+     */
+    void preload() {
+        if (loading == null && stage == null) {
+            loading = BackgroundTasks.run(new Task<>() {
+                @Override
+                protected FXMLLoader call() throws IOException {
+                    return load();
+                }
+            });
+        }
+    }
+
+    /**
+     * Megjeleníti az ablakot, vagy előtérbe hozza, ha már látszik.
+     * @param prepare A kontroller alaphelyzetbe állítása és előkészítése a megjelenítés előtt.
+     */
+    void show(@NotNull Consumer<C> prepare) {
+        if (stage == null) {
+            FXMLLoader loader = loaded();
+            controller = loader.getController();
+            stage = new Stage();
+            stage.setTitle(title);
+            stage.setScene(new Scene(loader.getRoot(), width, height));
+        }
+        prepare.accept(controller);
+        stage.show();
+        stage.toFront();
+    }
+
+    /**
+     * Az előre betöltött FXML, ha elkészült; különben (nem indult el, sorban áll vagy még fut) itt töltődik be,
+     * hogy az alkalmazásszál ne a munkaszálakra várjon.
+     */
+    private FXMLLoader loaded() {
+        try {
+            if (loading != null && (loading.isDone() || !loading.cancel(false))) {
+                return loading.get();
+            }
+            return load();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            loading = null;
+        }
+    }
+
+    private FXMLLoader load() throws IOException {
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.DIALOG_LOAD)) {
+            FXMLLoader loader = new FXMLLoader(App.class.getResource(fxml));
+            loader.load();
+            timer.items(1);
+            return loader;
+        }
+    }
+}
@@ -5,25 +5,24 @@ import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.scene.control.*;
 import org.jetbrains.annotations.NotNull;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.w3c.dom.Document;
-import java.util.Arrays;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import org.xml.sax.SAXException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -32,12 +31,94 @@ import java.util.Optional;
  * a grafikus felhasználói felületen.
  */
 public class PrimaryController implements Initializable {
-    public Document xmldoc;
-    public TextArea xmlPreviewTArea;
-    public TreeView<String> primaryTreeView; // Specify the generic type for TreeView
+    public ListView<String> xmlPreviewList;
+    public TreeView<XmlNode> primaryTreeView; // Specify the generic type for TreeView
     public Label documentPathLabel;
     public Label docName;
+    public ProgressBar taskProgressBar;
+    public Label taskStatusLabel;
+    public Button cancelTaskButton;
+    public Button addButton;
+    public Button editButton;
+    public Button deleteButton;
+    public Label metricsLabel;
+    public MenuItem undoMenuItem;
+    public MenuItem redoMenuItem;
+    public TextField searchField;
+    public Label searchResultLabel;
+    public Label validationLabel;
+    public MenuItem schemaMenuItem;
     private final TreeViewController tv = new TreeViewController(this);
+    private final XmlPreviewController preview = new XmlPreviewController(this);
+    private final XmlStreamImporter importer = new XmlStreamImporter();
+
+    /**
+     * @return A fa nézetet kezelő kontroller, amelyen keresztül a dokumentum szerkeszthető.
+     */
+    public TreeViewController getTreeViewController() {
+        return tv;
+    }
+
+    /**
+     * Az éppen futó háttérfeladat, vagy null, ha nincs ilyen.
+     */
+    private Task<?> currentTask;
+
+    /**
+     * A keresésnél megjelenített találatok legnagyobb száma; a teljes találatszám ettől függetlenül látszik.
+     */
+    private static final int SEARCH_RESULT_LIMIT = 1000;
+
+    /**
+     * A legutóbbi keresőkifejezés és az éppen kijelölt találat sorszáma.
+     */
+    private String lastQuery;
+    private int searchPosition;
+
+    /**
+     * Az összehasonlításnál legutóbb megjelenített eltérés sorszáma.
+     */
+    private int diffPosition;
+
+    /**
+     * A beolvasáskor használt XSD séma, vagy null, ha nincs séma szerinti ellenőrzés.
+     */
+    private File schemaFile;
+
+    /**
+     * A séma szerinti hibák közül a figyelmeztető ablakban felsoroltak száma.
+     */
+    private static final int SHOWN_SCHEMA_PROBLEMS = 20;
+
+    /**
+     * A megnyitott dokumentum beolvasásakor normalizált szövegek száma, vagy null, ha nincs megnyitott dokumentum.
+     * Ha nem nulla, a kiírás nem azonos a beolvasott dokumentummal, erről exportálás előtt figyelmeztetés jelenik meg.
+     */
+    private XmlStreamImporter.TextNormalization textNormalization;
+
+    /**
+     * Az előnézet frissítésének összevonási ablaka és legnagyobb késleltetése ezredmásodpercben.
+     */
+    private static final double PREVIEW_DEBOUNCE_MILLIS = 40;
+    private static final double PREVIEW_MAX_DELAY_MILLIS = 250;
+
+    /**
+     * Az egymás utáni szerkesztések előnézet-frissítéseit egyetlen frissítéssé vonja össze.
+     */
+    private final RefreshScheduler previewRefresh = new RefreshScheduler(
+            Duration.millis(PREVIEW_DEBOUNCE_MILLIS), Duration.millis(PREVIEW_MAX_DELAY_MILLIS), this::refreshPreview);
+
+    /**
+     * A párbeszédablakok; egyszer töltődnek be, és minden megnyitáskor újra felhasználódnak.
+     */
+    private final PreloadedDialog<AddNewLineController> addDialog =
+            new PreloadedDialog<>("addNewLine.fxml", "Add new line", 294, 444);
+    private final PreloadedDialog<EditLineController> editDialog =
+            new PreloadedDialog<>("editLine.fxml", "Edit line", 600, 600);
+    private final PreloadedDialog<BulkEditController> bulkEditDialog =
+            new PreloadedDialog<>("bulkEdit.fxml", "Bulk edit", 600, 230);
+    private final PreloadedDialog<helpController> helpDialog =
+            new PreloadedDialog<>("help.fxml", "Help", 600, 600);
 
     /**
      * Betölti a kiválasztott XML fájlt a grafikus felületre.
@@ -71,64 +152,74 @@ public class PrimaryController implements Initializable {
 
     /**
      * Megnyitja a kiválasztott fájlt.
-     * Ha sikerült megnyitni, továbbhívja a goodFile metódust,
+     * A beolvasás egy háttérfeladatban fut; ha sikerült, továbbhívja a goodFile metódust,
      * egyébként meghívja a badFileWarn metódust.
      *
      * @param selectedFile A kiválasztott fájl, amelyet meg kell nyitni.
-     * @return Igaz, ha sikeres volt a fájl megnyitása és feldolgozása, egyébként hamis.
+     * @return Igaz, ha a beolvasás elindult.
      */
     private boolean open(File selectedFile){
-        try {
-           return goodFile(selectedFile);
-        } catch (Exception e) {
-           return badFileWarn();
-        }
+        ImportTask task = new ImportTask(importer, selectedFile, schemaFile);
+        task.setOnSucceeded(event -> goodFile(selectedFile, task.getValue()));
+        task.setOnFailed(event -> badFileWarn(task.getException()));
+        runTask(task);
+        return true;
     }
 
 
     /**
-     * Ellenőrzi, hogy a kiválasztott XML fájl helyes formátumú-e,
-     * majd betölti a grafikus felületre és megjeleníti a tartalmát.
+     * Megjeleníti a háttérben beolvasott és feldolgozott XML fájlt a grafikus felületen.
+     * A fájl folyamatosan, egyetlen menetben került feldolgozásra, köztes DOM dokumentum nélkül.
      * @param selectedFile A kiválasztott XML fájl.
-     * @return Igaz, ha sikeres volt a fájl megnyitása, egyébként hamis.
-     * @throws IOException Ha hiba történik az olvasás közben.
-     * @throws SAXException Ha hiba történik a SAX parsing során.
-     * @throws TransformerException Ha hiba történik a transformer során.
-     * @throws ParserConfigurationException Ha hiba történik a parser konfigurálása során.
-     */
-    private boolean goodFile(File selectedFile) throws IOException, SAXException, TransformerException, ParserConfigurationException {
-        // XML fájl feldolgozása és megjelenítése
-        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder(); // DocumentBuilder létrehozása a DocumentBuilderFactory segítségével
-        FileInputStream fileInputStream = new FileInputStream(selectedFile); // Fájl beolvasása
-        Document document = builder.parse(fileInputStream); // XML dokumentum létrehozása a beolvasott fájlból
-        fileInputStream.close(); // Beolvasás lezárása
-
-        // XML dokumentum beállítása az osztályváltozóban tárolásra és megjelenítésre
-        this.xmldoc = document; // Az XML dokumentum eltárolása az osztályváltozóban
-        xmlPreviewTArea.setText(getStringFromDocument(this.xmldoc)); // XML tartalom megjelenítése a TextArea-ban
-
-        // Fa struktúra létrehozása az XML dokumentum alapján
-        tv.createTreeView(); // Fa struktúra létrehozása a TreeView objektum segítségével
+     * @param result A beolvasás eredménye: a felépített fa és az előnézet szövege.
+     * @return Igaz, ha sikeres volt a fájl megjelenítése.
+     */
+    private boolean goodFile(File selectedFile, ImportTask.Result result) {
+        // Fa struktúra megjelenítése a TreeView objektum segítségével
+        tv.createTreeView(result.getRootNode(), result.getSearchIndex(), result.getValidator());
+        textNormalization = result.getTextNormalization();
+
+        // A dokumentum megjelenítése az előnézetben, ahogy a kiírásba kerülne; az előző dokumentum függő frissítése elavult
+        previewRefresh.cancel();
+        preview.show(result.getLineSource());
 
         // Fájl elérési útjának és nevének megjelenítése
         documentPathLabel.setText(selectedFile.getAbsolutePath()); // Fájl elérési útvonalának megjelenítése
         docName.setText(selectedFile.getName()); // Fájl nevének megjelenítése
+        showMetrics();
+        // Új dokumentumnál az előzmény üres
+        updateUndoMenu();
+        showValidation();
+        // Új dokumentumnál a korábbi keresés találatai érvénytelenek
+        clearSearch();
+
+        // A séma szerinti hibák felsorolása; a dokumentum ettől még megnyílik
+        SchemaValidation.Report schemaReport = result.getSchemaReport();
+        if (schemaReport != null && !schemaReport.isValid()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Séma ellenőrzés");
+            alert.setHeaderText(String.format("%,d sémahiba: %s", schemaReport.getTotal(), schemaFile.getName()));
+            alert.setContentText(schemaReport.summary(SHOWN_SCHEMA_PROBLEMS));
+            alert.showAndWait();
+        }
 
         return true; // Sikeres feldolgozás esetén igaz érték visszaadása
     }
 
     /**
      * Figyelmeztetés megjelenítése, hogy a kiválasztott fájl nem megfelelő formátumú.
-     * A felhasználót tájékoztatja arról, hogy az adott fájl nem XML formátumú.
+     * A felhasználót tájékoztatja arról, hogy az adott fájl nem XML formátumú, és ha ismert, a hiba helyéről is.
      *
+     * @param cause A beolvasás hibája, vagy null.
      * @return Hamis értékkel tér vissza, mivel a fájl nem megfelelő formátumú.
      */
-    private boolean badFileWarn(){
-        System.out.println("File import error");
+    private boolean badFileWarn(Throwable cause){
+        System.out.println("File import error" + (cause == null ? "" : ": " + cause));
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle("Hiba!");
         alert.setHeaderText(null);
-        alert.setContentText("Ez nem egy xml fájl!");
+        alert.setContentText(cause == null || cause.getMessage() == null
+                ? "Ez nem egy xml fájl!" : "Ez nem egy xml fájl!\n" + cause.getMessage());
         alert.showAndWait();
         return false;
     }
@@ -146,45 +237,122 @@ public class PrimaryController implements Initializable {
 
         // Fájl kiválasztó dialógusablak inicializálása és megjelenítése
         FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Export XML File"); // Dialógusablak címe
+        fileChooser.setTitle("Export File"); // Dialógusablak címe
         FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter("XML files (*.xml)", "*.xml"); // Fájlfiltet beállítása XML fájlokra
         fileChooser.getExtensionFilters().add(extFilter); // Fájlfiltet hozzáadása a kiválasztóhoz
+        // Az XML kimenet formái és a többi formátum szűrője; a kiválasztott szűrő határozza meg a kimenetet
+        Map<FileChooser.ExtensionFilter, XmlSerializer.Mode> modes = new HashMap<>();
+        FileChooser.ExtensionFilter minifiedFilter = new FileChooser.ExtensionFilter("XML files, minified (*.xml)", "*.xml");
+        FileChooser.ExtensionFilter normalizedFilter = new FileChooser.ExtensionFilter("XML files, normalized for comparison (*.xml)", "*.xml");
+        fileChooser.getExtensionFilters().addAll(minifiedFilter, normalizedFilter);
+        modes.put(minifiedFilter, XmlSerializer.Mode.MINIFIED);
+        modes.put(normalizedFilter, XmlSerializer.Mode.NORMALIZED);
+        // A tömörített XML szűrői; a tömörítést a célfájl kiterjesztése határozza meg
+        Map<FileChooser.ExtensionFilter, CompressionCodec> codecs = new HashMap<>();
+        for (CompressionCodec codec : Compression.codecs()) {
+            FileChooser.ExtensionFilter filter = new FileChooser.ExtensionFilter(
+                    "XML files, " + codec.getName() + " (*.xml" + codec.getExtension() + ")", "*.xml" + codec.getExtension());
+            fileChooser.getExtensionFilters().add(filter);
+            codecs.put(filter, codec);
+        }
+        Map<FileChooser.ExtensionFilter, OutputFormat> formats = new HashMap<>();
+        for (OutputFormat format : OutputFormat.values()) {
+            FileChooser.ExtensionFilter filter = new FileChooser.ExtensionFilter(
+                    format.getDescription() + " (*." + format.getExtension() + ")", "*." + format.getExtension());
+            fileChooser.getExtensionFilters().add(filter);
+            formats.put(filter, format);
+        }
         File selectedFile = fileChooser.showSaveDialog(stage); // Mentési dialógusablak megjelenítése
 
         // Ha nem választottak ki fájlt, visszatérés igazzal
         if (selectedFile == null) {
             return true;
         }
+        // A beolvasáskor megváltozott szövegek a kimenetben is megváltozva jelennek meg
+        if (textNormalization != null && !textNormalization.isLossless() && !showConfirmationDialog("Export Confirmation",
+                String.format("The text of this document was normalized on import:%n"
+                        + "%,d text values had leading or trailing whitespace trimmed.%n"
+                        + "The exported file will not match the original. Continue?",
+                        textNormalization.getTrimmed()))) {
+            return true;
+        }
 
-        try {
-            // Az XML tartalom megírása a kiválasztott fájlba
-            return writeToFile(selectedFile);
-        } catch (Exception e) {
-            // Ha hiba történt a fájlírás közben, figyelmeztetés megjelenítése és visszatérés hamissal
-            return exportFail();
+        // Az XML tartalom megírása a kiválasztott fájlba a háttérben
+        FileChooser.ExtensionFilter selectedFilter = fileChooser.getSelectedExtensionFilter();
+        CompressionCodec codec = codecs.get(selectedFilter);
+        if (codec != null && Compression.forTarget(selectedFile.toPath()) != codec) {
+            selectedFile = new File(selectedFile.getPath() + codec.getExtension());
         }
+        return writeToFile(selectedFile, formats.get(selectedFilter),
+                modes.getOrDefault(selectedFilter, XmlSerializer.Mode.PRETTY));
     }
 
     /**
-     * Az XML tartalmat írja a kiválasztott fájlba.
+     * Az XML tartalmat írja a kiválasztott fájlba egy háttérfeladatban.
+     * A tartalom közvetlenül a dokumentum csomópontjaiból készül, nem az előnézetből.
      *
      * @param selectedFile A kiválasztott fájl, amelybe az XML tartalmat írni kell.
-     * @return Igaz, ha sikeresen sikerült az írás, egyébként hamis.
-     * @throws IOException Ha hiba történik az írás során.
+     * @param format A kimenet formátuma, vagy null, ha XML.
+     * @param mode Az XML kimenet formája.
+     * @return Igaz, ha az írás elindult, hamis, ha nincs megnyitott dokumentum.
      */
-    private boolean writeToFile(File selectedFile) throws IOException {
-        // Az XML tartalom lekérése a TextArea-ból
-        String xmlContent = xmlPreviewTArea.getText();
-
-        // Író inicializálása a kiválasztott fájlra
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(selectedFile))) {
-            // Az XML tartalom írása a kiválasztott fájlba
-            writer.write(xmlContent);
+    private boolean writeToFile(File selectedFile, OutputFormat format, XmlSerializer.Mode mode) {
+        XmlNode rootNode = tv.getRootNode();
+        if (rootNode == null) {
+            return exportFail();
         }
-        // Visszatérés igazzal, ha sikeres volt az írás
+        // Az XML tartalom kiírása háttérben; hiba esetén figyelmeztetés
+        ExportTask task = format != null ? new ExportTask(selectedFile, rootNode, format)
+                : new ExportTask(selectedFile, rootNode, mode);
+        task.setOnSucceeded(event -> showMetrics());
+        task.setOnFailed(event -> exportFail());
+        runTask(task);
         return true;
     }
 
+    /**
+     * Megjeleníti az állapotsorban a feldolgozási lépések legutóbbi idejét és áteresztőképességét.
+     */
+    private void showMetrics() {
+        metricsLabel.setText(Metrics.statusText());
+    }
+
+    /**
+     * Elindítja a feladatot a háttérben, és a folyamatjelzőt hozzáköti.
+     * Ha már fut egy másik feladat, azt megszakítja.
+     *
+     * @param task Az elindítandó feladat.
+     */
+    private void runTask(Task<?> task) {
+        if (currentTask != null && currentTask.isRunning()) {
+            currentTask.cancel();
+        }
+        currentTask = task;
+
+        taskProgressBar.progressProperty().bind(task.progressProperty());
+        taskProgressBar.visibleProperty().bind(task.runningProperty());
+        cancelTaskButton.visibleProperty().bind(task.runningProperty());
+        taskStatusLabel.textProperty().bind(task.messageProperty());
+        // Futás közben a dokumentum nem szerkeszthető, mert a háttérszál is olvassa
+        addButton.disableProperty().bind(task.runningProperty());
+        editButton.disableProperty().bind(task.runningProperty());
+        deleteButton.disableProperty().bind(task.runningProperty());
+
+        BackgroundTasks.run(task);
+    }
+
+    /**
+     * Megszakítja az éppen futó háttérfeladatot.
+     *
+     * @param actionEvent Az esemény, amely a metódus meghívásához vezetett.
+     */
+    @FXML
+    private void onCancelTask(ActionEvent actionEvent) {
+        if (currentTask != null) {
+            currentTask.cancel();
+        }
+    }
+
     /**
      * Figyelmeztetés megjelenítése, ha hiba történik az XML exportálása során.
      *
@@ -208,13 +376,29 @@ public class PrimaryController implements Initializable {
 
 
     /**
-     * Átalakítja az XML dokumentumot szöveges formátumba.
+     * Átalakítja az XML dokumentumot szöveges formátumba, behúzás nélkül.
      *
      * @param doc Az XML dokumentum, amelyet át kell alakítani.
      * @return Az XML dokumentum szöveges reprezentációja.
      * @throws TransformerException Ha hiba történik az átalakítás során.
      */
     public static String getStringFromDocument(Document doc) throws TransformerException {
+        return getStringFromDocument(doc, XmlSerializer.Mode.MINIFIED);
+    }
+
+    /**
+     * Átalakítja az XML dokumentumot szöveges formátumba, a megadott formában.
+     * A normalizált formát csak a csomópontokból író {@link XmlSerializer} állítja elő.
+     *
+     * @param doc Az XML dokumentum, amelyet át kell alakítani.
+     * @param mode A kimenet formája: formázott (négy szóközös behúzással) vagy tömörített.
+     * @return Az XML dokumentum szöveges reprezentációja.
+     * @throws TransformerException Ha hiba történik az átalakítás során.
+     */
+    public static String getStringFromDocument(Document doc, XmlSerializer.Mode mode) throws TransformerException {
+        if (mode == XmlSerializer.Mode.NORMALIZED) {
+            throw new IllegalArgumentException("Normalized output is written by XmlSerializer");
+        }
         // DOM forrás inicializálása
         DOMSource domSource = new DOMSource(doc);
 
@@ -222,11 +406,13 @@ public class PrimaryController implements Initializable {
         StringWriter writer = new StringWriter();
         StreamResult result = new StreamResult(writer);
 
-        // TransformerFactory létrehozása
-        TransformerFactory tf = TransformerFactory.newInstance();
-
-        // Transformer létrehozása
-        Transformer transformer = tf.newTransformer();
+        // A szálhoz tartozó, újrahasznosított Transformer; a kimeneti beállításai minden hívásnál alaphelyzetből indulnak
+        Transformer transformer = XmlParsers.transformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.setOutputProperty(OutputKeys.INDENT, mode == XmlSerializer.Mode.PRETTY ? "yes" : "no");
+        if (mode == XmlSerializer.Mode.PRETTY) {
+            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+        }
 
         // XML dokumentum átalakítása szöveges formátummá
         transformer.transform(domSource, result);
@@ -238,52 +424,51 @@ public class PrimaryController implements Initializable {
 
     /**
      * Inicializálja a kontrollert az FXML fájl betöltésekor.
-     * Beállítja a kezdeti szöveget a xmlPreviewTArea TextArea-ban
-     * és letiltja annak szerkesztését.
+     * Beállítja az előnézet megjelenését és a kezdeti szöveget.
      *
      * @param url Az inicializáció URL-je, ami nem használt ebben az esetben.
      * @param resourceBundle Az inicializációhoz tartozó nyelvi erőforrások, ami nem használt ebben az esetben.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        // Kezdeti szöveg beállítása a TextArea-ban
-        this.xmlPreviewTArea.setText("Import a document please...");
-        // Szerkesztés letiltása a TextArea-ban
-        this.xmlPreviewTArea.setEditable(false);
+        // Az előnézet beállítása és kezdeti szövege
+        this.preview.initialize();
+        // A fa nézet cellái a csomópontokból jelenítik meg az elemeket
+        this.tv.initialize();
+        // A folyamatjelző csak háttérfeladat futása közben látszik
+        this.taskProgressBar.setVisible(false);
+        this.cancelTaskButton.setVisible(false);
+        updateUndoMenu();
+    }
+
+    /**
+     * Háttérben előre betölti a párbeszédablakokat, hogy az első megnyitásuk se várjon az FXML feldolgozására.
+     * Az alkalmazás a fő ablak megjelenése után hívja.
+     */
+    public void preloadDialogs() {
+        addDialog.preload();
+        editDialog.preload();
+        bulkEditDialog.preload();
+        helpDialog.preload();
     }
 
 
     /**
      * Az "Új sor hozzáadása" funkció megvalósítása.
-     * Betölti az "addNewLine.fxml" fájlt, beállítja a megfelelő referenciákat
-     * a kontrollerek között, majd megjeleníti az új ablakot.
+     * Megjeleníti az "addNewLine.fxml" fájlban definiált ablakot, az előző megnyitás adatai nélkül,
+     * és beállítja a megfelelő referenciákat a kontrollerek között.
      *
      * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
      */
     public void onAdd(ActionEvent actionEvent) {
-        try {
-            // Betöltjük az FXML fájlt
-            FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource("addNewLine.fxml"));
-            Scene scene = new Scene(fxmlLoader.load(), 294, 444);
-
-            // Lekérjük az AddNewLineController példányt
-            AddNewLineController controller = fxmlLoader.getController();
+        addDialog.show(controller -> {
+            // Az előző megnyitásban kiválasztott típus és kitöltött mezők törlése
+            controller.reset();
 
-            // Beállítjuk a PrimaryController referenciát
+            // Beállítjuk a PrimaryController és a primaryTreeView referenciát
             controller.setPrimaryController(this);
-
-            // Beállítjuk a primaryTreeView referenciát
             controller.setPrimaryTreeView(primaryTreeView);
-
-            // Új ablak megjelenítése
-            Stage stage = new Stage();
-            stage.setTitle("Add new line");
-            stage.setScene(scene);
-            stage.show();
-        } catch (IOException e) {
-            // Ha hiba történik az FXML fájl betöltésekor, RuntimeException dobása
-            throw new RuntimeException(e);
-        }
+        });
     }
 
     /**
@@ -297,13 +482,20 @@ public class PrimaryController implements Initializable {
     @FXML
     private void onDelete(ActionEvent actionEvent) {
         // Kiválasztott elem lekérése a fa struktúrából
-        TreeItem<String> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
-        if (selectedItem != null) {
+        TreeItem<XmlNode> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
+        // Kiírás vagy összehasonlítás közben a fa nem változhat
+        if (isTaskRunning()) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Hiba!");
+            alert.setHeaderText(null);
+            alert.setContentText("Háttérfeladat fut, próbáld újra később.");
+            alert.showAndWait();
+        } else if (selectedItem != null) {
             // Ellenőrzés, hogy a felhasználó törölni szeretné-e az elemet
             boolean confirmation = showConfirmationDialog("Delete Confirmation", "Are you sure you want to delete this item?");
             if (confirmation) {
-                // Az elem törlése a fa struktúrából
-                selectedItem.getParent().getChildren().remove(selectedItem);
+                // Az elem törlése a dokumentumból és a fa struktúrából
+                tv.remove(selectedItem);
                 // XML frissítése az elem törlése után
                 convertTreeViewToXml();
             }
@@ -317,6 +509,230 @@ public class PrimaryController implements Initializable {
         }
     }
 
+    /**
+     * Megnyitja a tömeges szerkesztés ablakát, amelyben XPath kifejezéssel kiválasztott elemek módosíthatók vagy törölhetők.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onBulkEdit(ActionEvent actionEvent) {
+        if (tv.getRootNode() == null) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Hiba!");
+            alert.setHeaderText(null);
+            alert.setContentText("Nincs megnyitott dokumentum!");
+            alert.showAndWait();
+            return;
+        }
+        bulkEditDialog.show(controller -> {
+            controller.reset();
+            controller.setPrimaryController(this);
+        });
+    }
+
+    /**
+     * Visszavonja a legutóbbi szerkesztést (hozzáadás, módosítás vagy törlés), majd frissíti az XML-t.
+     * Háttérfeladat futása közben nem csinál semmit, mert a háttérszál is olvassa a dokumentumot.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onUndo(ActionEvent actionEvent) {
+        if (!isTaskRunning() && tv.undo()) {
+            convertTreeViewToXml();
+        }
+    }
+
+    /**
+     * Újra végrehajtja a legutóbb visszavont szerkesztést, majd frissíti az XML-t.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onRedo(ActionEvent actionEvent) {
+        if (!isTaskRunning() && tv.redo()) {
+            convertTreeViewToXml();
+        }
+    }
+
+    /**
+     * A Visszavonás és az Újra menüpontokat (és a gyorsbillentyűiket) az előzmény szerint engedélyezi.
+     */
+    private void updateUndoMenu() {
+        undoMenuItem.setDisable(!tv.canUndo());
+        redoMenuItem.setDisable(!tv.canRedo());
+    }
+
+    /**
+     * Kiválasztja a beolvasáskor használt XSD sémát. A séma azonnal lefordul, így a hibás séma itt kiderül,
+     * a beolvasás pedig már a gyorsítótárból kapja.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onSelectSchema(ActionEvent actionEvent) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select XSD Schema");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("XML Schema", "*.xsd"));
+        File selected = fileChooser.showOpenDialog(primaryTreeView.getScene().getWindow());
+        if (selected == null) {
+            return;
+        }
+        try {
+            SchemaValidation.schema(selected.toPath());
+        } catch (Exception e) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Hiba!");
+            alert.setHeaderText(null);
+            alert.setContentText("Hibás séma: " + e.getMessage());
+            alert.showAndWait();
+            return;
+        }
+        schemaFile = selected;
+        schemaMenuItem.setText("Schema: " + selected.getName());
+    }
+
+    /**
+     * Kikapcsolja a séma szerinti ellenőrzést.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onClearSchema(ActionEvent actionEvent) {
+        schemaFile = null;
+        schemaMenuItem.setText("Schema: none");
+    }
+
+    /**
+     * Összehasonlítja a megnyitott dokumentumot egy másik XML fájllal a háttérben; az eltérések a fa nézetben jelölve látszanak.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onCompare(ActionEvent actionEvent) {
+        XmlNode rootNode = tv.getRootNode();
+        if (rootNode == null || isTaskRunning()) {
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Compare with XML File");
+        File selected = fileChooser.showOpenDialog(primaryTreeView.getScene().getWindow());
+        if (selected == null) {
+            return;
+        }
+        CompareTask task = new CompareTask(importer, selected, rootNode);
+        task.setOnSucceeded(event -> {
+            XmlDiff diff = task.getValue();
+            diffPosition = -1;
+            tv.setDiff(diff.isEmpty() ? null : diff);
+            if (diff.isEmpty()) {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Összehasonlítás");
+                alert.setHeaderText(null);
+                alert.setContentText("Nincs eltérés: " + selected.getName());
+                alert.showAndWait();
+            }
+        });
+        task.setOnFailed(event -> badFileWarn(task.getException()));
+        runTask(task);
+    }
+
+    /**
+     * Megjeleníti a következő eltérést a fa nézetben; új elemnél azt az elemet, amely alá tartozna.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onNextDifference(ActionEvent actionEvent) {
+        XmlDiff diff = tv.getDiff();
+        if (diff == null) {
+            return;
+        }
+        List<XmlDiff.Change> changes = diff.getChanges();
+        diffPosition = (diffPosition + 1) % changes.size();
+        XmlDiff.Change change = changes.get(diffPosition);
+        tv.reveal(change.getKind() == XmlDiff.Kind.ADDED ? change.getParent() : change.getNode());
+    }
+
+    /**
+     * Átveszi az összehasonlított dokumentum új és módosult elemeit; egyetlen Visszavonással visszaállítható.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onMerge(ActionEvent actionEvent) {
+        XmlDiff diff = tv.getDiff();
+        if (diff == null || isTaskRunning()) {
+            return;
+        }
+        tv.merge(diff);
+        convertTreeViewToXml();
+    }
+
+    /**
+     * Befejezi az összehasonlítást, és eltünteti az eltérések jelölését.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onEndCompare(ActionEvent actionEvent) {
+        tv.setDiff(null);
+    }
+
+    /**
+     * Megjeleníti a hibás hivatkozású elemek számát; maguk a hibák a fa nézetben, jelölve látszanak.
+     */
+    private void showValidation() {
+        int problems = tv.getValidator().problemCount();
+        validationLabel.setText(problems == 0 ? "Hivatkozások rendben" : String.format("Hibás elemek: %,d", problems));
+    }
+
+    /**
+     * Keresés az elemnevek és attribútumok között a keresőindex alapján.
+     * Ugyanarra a kifejezésre ismételt Enter a következő találatra ugrik.
+     *
+     * @param actionEvent Az esemény, amely a funkció meghívásához vezetett.
+     */
+    @FXML
+    private void onSearch(ActionEvent actionEvent) {
+        String query = searchField.getText().trim();
+        if (query.isEmpty() || tv.getRootNode() == null) {
+            clearSearch();
+            return;
+        }
+        // Új kifejezésnél az első, ugyanannál a következő találat; a lekérdezés minden alkalommal friss,
+        // így a közben végzett szerkesztések is látszanak
+        searchPosition = query.equals(lastQuery) ? searchPosition + 1 : 0;
+        lastQuery = query;
+        SearchIndex.Hits searchHits = tv.getSearchIndex().search(query, SEARCH_RESULT_LIMIT);
+        int shown = searchHits.getNodes().size();
+        if (shown == 0) {
+            searchResultLabel.setText("Nincs találat");
+            return;
+        }
+        if (searchPosition >= shown) {
+            searchPosition = 0;
+        }
+        tv.reveal(searchHits.getNodes().get(searchPosition));
+        searchResultLabel.setText(String.format("%,d / %,d", searchPosition + 1, searchHits.getTotal()));
+    }
+
+    /**
+     * Törli a legutóbbi keresés állapotát és a találatszámot.
+     */
+    private void clearSearch() {
+        lastQuery = null;
+        searchPosition = 0;
+        searchResultLabel.setText("");
+    }
+
+    /**
+     * @return Igaz, ha éppen fut háttérfeladat.
+     */
+    boolean isTaskRunning() {
+        return currentTask != null && currentTask.isRunning();
+    }
+
     /**
      * Megerősítő párbeszédablak megjelenítése a felhasználó számára.
      * A felhasználó megerősítheti vagy megszakíthatja az adott műveletet.
@@ -348,32 +764,14 @@ public class PrimaryController implements Initializable {
      * @param actionEvent Az esemény, amely a szerkesztési funkció meghívásához vezetett.
      */
     public void onEdit(ActionEvent actionEvent) {
-        // Az új ablak méreteinek beállítása
-        final int newSceneWidth = 600;
-        final int newSceneHeight = 600;
-
         // Kiválasztott elem lekérése a fa struktúrából
-        TreeItem<String> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
+        TreeItem<XmlNode> selectedItem = primaryTreeView.getSelectionModel().getSelectedItem();
         if (selectedItem != null) {
-            try {
-                // Az FXML fájl betöltése
-                FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource("editLine.fxml"));
-                Scene scene = new Scene(fxmlLoader.load(), newSceneWidth, newSceneHeight);
-
-                // EditLineController példány lekérése és beállítása
-                EditLineController controller = fxmlLoader.getController();
+            // A szerkesztő ablak újra felhasználódik; a kiválasztott elem beállítása a mezőit is újratölti
+            editDialog.show(controller -> {
                 controller.setPrimaryController(this); // PrimaryController referenciát átadása
                 controller.setSelectedItem(selectedItem); // Kiválasztott elem beállítása
-
-                // Szerkesztő ablak megjelenítése
-                Stage stage = new Stage();
-                stage.setTitle("Edit line");
-                stage.setScene(scene);
-                stage.show();
-            } catch (IOException e) {
-                // Ha hiba történik az FXML fájl betöltésekor, RuntimeException dobása
-                throw new RuntimeException(e);
-            }
+            });
         } else {
             // Figyelmeztetés megjelenítése, ha nincs kiválasztott elem
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -387,83 +785,43 @@ public class PrimaryController implements Initializable {
 
     /**
      * A fa struktúrában lévő adatok átalakítása XML formátumba, majd az eredmény megjelenítése.
-     * Ellenőrzi, hogy van-e gyökér elem a fa struktúrában, és ha igen, átalakítja az összes alárendelt elemet XML formátumba.
-     * Az XML formátumot a `xmlPreviewTArea` TextArea-ban jeleníti meg.
+     * Ellenőrzi, hogy van-e gyökér elem a fa struktúrában, és ha igen, az előnézetet a dokumentum csomópontjaira állítja.
+     * A szerializálás inkrementális: csak a látható sorok készülnek el, és egy szerkesztés után
+     * csak a szerkesztett elem és a gyökér közötti út gyorsítótára számolódik újra.
+     * Maga a frissítés összevonva, az utolsó kérés után rövid szünettel fut le, így egy sorozat
+     * szerkesztés (például több elem törlése vagy ismételt visszavonás) csak egyszer rendezi újra az előnézetet.
      */
     public void convertTreeViewToXml() {
-        // StringBuilder létrehozása az XML tartalom tárolására
-        StringBuilder xmlStringBuilder = new StringBuilder();
-        // Gyökér elem lekérése a fa struktúrából
-        TreeItem<String> rootItem = primaryTreeView.getRoot();
-        if (rootItem != null) {
-            // Gyökér elem átalakítása XML formátumba, majd hozzáadása az XML StringBuilder-hez
-            xmlStringBuilder.append(convertTreeItemToXml(rootItem, 0));
-            // Az XML tartalom megjelenítése a TextArea-ban
-            xmlPreviewTArea.setText(xmlStringBuilder.toString());
+        previewRefresh.request();
+        if (tv.getRootNode() != null) {
+            showValidation();
         }
+        updateUndoMenu();
     }
 
-
-    // Recursive function to convert TreeItem to XML format
-    private String convertTreeItemToXml(TreeItem<String> item, int depth) {
-        StringBuilder xmlString = new StringBuilder();
-        String indentation = "\t".repeat(depth); // indentation for child elements
-
-        // Add opening tag with attributes if available
-        String itemValue = item.getValue();
-        String attributes = "";
-        if (itemValue.contains("=")) {
-            String[] parts = itemValue.split(" ");
-            itemValue = parts[0]; // Get the tag name
-            attributes = " " + String.join(" ", Arrays.copyOfRange(parts, 1, parts.length));
-        }
-        xmlString.append(indentation).append("<").append(itemValue).append(attributes);
-
-        // Check if the item has children
-        if (!item.getChildren().isEmpty()) {
-            xmlString.append(">\n");
-
-            // Add children recursively
-            for (TreeItem<String> child : item.getChildren()) {
-                xmlString.append(convertTreeItemToXml(child, depth + 1));
-            }
-
-            // Add closing tag
-            xmlString.append(indentation).append("</").append(itemValue).append(">\n");
-        } else {
-            // If the item has no children, close the tag differently
-            xmlString.append("/>\n");
+    /**
+     * Az előnézet tényleges frissítése; a {@link RefreshScheduler} hívja, az utolsó szerkesztés után.
+     */
+    private void refreshPreview() {
+        // Gyökér csomópont lekérése a dokumentumból; lusta módban a fa elemek nem fedik le a teljes dokumentumot
+        XmlNode rootNode = tv.getRootNode();
+        if (rootNode != null) {
+            // Az előnézet a csomópontokból, soronként állítja elő az XML formátumot
+            preview.show(new NodeLineSource(rootNode));
+            showMetrics();
         }
-
-        return xmlString.toString();
     }
 
+
     /**
      * Az "Súgó" funkció megvalósítása.
      * Megjeleníti a "help.fxml" fájlban definiált súgó ablakot, amely tartalmazza az alkalmazás használati útmutatóját.
      *
      * @param actionEvent Az esemény, amely a súgó funkció meghívásához vezetett.
-     * @throws IOException Ha hiba történik az FXML fájl betöltésekor.
      */
     @FXML
-    public void onHelp(ActionEvent actionEvent) throws IOException {
-        // Az új ablak méreteinek beállítása
-        final int newSceneWidth = 600;
-        final int newSceneHeight = 600;
-
-        // FXMLLoader inicializálása és az FXML fájl betöltése
-        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource("help.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), newSceneWidth, newSceneHeight);
-
-        // helpController példány létrehozása és beállítása
-        helpController controller = fxmlLoader.getController();
-        controller.setPrimaryController(this); // PrimaryController referenciát átadása
-
-        // Az új ablak létrehozása és megjelenítése
-        Stage stage = new Stage();
-        stage.setTitle("Help");
-        stage.setScene(scene);
-        stage.show();
+    public void onHelp(ActionEvent actionEvent) {
+        helpDialog.show(controller -> controller.setPrimaryController(this)); // PrimaryController referenciát átadása
     }
 
 
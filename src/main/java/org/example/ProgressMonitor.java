@@ -0,0 +1,33 @@
+package org.example;
+
+/**
+ * A hosszan futó feldolgozások (beolvasás, szerializálás) előrehaladását figyelő
+ * és megszakítását kezdeményező felület.
+ */
+public interface ProgressMonitor {
+
+    /**
+     * Figyelő, amely nem csinál semmit és soha nem szakítja meg a feldolgozást.
+     */
+    ProgressMonitor NONE = new ProgressMonitor() {
+        @Override
+        public void progress(long nodes) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * Értesítés a feldolgozás előrehaladásáról.
+     * @param nodes Az eddig feldolgozott elemek száma.
+     */
+    void progress(long nodes);
+
+    /**
+     * @return Igaz, ha a feldolgozást meg kell szakítani.
+     */
+    boolean isCancelled();
+}
@@ -0,0 +1,307 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A konfiguráció hivatkozásainak ellenőrzése. Szabályok:
+ * <ul>
+ *     <li>a `constant` elemnek van `name` és `value` attribútuma, és a `name` egyedi a konstansok között,</li>
+ *     <li>a `linking` elem `Source` és `Target` attribútuma meg van adva, és egy létező névre
+ *     (egy elem `name` attribútumára) hivatkozik,</li>
+ *     <li>a `conversion` elemnek meg van adva a `Type` attribútuma.</li>
+ * </ul>
+ * A nevek és a hivatkozások hasítótáblában vannak, így beolvasáskor egyszer, teljesen lefut,
+ * szerkesztés után pedig csak a szerkesztett elemeket és a megváltozott nevekre hivatkozó elemeket ellenőrzi újra.
+ */
+public class ReferenceValidator {
+
+    public static final String CONSTANT = "constant";
+    public static final String LINKING = "linking";
+    public static final String CONVERSION = "conversion";
+
+    private static final String NAME = "name";
+    private static final String VALUE = "value";
+    private static final String SOURCE = "Source";
+    private static final String TARGET = "Target";
+    private static final String TYPE = "Type";
+
+    /**
+     * A szimbólumtábla: név szerint a `name` attribútummal rendelkező elemek; a bejegyzések formáját lásd: {@link Postings}.
+     */
+    private final Map<String, Object> definitions = new HashMap<>();
+
+    /**
+     * Név szerint az adott névre hivatkozó `linking` elemek.
+     */
+    private final Map<String, Object> references = new HashMap<>();
+
+    /**
+     * Név szerint az ilyen nevű konstansok száma, az ismétlődés ellenőrzéséhez.
+     */
+    private final Map<String, Integer> constantCounts = new HashMap<>();
+
+    /**
+     * A hibás elemek és a hibaüzeneteik; a hibátlan elemek nem szerepelnek benne.
+     */
+    private final Map<XmlNode, List<String>> problems = new IdentityHashMap<>();
+
+    /**
+     * Felépíti a szimbólumtáblát, és ellenőrzi a teljes dokumentumot.
+     * @param rootNode A dokumentum gyökér csomópontja.
+     * @return Az elkészült ellenőrző.
+     */
+    public static ReferenceValidator build(@NotNull XmlNode rootNode) {
+        ReferenceValidator validator = new ReferenceValidator();
+        List<XmlNode> nodes = subtree(rootNode);
+        for (XmlNode node : nodes) {
+            validator.register(node);
+        }
+        for (XmlNode node : nodes) {
+            validator.check(node);
+        }
+        return validator;
+    }
+
+    /**
+     * @param node A csomópont.
+     * @return A csomópont hibaüzenetei; üres lista, ha nincs hibája.
+     */
+    public List<String> getProblems(@NotNull XmlNode node) {
+        List<String> messages = problems.get(node);
+        return messages == null ? Collections.emptyList() : Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * @return A hibás elemek száma.
+     */
+    public int problemCount() {
+        return problems.size();
+    }
+
+    /**
+     * Felveszi a beszúrt részfát, majd ellenőrzi az elemeit és a bennük definiált nevekre hivatkozó elemeket.
+     * @param node A beszúrt részfa gyökere.
+     */
+    public void add(@NotNull XmlNode node) {
+        List<XmlNode> nodes = subtree(node);
+        Set<String> affected = new HashSet<>();
+        for (XmlNode current : nodes) {
+            register(current);
+            collectKeys(current.getName(), current.getAttributes(), affected);
+        }
+        for (XmlNode current : nodes) {
+            check(current);
+        }
+        recheck(affected);
+    }
+
+    /**
+     * Eltávolítja a részfát, majd újraellenőrzi a benne definiált vagy hivatkozott nevekhez tartozó elemeket.
+     * @param node Az eltávolított részfa gyökere.
+     */
+    public void remove(@NotNull XmlNode node) {
+        Set<String> affected = new HashSet<>();
+        for (XmlNode current : subtree(node)) {
+            unregister(current, current.getName(), current.getAttributes());
+            collectKeys(current.getName(), current.getAttributes(), affected);
+            problems.remove(current);
+        }
+        recheck(affected);
+    }
+
+    /**
+     * Frissíti egy csomópont bejegyzéseit a név vagy az attribútumok módosítása után,
+     * majd újraellenőrzi a csomópontot, és a régi és új nevekhez tartozó elemeket.
+     * @param node A módosított csomópont, már az új értékekkel.
+     * @param oldName A módosítás előtti név.
+     * @param oldAttributes A módosítás előtti attribútumok név-érték párjai.
+     */
+    public void update(@NotNull XmlNode node, @NotNull String oldName, @NotNull String[] oldAttributes) {
+        Set<String> affected = new HashSet<>();
+        unregister(node, oldName, oldAttributes);
+        collectKeys(oldName, oldAttributes, affected);
+        register(node);
+        collectKeys(node.getName(), node.getAttributes(), affected);
+        check(node);
+        recheck(affected);
+    }
+
+    /**
+     * Felveszi a csomópont nevét és hivatkozásait a táblákba.
+     */
+    private void register(XmlNode node) {
+        if (!node.isElement()) {
+            return;
+        }
+        String name = nonEmpty(node.getAttribute(NAME));
+        if (name != null) {
+            Postings.add(definitions, name, node);
+            if (CONSTANT.equals(node.getName())) {
+                constantCounts.merge(name, 1, Integer::sum);
+            }
+        }
+        if (LINKING.equals(node.getName())) {
+            addReference(nonEmpty(node.getAttribute(SOURCE)), node);
+            addReference(nonEmpty(node.getAttribute(TARGET)), node);
+        }
+    }
+
+    private void addReference(String name, XmlNode node) {
+        if (name != null) {
+            Postings.add(references, name, node);
+        }
+    }
+
+    /**
+     * Törli a csomópont bejegyzéseit a táblákból, a megadott (akár korábbi) név és attribútumok alapján.
+     */
+    private void unregister(XmlNode node, String elementName, String[] attributes) {
+        if (!node.isElement()) {
+            return;
+        }
+        Set<XmlNode> single = Collections.singleton(node);
+        String name = nonEmpty(attribute(attributes, NAME));
+        if (name != null) {
+            Postings.remove(definitions, name, single);
+            if (CONSTANT.equals(elementName)) {
+                constantCounts.computeIfPresent(name, (key, count) -> count == 1 ? null : count - 1);
+            }
+        }
+        if (LINKING.equals(elementName)) {
+            for (String attributeName : new String[]{SOURCE, TARGET}) {
+                String reference = nonEmpty(attribute(attributes, attributeName));
+                if (reference != null) {
+                    Postings.remove(references, reference, single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Összegyűjti az elem által definiált és hivatkozott neveket.
+     */
+    private static void collectKeys(String elementName, String[] attributes, Set<String> keys) {
+        String name = nonEmpty(attribute(attributes, NAME));
+        if (name != null) {
+            keys.add(name);
+        }
+        if (LINKING.equals(elementName)) {
+            String source = nonEmpty(attribute(attributes, SOURCE));
+            String target = nonEmpty(attribute(attributes, TARGET));
+            if (source != null) {
+                keys.add(source);
+            }
+            if (target != null) {
+                keys.add(target);
+            }
+        }
+    }
+
+    /**
+     * Újraellenőrzi a megadott neveket definiáló és azokra hivatkozó elemeket.
+     */
+    private void recheck(Set<String> names) {
+        for (String name : names) {
+            for (XmlNode node : Postings.nodes(definitions.get(name))) {
+                check(node);
+            }
+            for (XmlNode node : Postings.nodes(references.get(name))) {
+                check(node);
+            }
+        }
+    }
+
+    /**
+     * Ellenőrzi egyetlen elem szabályait, és frissíti a hibalistát.
+     */
+    private void check(XmlNode node) {
+        List<String> messages = null;
+        switch (node.getName()) {
+            case CONSTANT:
+                String name = nonEmpty(node.getAttribute(NAME));
+                if (name == null) {
+                    messages = message(messages, "Hiányzó name attribútum");
+                } else if (constantCounts.getOrDefault(name, 0) > 1) {
+                    messages = message(messages, "Ismétlődő konstans név: " + name);
+                }
+                if (node.getAttribute(VALUE) == null) {
+                    messages = message(messages, "Hiányzó value attribútum");
+                }
+                break;
+            case LINKING:
+                for (String attributeName : new String[]{SOURCE, TARGET}) {
+                    String reference = nonEmpty(node.getAttribute(attributeName));
+                    if (reference == null) {
+                        messages = message(messages, "Hiányzó " + attributeName + " attribútum");
+                    } else if (!definitions.containsKey(reference)) {
+                        messages = message(messages, "Feloldatlan hivatkozás: " + attributeName + "=" + reference);
+                    }
+                }
+                break;
+            case CONVERSION:
+                if (nonEmpty(node.getAttribute(TYPE)) == null) {
+                    messages = message(messages, "Hiányzó Type attribútum");
+                }
+                break;
+            default:
+                break;
+        }
+        if (messages == null) {
+            problems.remove(node);
+        } else {
+            problems.put(node, messages);
+        }
+    }
+
+    private static List<String> message(List<String> messages, String message) {
+        if (messages == null) {
+            messages = new ArrayList<>(2);
+        }
+        messages.add(message);
+        return messages;
+    }
+
+    /**
+     * @return A részfa csomópontjai, a gyökérrel együtt.
+     */
+    private static List<XmlNode> subtree(XmlNode node) {
+        List<XmlNode> nodes = new ArrayList<>();
+        Deque<XmlNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            XmlNode current = stack.pop();
+            nodes.add(current);
+            for (int i = current.getChildCount() - 1; i >= 0; i--) {
+                stack.push(current.getChild(i));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @return Az attribútum értéke a név-érték párok között, vagy null.
+     */
+    private static String attribute(String[] attributes, String name) {
+        for (int i = 0; i < attributes.length; i += 2) {
+            if (attributes[i].equals(name)) {
+                return attributes[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static String nonEmpty(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Összevonja az egymás után gyorsan érkező frissítési kéréseket: a kérés csak piszkosnak jelöli a nézetet,
+ * és a frissítés akkor fut le egyszer, amikor a kérések a megadott ideig szünetelnek. Folyamatos kérések
+ * mellett legfeljebb a megadott késleltetés után mindenképp lefut, így a nézet nem marad le a végtelenségig.
+ * Csak a JavaFX alkalmazásszálon használható.
+ */
+public class RefreshScheduler {
+
+    /**
+     * A frissítés.
+     */
+    private final Runnable action;
+
+    /**
+     * Az utolsó kérés után ennyi szünet kell a frissítéshez.
+     */
+    private final PauseTransition debounce;
+
+    /**
+     * Az első, még ki nem szolgált kérés után legfeljebb ennyi idővel lefut a frissítés.
+     */
+    private final long maxDelayNanos;
+
+    /**
+     * Az első ki nem szolgált kérés ideje; csak akkor érvényes, ha van függő frissítés.
+     */
+    private long firstRequest;
+
+    /**
+     * Igaz, ha van ki nem szolgált kérés.
+     */
+    private boolean dirty;
+
+    /**
+     * Konstruktor.
+     * @param window A szünet hossza, amely után a frissítés lefut.
+     * @param maxDelay A legnagyobb késleltetés az első ki nem szolgált kéréstől.
+     * @param action A frissítés.
+     */
+    public RefreshScheduler(@NotNull Duration window, @NotNull Duration maxDelay, @NotNull Runnable action) {
+        this.action = action;
+        this.maxDelayNanos = (long) (maxDelay.toMillis() * 1_000_000);
+        this.debounce = new PauseTransition(window);
+        this.debounce.setOnFinished(event -> flush());
+    }
+
+    /**
+     * Frissítést kér; az azonnali munka csak a jelölés.
+     */
+    public void request() {
+        long now = System.nanoTime();
+        if (!dirty) {
+            dirty = true;
+            firstRequest = now;
+        }
+        if (now - firstRequest >= maxDelayNanos) {
+            flush();
+        } else {
+            debounce.playFromStart();
+        }
+    }
+
+    /**
+     * Azonnal lefuttatja a függő frissítést, ha van ilyen.
+     */
+    public void flush() {
+        debounce.stop();
+        if (dirty) {
+            dirty = false;
+            action.run();
+        }
+    }
+
+    /**
+     * Eldobja a függő frissítést, például mert a nézet tartalmát más már lecserélte.
+     */
+    public void cancel() {
+        debounce.stop();
+        dirty = false;
+    }
+
+    /**
+     * @return Igaz, ha van ki nem szolgált kérés.
+     */
+    public boolean isPending() {
+        return dirty;
+    }
+}
@@ -0,0 +1,438 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * XSD séma szerinti ellenőrzés a folyamatos beolvasással párhuzamosan.
+ * A beolvasó által olvasott bájtok egy korlátos sorba is bekerülnek, amelyet egy külön szálon futó
+ * `Validator` dolgoz fel; így a fájl csak egyszer kerül beolvasásra, és az ellenőrzés a beolvasással átfedve fut.
+ * A validátor a bájtokat `StreamSource`-ként kapja, mert a saját SAX elemzője gyorsabb, mint a `StAXSource`
+ * átalakítása SAX eseményekké, és a két szál közül az ellenőrző a lassabb. A lefordított sémák fájlonként (az utolsó módosítás idejével) gyorsítótárban maradnak.
+ * Az ellenőrzés nem áll meg az első hibánál: minden hiba sor- és oszlopszámmal együtt gyűlik.
+ */
+public final class SchemaValidation {
+
+    /**
+     * A megőrzött hibák legnagyobb száma; a többi csak megszámolásra kerül.
+     */
+    public static final int MAX_PROBLEMS = 10_000;
+
+    /**
+     * A beolvasó és az ellenőrző között várakozó darabok legnagyobb száma.
+     */
+    private static final int QUEUE_CAPACITY = 32;
+
+    /**
+     * A folyam végét, illetve a beolvasás megszakadását jelző darabok.
+     */
+    private static final byte[] END = new byte[0];
+    private static final byte[] ABORT = new byte[0];
+
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "xml-validate-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SchemaValidation() {
+    }
+
+    /**
+     * Egy séma szerinti hiba, a helyével együtt.
+     */
+    public static final class Problem {
+        private final String severity;
+        private final int line;
+        private final int column;
+        private final String message;
+
+        Problem(String severity, SAXParseException exception) {
+            this.severity = severity;
+            this.line = exception.getLineNumber();
+            this.column = exception.getColumnNumber();
+            this.message = exception.getMessage();
+        }
+
+        /**
+         * @return A hiba súlyossága: `warning`, `error` vagy `fatal`.
+         */
+        public String getSeverity() {
+            return severity;
+        }
+
+        /**
+         * @return A hiba sora, vagy -1, ha ismeretlen.
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return A hiba oszlopa, vagy -1, ha ismeretlen.
+         */
+        public int getColumn() {
+            return column;
+        }
+
+        /**
+         * @return A hibaüzenet.
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return line + ":" + column + " " + severity + ": " + message;
+        }
+    }
+
+    /**
+     * Az ellenőrzés eredménye.
+     */
+    public static final class Report {
+        private final List<Problem> problems;
+        private final int total;
+
+        Report(List<Problem> problems, int total) {
+            this.problems = Collections.unmodifiableList(problems);
+            this.total = total;
+        }
+
+        /**
+         * @return A megőrzött hibák, legfeljebb {@link #MAX_PROBLEMS} darab, a dokumentumbeli sorrendben.
+         */
+        public List<Problem> getProblems() {
+            return problems;
+        }
+
+        /**
+         * @return Az összes hiba száma, a figyelmeztetésekkel együtt.
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * @return Igaz, ha a dokumentum megfelel a sémának.
+         */
+        public boolean isValid() {
+            return total == 0;
+        }
+
+        /**
+         * @param limit A felsorolt hibák legnagyobb száma.
+         * @return A hibák soronkénti felsorolása, a többi hiba számával.
+         */
+        public String summary(int limit) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < Math.min(limit, problems.size()); i++) {
+                text.append(problems.get(i)).append('\n');
+            }
+            if (total > limit) {
+                text.append("... ").append(total - limit).append(" more\n");
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Visszaadja a séma lefordított alakját; a fájl változásáig a gyorsítótárból.
+     * @param xsd A séma fájl.
+     * @return A lefordított, szálbiztos séma.
+     * @throws IOException Ha a fájl nem olvasható.
+     * @throws SAXException Ha a séma hibás.
+     */
+    public static Schema schema(@NotNull Path xsd) throws IOException, SAXException {
+        Path absolute = xsd.toAbsolutePath().normalize();
+        String key = absolute + "@" + Files.getLastModifiedTime(absolute).toMillis();
+        Schema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            // A séma a saját mappájából hivatkozhat további sémákra
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file");
+            schema = factory.newSchema(absolute.toFile());
+            // A fájl régebbi változatainak sémái feleslegessé váltak
+            SCHEMAS.keySet().removeIf(cached -> cached.startsWith(absolute + "@"));
+            SCHEMAS.put(key, schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Törli a lefordított sémák gyorsítótárát.
+     */
+    public static void clearCache() {
+        SCHEMAS.clear();
+    }
+
+    /**
+     * Elindítja az ellenőrzést egy háttérszálon; a tartalmat a visszaadott folyamon át olvasva kapja meg.
+     * @param schema A séma.
+     * @param in Az ellenőrizendő tartalom folyama.
+     * @return A tartalmat változatlanul továbbadó folyam; a végén {@link Session#finish()} adja az eredményt.
+     */
+    public static Session validate(@NotNull Schema schema, @NotNull InputStream in) {
+        return new Session(schema, in);
+    }
+
+    /**
+     * A beolvasott bájtokat az ellenőrzőnek is továbbadó folyam.
+     * Ha a folyam a vége előtt záródik le (hiba vagy megszakítás), az ellenőrzés is megszakad.
+     */
+    public static final class Session extends FilterInputStream {
+
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final List<Problem> problems = new ArrayList<>();
+        private final Future<?> validation;
+        private volatile boolean consumerDone;
+        private int total;
+        private boolean ended;
+
+        private Session(Schema schema, InputStream in) {
+            super(in);
+            Validator validator = schema.newValidator();
+            try {
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+            } catch (SAXException e) {
+                throw new IllegalStateException(e);
+            }
+            validator.setErrorHandler(new ErrorHandler() {
+                @Override
+                public void warning(SAXParseException exception) {
+                    record("warning", exception);
+                }
+
+                @Override
+                public void error(SAXParseException exception) {
+                    record("error", exception);
+                }
+
+                @Override
+                public void fatalError(SAXParseException exception) throws SAXException {
+                    record("fatal", exception);
+                    throw exception;
+                }
+            });
+            validation = EXECUTOR.submit(() -> {
+                try {
+                    validator.validate(new StreamSource(new QueueInputStream()));
+                } catch (SAXParseException e) {
+                    // A hibakezelő már rögzítette
+                } catch (SAXException | IOException e) {
+                    synchronized (problems) {
+                        total++;
+                        if (problems.size() < MAX_PROBLEMS) {
+                            problems.add(new Problem("fatal", new SAXParseException(e.getMessage(), null)));
+                        }
+                    }
+                } finally {
+                    consumerDone = true;
+                    queue.clear();
+                }
+                return null;
+            });
+        }
+
+        private void record(String severity, SAXParseException exception) {
+            synchronized (problems) {
+                if (isRepeated(exception)) {
+                    // A JDK validátora egyes hibákat (például a hiányzó kötelező attribútumot) kétszer jelez
+                    return;
+                }
+                total++;
+                if (problems.size() < MAX_PROBLEMS) {
+                    problems.add(new Problem(severity, exception));
+                }
+            }
+        }
+
+        private boolean isRepeated(SAXParseException exception) {
+            if (problems.isEmpty()) {
+                return false;
+            }
+            Problem last = problems.get(problems.size() - 1);
+            return last.line == exception.getLineNumber() && last.column == exception.getColumnNumber()
+                    && String.valueOf(last.message).equals(exception.getMessage());
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                end(END);
+            } else {
+                send(new byte[]{(byte) b});
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n < 0) {
+                end(END);
+            } else if (n > 0) {
+                send(Arrays.copyOfRange(buffer, offset, offset + n));
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Az átugrott bájtokat is látnia kell az ellenőrzőnek
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Átadja a darabot az ellenőrzőnek; ha az már befejezte (végzetes hiba után), eldobja.
+         */
+        private void send(byte[] chunk) throws IOException {
+            try {
+                while (!consumerDone && !queue.offer(chunk, 50, TimeUnit.MILLISECONDS)) {
+                    // Az ellenőrző lassabb: a beolvasó megvárja, így a sor mérete korlátos marad
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while validating", e);
+            }
+        }
+
+        private void end(byte[] marker) throws IOException {
+            if (!ended) {
+                ended = true;
+                send(marker);
+            }
+        }
+
+        /**
+         * Beolvassa a folyam maradékát (amit a beolvasó már nem kért), és megvárja az ellenőrzés végét.
+         * @return Az ellenőrzés eredménye.
+         * @throws IOException Ha a maradék nem olvasható, vagy a várakozás megszakad.
+         */
+        public Report finish() throws IOException {
+            if (!ended) {
+                byte[] buffer = new byte[8192];
+                while (read(buffer, 0, buffer.length) >= 0) {
+                    // a maradék az ellenőrzőhöz kerül
+                }
+            }
+            try {
+                validation.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while validating", e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            synchronized (problems) {
+                return new Report(new ArrayList<>(problems), total);
+            }
+        }
+
+        /**
+         * Lezárja a folyamot; ha a tartalom vége még nem érkezett meg, az ellenőrzés megszakad.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!ended) {
+                    ended = true;
+                    consumerDone = true;
+                    validation.cancel(true);
+                    queue.clear();
+                    queue.offer(ABORT);
+                }
+            } finally {
+                super.close();
+            }
+        }
+
+        /**
+         * Az ellenőrző szál oldala: a sorból érkező darabokat olvassa.
+         */
+        private final class QueueInputStream extends InputStream {
+            private byte[] chunk = new byte[0];
+            private int position;
+
+            private boolean fill() throws IOException {
+                while (position >= chunk.length) {
+                    if (chunk == END) {
+                        return false;
+                    }
+                    try {
+                        chunk = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Validation cancelled", e);
+                    }
+                    if (chunk == ABORT) {
+                        throw new IOException("Validation cancelled");
+                    }
+                    position = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return fill() ? chunk[position++] & 0xFF : -1;
+            }
+
+            @Override
+            public int read(@NotNull byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                int count = Math.min(length, chunk.length - position);
+                System.arraycopy(chunk, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        }
+    }
+}
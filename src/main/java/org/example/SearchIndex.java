@@ -0,0 +1,293 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fordított index a dokumentum elemeinek kereséséhez: az elemnevekhez, valamint az attribútum név-érték
+ * párokhoz tartozó csomópontokat tárolja. A kulcsok rendezett fákban vannak, így a pontos és az előtag
+ * szerinti keresés is csak a találatok számával arányos munka, a dokumentum méretétől független.
+ * Az index a beolvasáskor épül fel, és a szerkesztésekkel együtt, lépésenként frissül.
+ * Sok csomópontot érintő szerkesztéskor a {@link #beginBatch()} és {@link #endBatch()} közötti eltávolítások
+ * kulcsonként összegyűlnek, és a végén egyetlen menetben hajtódnak végre.
+ *
+ * A keresőkifejezések:
+ * <ul>
+ *     <li>`név` – a pontosan ilyen nevű elemek,</li>
+ *     <li>`név*` – az ilyen előtagú nevű elemek,</li>
+ *     <li>`@attribútum` – az attribútummal rendelkező elemek,</li>
+ *     <li>`@attribútum=érték` és `@attribútum=érték*` – a pontos, illetve az előtag szerinti attribútumérték.</li>
+ * </ul>
+ */
+public class SearchIndex {
+
+    /**
+     * Az előtag szerinti keresés jele a kifejezés végén.
+     */
+    public static final char WILDCARD = '*';
+
+    /**
+     * Az elemnevek indexe; a bejegyzések formáját lásd: {@link Postings}.
+     */
+    private final NavigableMap<String, Object> names = new TreeMap<>();
+
+    /**
+     * Az attribútumok indexe: attribútumnév, azon belül érték szerint.
+     */
+    private final Map<String, NavigableMap<String, Object>> attributes = new TreeMap<>();
+
+    /**
+     * Az indexelt csomópontok száma.
+     */
+    private int size;
+
+    /**
+     * A kötegben összegyűjtött, még végre nem hajtott eltávolítások indexenként és kulcsonként; null, ha nincs nyitott köteg.
+     */
+    private Map<Map<String, Object>, Map<String, Set<XmlNode>>> pending;
+
+    /**
+     * A keresés eredménye: a találatok egy legfeljebb megadott hosszú része és a teljes találatszám.
+     */
+    public static final class Hits {
+        private final List<XmlNode> nodes;
+        private final int total;
+
+        Hits(List<XmlNode> nodes, int total) {
+            this.nodes = nodes;
+            this.total = total;
+        }
+
+        /**
+         * @return A visszaadott találatok.
+         */
+        public List<XmlNode> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return Az összes találat száma; nagyobb is lehet a visszaadott találatok számánál.
+         */
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Felépíti a dokumentum indexét.
+     * @param rootNode A dokumentum gyökér csomópontja.
+     * @return Az elkészült index.
+     */
+    public static SearchIndex build(@NotNull XmlNode rootNode) {
+        SearchIndex index = new SearchIndex();
+        index.add(rootNode);
+        return index;
+    }
+
+    /**
+     * @return Az indexelt csomópontok száma.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hozzáadja a csomópontot és a teljes részfáját az indexhez.
+     * @param node A részfa gyökere.
+     */
+    public void add(@NotNull XmlNode node) {
+        // Bejárás saját veremmel, hogy mély dokumentumoknál se teljen meg a hívási verem
+        Deque<XmlNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            XmlNode current = stack.pop();
+            addNode(current);
+            for (int i = current.getChildCount() - 1; i >= 0; i--) {
+                stack.push(current.getChild(i));
+            }
+        }
+    }
+
+    /**
+     * Köteget nyit: a lezárásig az eltávolítások csak összegyűlnek.
+     * A köteg alatt az index nem kereshető.
+     */
+    public void beginBatch() {
+        if (pending == null) {
+            pending = new IdentityHashMap<>();
+        }
+    }
+
+    /**
+     * Lezárja a köteget, és kulcsonként egyetlen menetben végrehajtja az összegyűjtött eltávolításokat.
+     */
+    public void endBatch() {
+        if (pending == null) {
+            return;
+        }
+        Map<Map<String, Object>, Map<String, Set<XmlNode>>> removals = pending;
+        pending = null;
+        for (Map.Entry<Map<String, Object>, Map<String, Set<XmlNode>>> entry : removals.entrySet()) {
+            for (Map.Entry<String, Set<XmlNode>> key : entry.getValue().entrySet()) {
+                if (!key.getValue().isEmpty()) {
+                    Postings.remove(entry.getKey(), key.getKey(), key.getValue());
+                }
+            }
+        }
+        attributes.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Eltávolítja a csomópontot és a teljes részfáját az indexből.
+     * Kulcsonként egyetlen menetben távolítja el az érintett csomópontokat.
+     * @param node A részfa gyökere.
+     */
+    public void remove(@NotNull XmlNode node) {
+        boolean own = pending == null;
+        beginBatch();
+        Deque<XmlNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            XmlNode current = stack.pop();
+            removeNode(current, current.getName(), current.getAttributes());
+            for (int i = 0; i < current.getChildCount(); i++) {
+                stack.push(current.getChild(i));
+            }
+        }
+        if (own) {
+            endBatch();
+        }
+    }
+
+    /**
+     * Frissíti egy csomópont bejegyzéseit a név vagy az attribútumok módosítása után; a gyerekeit nem érinti.
+     * @param node A módosított csomópont, már az új értékekkel.
+     * @param oldName A módosítás előtti név.
+     * @param oldAttributes A módosítás előtti attribútumok név-érték párjai.
+     */
+    public void update(@NotNull XmlNode node, @NotNull String oldName, @NotNull String[] oldAttributes) {
+        boolean own = pending == null;
+        beginBatch();
+        // A változatlan kulcsoknál az újra hozzáadás kioltja az eltávolítást, így azok listáit nem kell bejárni
+        removeNode(node, oldName, oldAttributes);
+        addNode(node);
+        if (own) {
+            endBatch();
+        }
+    }
+
+    /**
+     * Keresés a megadott kifejezés szerint.
+     * @param query A keresőkifejezés (lásd az osztály leírását).
+     * @param limit A visszaadott találatok legnagyobb száma.
+     * @return A találatok, valamint az összes találat száma.
+     */
+    public Hits search(@NotNull String query, int limit) {
+        query = query.trim();
+        if (query.isEmpty()) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+        if (query.charAt(0) != '@') {
+            return collect(range(names, query), limit);
+        }
+        int separator = query.indexOf('=');
+        String attributeName = separator < 0 ? query.substring(1) : query.substring(1, separator);
+        NavigableMap<String, Object> values = attributes.get(attributeName);
+        if (values == null) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+        if (separator < 0) {
+            return collect(values.values(), limit);
+        }
+        return collect(range(values, query.substring(separator + 1)), limit);
+    }
+
+    /**
+     * @param map A kulcsok szerint rendezett index.
+     * @param term A keresett kulcs; `*` végződés esetén előtag.
+     * @return A kulcsnak, illetve az előtaggal kezdődő kulcsoknak megfelelő bejegyzések.
+     */
+    private static Collection<Object> range(NavigableMap<String, Object> map, String term) {
+        if (term.isEmpty() || term.charAt(term.length() - 1) != WILDCARD) {
+            Object postings = map.get(term);
+            return postings == null ? Collections.emptyList() : Collections.singletonList(postings);
+        }
+        String prefix = term.substring(0, term.length() - 1);
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    /**
+     * Összegyűjti a bejegyzések csomópontjait, legfeljebb a megadott számig, de mindet megszámolja.
+     */
+    private static Hits collect(Collection<Object> postings, int limit) {
+        List<XmlNode> nodes = new ArrayList<>(Math.min(limit, 64));
+        int total = 0;
+        for (Object posting : postings) {
+            List<XmlNode> list = Postings.nodes(posting);
+            total += list.size();
+            for (int i = 0; i < list.size() && nodes.size() < limit; i++) {
+                nodes.add(list.get(i));
+            }
+        }
+        return new Hits(nodes, total);
+    }
+
+    /**
+     * Hozzáadja egyetlen csomópont nevét és attribútumait az indexhez.
+     */
+    private void addNode(XmlNode node) {
+        if (!node.isElement()) {
+            return;
+        }
+        addPosting(names, node.getName(), node);
+        for (int i = 0; i < node.getAttributeCount(); i++) {
+            addPosting(attributes.computeIfAbsent(node.getAttributeName(i), key -> new TreeMap<>()),
+                    node.getAttributeValue(i), node);
+        }
+        size++;
+    }
+
+    /**
+     * Kötegbe veszi egyetlen csomópont bejegyzéseinek eltávolítását a megadott (akár korábbi) név és attribútumok alapján.
+     */
+    private void removeNode(XmlNode node, String name, String[] nodeAttributes) {
+        if (!node.isElement()) {
+            return;
+        }
+        removePosting(names, name, node);
+        for (int i = 0; i < nodeAttributes.length; i += 2) {
+            NavigableMap<String, Object> values = attributes.get(nodeAttributes[i]);
+            if (values != null) {
+                removePosting(values, nodeAttributes[i + 1], node);
+            }
+        }
+        size--;
+    }
+
+    private void addPosting(Map<String, Object> map, String key, XmlNode node) {
+        if (pending != null) {
+            // Ha a köteg ugyanezt a bejegyzést már eltávolítaná, elég az eltávolítást visszavonni
+            Map<String, Set<XmlNode>> removals = pending.get(map);
+            Set<XmlNode> removed = removals == null ? null : removals.get(key);
+            if (removed != null && removed.remove(node)) {
+                return;
+            }
+        }
+        Postings.add(map, key, node);
+    }
+
+    private void removePosting(Map<String, Object> map, String key, XmlNode node) {
+        pending.computeIfAbsent(map, k -> new TreeMap<>()).computeIfAbsent(key, k -> Postings.identitySet()).add(node);
+    }
+}
@@ -0,0 +1,450 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A beolvasott dokumentumok bináris pillanatképeinek gyorsítótára, hogy ugyanannak a nagy fájlnak
+ * az újbóli megnyitásakor ne kelljen újra elemezni az XML-t.
+ * A pillanatkép egy helyi mappában van, a forrásfájl abszolút útvonala szerint; a fejléce tartalmazza
+ * a forrás méretét, módosítási idejét és tartalmának CRC32C ellenőrzőösszegét, így a forrás bármilyen
+ * változása után a pillanatkép érvénytelen, és a következő beolvasás felülírja. A fejlécben van az is,
+ * hány szöveget normalizált a beolvasás, hogy a kiírás előtti figyelmeztetés a gyorsítótárból is megjelenjen.
+ *
+ * A formátum oszlopos: egy szövegtábla (minden különböző név, érték és szöveg egyszer), a csomópontok
+ * preorder sorrendben soronként négy egésszel (név, gyerekszám, attribútumszám, szöveg), az attribútumok
+ * szövegtábla-indexei, végül a legfelső szintű elemek bájtpozíciói.
+ * Betöltéskor a fájl memóriába leképezve, tömbönként olvasódik.
+ */
+public final class SnapshotCache {
+
+    /**
+     * A gyorsítótárat ki- és bekapcsoló rendszertulajdonság neve; `-Dxmlconverter.snapshotCache=false` esetén
+     * minden megnyitás elemez.
+     */
+    public static final String ENABLED_PROPERTY = "xmlconverter.snapshotCache";
+
+    /**
+     * A gyorsítótár mappáját megadó rendszertulajdonság neve; alapértelmezetten `~/.xml-converter/snapshots`.
+     */
+    public static final String DIRECTORY_PROPERTY = "xmlconverter.snapshotDir";
+
+    /**
+     * A pillanatképek együttes legnagyobb mérete; ezen felül a legrégebben használtak törlődnek.
+     */
+    private static final long MAX_CACHE_BYTES = 2L * 1024 * 1024 * 1024;
+
+    private static final long MAGIC = 0x58434F4E56534E50L;
+    private static final int FORMAT_VERSION = 5;
+    private static final String EXTENSION = ".snap";
+
+    /**
+     * Az ellenőrzőösszeg számításakor egyszerre leképezett fájlrész mérete.
+     */
+    private static final long CHECKSUM_WINDOW = 64L * 1024 * 1024;
+
+    /**
+     * A null (hiányzó) szöveg indexe a szövegtáblában.
+     */
+    private static final int NO_STRING = -1;
+
+    /**
+     * Egy visszaállított dokumentum: a csomópontok, a beolvasáskor készült elemindex és a szövegek normalizálása.
+     */
+    public static final class Snapshot {
+        private final XmlNode rootNode;
+        private final ElementOffsetIndex elementIndex;
+        private final XmlStreamImporter.TextNormalization normalization;
+
+        Snapshot(XmlNode rootNode, ElementOffsetIndex elementIndex, XmlStreamImporter.TextNormalization normalization) {
+            this.rootNode = rootNode;
+            this.elementIndex = elementIndex;
+            this.normalization = normalization;
+        }
+
+        /**
+         * @return A dokumentum gyökér csomópontja.
+         */
+        public XmlNode getRootNode() {
+            return rootNode;
+        }
+
+        /**
+         * @return A gyökérelem gyerekeinek bájtpozíciói a forrásfájlban.
+         */
+        public ElementOffsetIndex getElementIndex() {
+            return elementIndex;
+        }
+
+        /**
+         * @return A beolvasáskor normalizált szövegek száma.
+         */
+        public XmlStreamImporter.TextNormalization getTextNormalization() {
+            return normalization;
+        }
+    }
+
+    private SnapshotCache() {
+    }
+
+    /**
+     * @return Igaz, ha a gyorsítótár be van kapcsolva.
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * @return A gyorsítótár mappája.
+     */
+    public static Path directory() {
+        String configured = System.getProperty(DIRECTORY_PROPERTY);
+        return configured != null ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.home"), ".xml-converter", "snapshots");
+    }
+
+    /**
+     * Betölti a forrásfájl pillanatképét, ha van érvényes.
+     * A sérült vagy elavult pillanatkép törlődik.
+     * @param source A forrásfájl.
+     * @return A visszaállított dokumentum, vagy null, ha nincs érvényes pillanatkép.
+     */
+    public static Snapshot load(@NotNull Path source) {
+        Path snapshot = snapshotFile(source);
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.SNAPSHOT_LOAD);
+             FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return discard(snapshot);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Path absolute = source.toAbsolutePath();
+            BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+            if (buffer.getLong() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || !absolute.toString().equals(readString(buffer, new byte[256]))
+                    || buffer.getLong() != attributes.size()
+                    || buffer.getLong() != attributes.lastModifiedTime().toMillis()) {
+                return discard(snapshot);
+            }
+            // A méret és az idő egyezése után a tartalom is: a módosítási időt megőrző másolás ne tévessze meg
+            if (buffer.getLong() != checksum(absolute)) {
+                return discard(snapshot);
+            }
+            XmlStreamImporter.TextNormalization normalization =
+                    new XmlStreamImporter.TextNormalization(buffer.getLong());
+            Snapshot result = read(buffer, absolute, normalization);
+            // A legutóbbi használat ideje a törlési sorrendhez
+            Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+            timer.items(XmlSerializer.countNodes(result.getRootNode())).bytes(channel.size());
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // Sérült vagy olvashatatlan pillanatkép: a hívó a null eredmény miatt újra beolvassa a forrást
+            return discard(snapshot);
+        }
+    }
+
+    /**
+     * Elmenti a beolvasott dokumentum pillanatképét. Hiba esetén csak kimarad a gyorsítótárból.
+     * A pillanatkép ideiglenes fájlba készül, és atomi átnevezéssel kerül a helyére.
+     * @param source A forrásfájl.
+     * @param rootNode A beolvasott dokumentum gyökér csomópontja.
+     * @param elementIndex A beolvasáskor készült elemindex.
+     * @param normalization A beolvasáskor normalizált szövegek száma.
+     * @return Igaz, ha a pillanatkép elkészült.
+     */
+    public static boolean store(@NotNull Path source, @NotNull XmlNode rootNode, @NotNull ElementOffsetIndex elementIndex,
+                                @NotNull XmlStreamImporter.TextNormalization normalization) {
+        Path temp = null;
+        try {
+            Path absolute = source.toAbsolutePath();
+            BasicFileAttributes before = Files.readAttributes(absolute, BasicFileAttributes.class);
+            long checksum = checksum(absolute);
+            Path directory = directory();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "snapshot", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp, StandardOpenOption.TRUNCATE_EXISTING), 64 * 1024))) {
+                out.writeLong(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, absolute.toString());
+                out.writeLong(before.size());
+                out.writeLong(before.lastModifiedTime().toMillis());
+                out.writeLong(checksum);
+                out.writeLong(normalization.getTrimmed());
+                write(out, rootNode, elementIndex);
+            }
+            // Ha a forrás közben megváltozott, a pillanatkép már nem felelne meg neki
+            BasicFileAttributes after = Files.readAttributes(absolute, BasicFileAttributes.class);
+            if (after.size() != before.size() || !after.lastModifiedTime().equals(before.lastModifiedTime())
+                    || Files.size(temp) > Integer.MAX_VALUE) {
+                return false;
+            }
+            Path target = snapshotFile(absolute);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            prune(directory, target);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            // A gyorsítótár nem kötelező: a hamis eredmény jelzi, hogy a következő megnyitás újra elemez
+            return false;
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // Az ideiglenes fájl a mappában marad; a következő takarítás sem törli, de hibát sem okoz
+                }
+            }
+        }
+    }
+
+    /**
+     * Kiszámítja a fájl tartalmának CRC32C ellenőrzőösszegét, memóriába leképezett ablakokon át.
+     * @param file A fájl.
+     * @return Az ellenőrzőösszeg.
+     * @throws IOException Ha a fájl nem olvasható.
+     */
+    static long checksum(@NotNull Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CHECKSUM_WINDOW) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHECKSUM_WINDOW, size - position)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @return A forrásfájl pillanatképének helye a gyorsítótár mappájában.
+     */
+    private static Path snapshotFile(Path source) {
+        String path = source.toAbsolutePath().toString();
+        // 64 bites FNV-1a az útvonalra; ütközésnél a fejlécben tárolt útvonal nem egyezik, és a pillanatkép csak felülíródik
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < path.length(); i++) {
+            hash ^= path.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return directory().resolve(Long.toHexString(hash) + EXTENSION);
+    }
+
+    private static void write(DataOutputStream out, XmlNode rootNode, ElementOffsetIndex elementIndex)
+            throws IOException {
+        // 1. menet: a szövegtábla
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int nodes = 0;
+        int attributeIds = 0;
+        for (XmlNode node : preorder(rootNode)) {
+            intern(node.getName(), ids, strings);
+            for (int i = 0; i < node.getAttributeCount(); i++) {
+                intern(node.getAttributeName(i), ids, strings);
+                intern(node.getAttributeValue(i), ids, strings);
+            }
+            if (node.getText() != null) {
+                intern(node.getText(), ids, strings);
+            }
+            nodes++;
+            attributeIds += 2 * node.getAttributeCount();
+        }
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+        // 2. menet: a csomópontok sorai
+        out.writeInt(nodes);
+        for (XmlNode node : preorder(rootNode)) {
+            out.writeInt(ids.get(node.getName()));
+            out.writeInt(node.getChildCount());
+            out.writeInt(node.getAttributeCount());
+            out.writeInt(node.getText() == null ? NO_STRING : ids.get(node.getText()));
+        }
+        // 3. menet: az attribútumok
+        out.writeInt(attributeIds);
+        for (XmlNode node : preorder(rootNode)) {
+            for (int i = 0; i < node.getAttributeCount(); i++) {
+                out.writeInt(ids.get(node.getAttributeName(i)));
+                out.writeInt(ids.get(node.getAttributeValue(i)));
+            }
+        }
+        // Az elemindex
+        out.writeInt(elementIndex.size());
+        for (int i = 0; i < elementIndex.size(); i++) {
+            out.writeLong(elementIndex.start(i));
+        }
+        for (int i = 0; i < elementIndex.size(); i++) {
+            out.writeLong(elementIndex.end(i));
+        }
+    }
+
+    private static Snapshot read(ByteBuffer buffer, Path source, XmlStreamImporter.TextNormalization normalization) {
+        byte[] scratch = new byte[4096];
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer, scratch);
+        }
+        int nodes = buffer.getInt();
+        int[] rows = new int[4 * nodes];
+        buffer.asIntBuffer().get(rows);
+        buffer.position(buffer.position() + 4 * rows.length);
+        int[] attributeIds = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(attributeIds);
+        buffer.position(buffer.position() + 4 * attributeIds.length);
+
+        XmlNode rootNode = null;
+        // A még gyereket váró csomópontok és a hátralévő gyerekeik száma
+        Deque<XmlNode> parents = new ArrayDeque<>();
+        Deque<int[]> remaining = new ArrayDeque<>();
+        int attribute = 0;
+        for (int n = 0; n < nodes; n++) {
+            int row = 4 * n;
+            String[] attributes = new String[2 * rows[row + 2]];
+            for (int i = 0; i < attributes.length; i += 2) {
+                attributes[i] = XmlNode.intern(strings[attributeIds[attribute++]]);
+                attributes[i + 1] = strings[attributeIds[attribute++]];
+            }
+            int text = rows[row + 3];
+            XmlNode node = new XmlNode(strings[rows[row]], attributes, text == NO_STRING ? null : strings[text]);
+            if (parents.isEmpty()) {
+                if (rootNode != null) {
+                    throw new IllegalStateException("Corrupt snapshot: more than one root");
+                }
+                rootNode = node;
+            } else {
+                parents.peek().addChild(node);
+                if (--remaining.peek()[0] == 0) {
+                    parents.pop().trimToSize();
+                    remaining.pop();
+                }
+            }
+            if (rows[row + 1] > 0) {
+                parents.push(node);
+                remaining.push(new int[]{rows[row + 1]});
+            }
+        }
+        if (rootNode == null || !parents.isEmpty()) {
+            throw new IllegalStateException("Corrupt snapshot: incomplete tree");
+        }
+
+        int elements = buffer.getInt();
+        long[] starts = new long[elements];
+        long[] ends = new long[elements];
+        LongBuffer longs = buffer.asLongBuffer();
+        longs.get(starts);
+        longs.get(ends);
+        return new Snapshot(rootNode, new ElementOffsetIndex(source, starts, ends, elements), normalization);
+    }
+
+    /**
+     * @return A részfa csomópontjai preorder sorrendben, saját veremmel bejárva.
+     */
+    private static Iterable<XmlNode> preorder(XmlNode root) {
+        return () -> new Iterator<XmlNode>() {
+            private final Deque<XmlNode> stack = new ArrayDeque<>(List.of(root));
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public XmlNode next() {
+                XmlNode node = stack.pop();
+                for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                    stack.push(node.getChild(i));
+                }
+                return node;
+            }
+        };
+    }
+
+    private static void intern(String string, Map<String, Integer> ids, List<String> strings) {
+        if (ids.putIfAbsent(string, strings.size()) == null) {
+            strings.add(string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Beolvas egy hosszal kezdődő UTF-8 szöveget; a megadott puffert használja, ha elég nagy.
+     */
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Törli az elavult vagy sérült pillanatképet.
+     * @return Mindig null, a hívó kényelmére.
+     */
+    private static Snapshot discard(Path snapshot) {
+        try {
+            Files.deleteIfExists(snapshot);
+        } catch (IOException e) {
+            // Törölni nem sikerült; a következő mentés felülírja
+        }
+        return null;
+    }
+
+    /**
+     * Törli a legrégebben használt pillanatképeket, amíg az együttes méretük a korlát fölött van.
+     * A most mentett pillanatkép mindig megmarad.
+     */
+    private static void prune(Path directory, Path keep) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            entries.forEach(snapshots::add);
+        }
+        snapshots.sort(Comparator.comparingLong((Path path) -> path.toFile().lastModified()).reversed());
+        long total = 0;
+        for (Path snapshot : snapshots) {
+            total += Files.size(snapshot);
+            if (total > MAX_CACHE_BYTES && !snapshot.equals(keep)) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+}
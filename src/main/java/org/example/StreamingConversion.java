@@ -0,0 +1,228 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Az {@link OutputConverter} konvertálók meghajtója. Az események jöhetnek egy XML fájlból, StAX-szal olvasva,
+ * a dokumentum csomópontjainak felépítése nélkül (így a memóriahasználat a fájl méretétől független),
+ * vagy a memóriában lévő, szerkesztett dokumentum bejárásából.
+ * Az elemek szövege mindkét esetben ugyanaz, mint amit az {@link XmlStreamImporter} a csomópontba tenne.
+ */
+public final class StreamingConversion {
+
+    /**
+     * Ennyi elemenként értesíti a folyamatfigyelőt.
+     */
+    private static final int REPORT_INTERVAL = 4096;
+
+    private StreamingConversion() {
+    }
+
+    /**
+     * Konvertálja az XML fájlt. Ha a konvertálónak előzetes menet kell, a fájl kétszer olvasódik.
+     * @param input A bemeneti XML fájl.
+     * @param out A kimenet célja.
+     * @param converter A konvertáló.
+     * @param monitor A folyamatot figyelő objektum; az elemek száma menetenként újraindul.
+     * @return A konvertált elemek száma.
+     * @throws IOException Ha hiba történik az olvasás vagy az írás során.
+     * @throws XMLStreamException Ha a bemenet nem jól formált XML.
+     * @throws CancellationException Ha a figyelő a konvertálás megszakítását kérte.
+     */
+    public static long convert(@NotNull Path input, @NotNull Appendable out, @NotNull OutputConverter converter,
+                               @NotNull ProgressMonitor monitor) throws IOException, XMLStreamException {
+        OutputConverter prepass = converter.prepass();
+        if (prepass != null) {
+            try (InputStream in = new BufferedInputStream(XmlStreamImporter.openFile(input), XmlStreamImporter.BUFFER_SIZE)) {
+                convert(in, Writer.nullWriter(), prepass, monitor);
+            }
+        }
+        try (InputStream in = new BufferedInputStream(XmlStreamImporter.openFile(input), XmlStreamImporter.BUFFER_SIZE)) {
+            return convert(in, out, converter, monitor);
+        }
+    }
+
+    /**
+     * Konvertálja a folyamból olvasott XML-t; az előzetes menetet (lásd {@link OutputConverter#prepass()})
+     * a hívónak kell lefuttatnia. A folyam lezárása a hívó feladata.
+     * @param in Az XML tartalmat szolgáltató folyam.
+     * @param out A kimenet célja.
+     * @param converter A konvertáló.
+     * @param monitor A folyamatot figyelő objektum.
+     * @return A konvertált elemek száma.
+     * @throws IOException Ha hiba történik az írás során.
+     * @throws XMLStreamException Ha a bemenet nem jól formált XML.
+     * @throws CancellationException Ha a figyelő a konvertálás megszakítását kérte.
+     */
+    public static long convert(@NotNull InputStream in, @NotNull Appendable out, @NotNull OutputConverter converter,
+                               @NotNull ProgressMonitor monitor) throws IOException, XMLStreamException {
+        CountingInputStream counter = new CountingInputStream(in);
+        XMLStreamReader reader = XmlParsers.inputFactory().createXMLStreamReader(counter);
+        long elements = 0;
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.CONVERT)) {
+            // A nyitott elemek eddig összegyűjtött szövege mélységenként; a gyűjtők újra felhasználódnak
+            List<StringBuilder> texts = new ArrayList<>();
+            // A legutóbbi címke óta érkezett szöveg; több eseményben is érkezhet
+            StringBuilder pending = new StringBuilder();
+            int depth = 0;
+
+            converter.start(out);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth > 0) {
+                        applyText(texts.get(depth - 1), pending);
+                    }
+                    pending.setLength(0);
+                    converter.startElement(XmlStreamImporter.elementName(reader), XmlStreamImporter.attributes(reader));
+                    if (depth == texts.size()) {
+                        texts.add(new StringBuilder());
+                    }
+                    depth++;
+                    if (++elements % REPORT_INTERVAL == 0) {
+                        checkCancelled(monitor);
+                        monitor.progress(elements);
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (depth > 0) {
+                        pending.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                } else if (event == XMLStreamConstants.COMMENT || event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                    // A beolvasóhoz hasonlóan a megjegyzés is szövegrészeket választ el; maga nem kerül a kimenetbe
+                    if (depth > 0) {
+                        applyText(texts.get(depth - 1), pending);
+                    }
+                    pending.setLength(0);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    StringBuilder text = texts.get(--depth);
+                    applyText(text, pending);
+                    pending.setLength(0);
+                    converter.endElement(text.length() == 0 ? null : text.toString());
+                    text.setLength(0);
+                }
+            }
+            converter.end();
+            monitor.progress(elements);
+            timer.items(elements).bytes(counter.getCount());
+            return elements;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Konvertálja a memóriában lévő dokumentumot; az előzetes menet is a csomópontok bejárásával fut.
+     * @param rootNode A dokumentum gyökér csomópontja; csak az elemek kerülnek a kimenetbe.
+     * @param out A kimenet célja.
+     * @param converter A konvertáló.
+     * @param monitor A folyamatot figyelő objektum.
+     * @return A konvertált elemek száma.
+     * @throws IOException Ha hiba történik az írás során.
+     * @throws CancellationException Ha a figyelő a konvertálás megszakítását kérte.
+     */
+    public static long convert(@NotNull XmlNode rootNode, @NotNull Appendable out, @NotNull OutputConverter converter,
+                               @NotNull ProgressMonitor monitor) throws IOException {
+        OutputConverter prepass = converter.prepass();
+        if (prepass != null) {
+            prepass.start(Writer.nullWriter());
+            walk(rootNode, prepass, new long[1], ProgressMonitor.NONE);
+            prepass.end();
+        }
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.CONVERT)) {
+            long[] elements = new long[1];
+            converter.start(out);
+            walk(rootNode, converter, elements, monitor);
+            converter.end();
+            monitor.progress(elements[0]);
+            timer.items(elements[0]);
+            return elements[0];
+        }
+    }
+
+    private static void walk(XmlNode node, OutputConverter converter, long[] elements, ProgressMonitor monitor)
+            throws IOException {
+        // A megjegyzések, a feldolgozási utasítások és a dokumentumtípus nem kerülnek a kimenetbe,
+        // a szövegrészek pedig a szülőjük szövegében szerepelnek
+        if (!node.isElement() && !node.isDeclaration()) {
+            return;
+        }
+        if (!node.isDeclaration()) {
+            converter.startElement(node.getName(), node.getAttributes());
+            if (++elements[0] % REPORT_INTERVAL == 0) {
+                checkCancelled(monitor);
+                monitor.progress(elements[0]);
+            }
+        }
+        for (XmlNode child : node.getChildren()) {
+            walk(child, converter, elements, monitor);
+        }
+        if (!node.isDeclaration()) {
+            converter.endElement(joinedText(node));
+        }
+    }
+
+    /**
+     * Összefűzi az elem szövegét és a gyerekek utáni szövegrészeit a folyamból olvasott eseményekkel egyező módon,
+     * szóközzel elválasztva.
+     * @param node Az elem.
+     * @return Az elem teljes szövege, vagy null, ha nincs.
+     */
+    private static String joinedText(XmlNode node) {
+        String text = node.getText();
+        StringBuilder joined = null;
+        for (XmlNode child : node.getChildren()) {
+            if (child.isText() && child.getText() != null) {
+                if (joined == null) {
+                    joined = new StringBuilder(text == null ? "" : text);
+                }
+                if (joined.length() > 0) {
+                    joined.append(' ');
+                }
+                joined.append(child.getText());
+            }
+        }
+        return joined == null ? text : joined.toString();
+    }
+
+    private static void checkCancelled(ProgressMonitor monitor) {
+        if (monitor.isCancelled()) {
+            throw new CancellationException("Conversion cancelled");
+        }
+    }
+
+    /**
+     * A legutóbbi címke óta érkezett szöveget az elem szövegéhez fűzi a beolvasóval egyező módon:
+     * a csak szóközökből álló szöveg kimarad, a többi a széleitől megtisztítva, szóközzel elválasztva kerül hozzá.
+     * @param text Az elem eddigi szövege.
+     * @param pending A legutóbbi címke óta érkezett szöveg.
+     */
+    private static void applyText(StringBuilder text, StringBuilder pending) {
+        int start = 0;
+        int end = pending.length();
+        while (start < end && Character.isWhitespace(pending.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(pending.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        if (text.length() > 0) {
+            text.append(' ');
+        }
+        text.append(pending, start, end);
+    }
+}
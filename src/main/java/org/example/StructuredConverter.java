@@ -0,0 +1,358 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A JSON és a YAML kimenet közös leképezése: objektumok, tömbök és szöveges értékek.
+ * A dokumentum egy objektum, amelynek egyetlen kulcsa a gyökérelem neve. Egy elem értéke:
+ * <ul>
+ *     <li>a szövege (vagy null), ha nincs se attribútuma, se gyereke;</li>
+ *     <li>különben egy objektum: az attribútumok előtaggal ellátott kulcsokkal, a gyerekek a nevükkel,
+ *     végül a szöveg a szövegkulccsal.</li>
+ * </ul>
+ * A tömbként leképezett nevű (lásd {@link ConversionOptions#isArray}) szomszédos testvérek egy tömböt alkotnak.
+ * A kiírás folyamatos: egy elem objektuma az első gyereke érkezésekor nyílik meg, így csak a nyitott elemek
+ * láncát kell megtartani.
+ *
+ * Egy kulcs egy objektumban csak egyszer szerepelhet. A testvérek sorrendje nem változik, így a memóriában lévő
+ * dokumentum bejárása és a folyamból olvasott események ugyanazt a kimenetet adják. Ütközik a közrefogott
+ * (nem szomszédos) azonos nevű testvér, a nem tömbként leképezett név ismétlődése, a gyerekként is előforduló
+ * szövegkulcs és (üres előtagnál) az attribútummal egyező gyereknév is. Ezeket egy előzetes menet keresi meg,
+ * és az ilyen elem gyerekei a {@link ConversionOptions#getChildrenKey()} kulcs alá kerülnek, dokumentumsorrendben,
+ * egykulcsos objektumokként (például `{"#children": [{"item": "1"}, {"grp": "2"}, {"item": "3"}]}`).
+ * Az előzetes menet elemenként a különböző gyereknevek halmazát tartja meg a nyitott elemek láncán,
+ * és az ütköző elemek sorszámát; a memóriahasználata így sem függ a dokumentum méretétől.
+ */
+abstract class StructuredConverter implements OutputConverter {
+
+    /**
+     * A JSON és a YAML behúzása; a YAML-ben szóköz kell.
+     */
+    private static final Indentation INDENTATION = Indentation.spaces(2);
+
+    /**
+     * Egy nyitott elem állapota.
+     */
+    private static final class Frame {
+        String[] attributes;
+        /**
+         * Igaz, ha az elem objektuma már ki van írva (volt gyereke).
+         */
+        boolean opened;
+        /**
+         * A nyitott tömb elemneve (a sorrendben felsorolt gyerekeknél a kulcsa), vagy null.
+         */
+        String array;
+        /**
+         * Igaz, ha a gyerekek nevei ütköznének, így sorrendben, egykulcsos objektumokként íródnak ki.
+         */
+        boolean ordered;
+    }
+
+    protected final ConversionOptions options;
+    protected Appendable out;
+
+    /**
+     * A nyitott elemek; a keretek újra felhasználódnak, így a kiírás közben nem foglalódik új.
+     */
+    private final List<Frame> frames = new ArrayList<>();
+    private int depth;
+
+    /**
+     * Az ütköző gyereknevű elemek sorszáma (a dokumentumsorrendben, 0-tól) növekvő sorrendben, az előzetes menetből.
+     */
+    private long[] collisions = new long[0];
+    private int nextCollision;
+    /**
+     * Az eddig megkezdett elemek száma; a következő elem sorszáma.
+     */
+    private long elements;
+
+    /**
+     * Konstruktor, amely beállítja a kimenet beállításait.
+     * @param options A kimenet beállításai.
+     */
+    protected StructuredConverter(@NotNull ConversionOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public OutputConverter prepass() {
+        return new KeyScanner();
+    }
+
+    @Override
+    public void start(@NotNull Appendable out) throws IOException {
+        this.out = out;
+        beginObject();
+    }
+
+    @Override
+    public void startElement(@NotNull String name, @NotNull String[] attributes) throws IOException {
+        if (depth > 0 && frames.get(depth - 1).ordered) {
+            Frame parent = frames.get(depth - 1);
+            open(parent);
+            if (parent.array == null) {
+                key(options.getChildrenKey());
+                beginArray();
+                parent.array = options.getChildrenKey();
+            }
+            beginObject();
+            key(name);
+        } else if (depth > 0) {
+            Frame parent = frames.get(depth - 1);
+            open(parent);
+            if (parent.array != null && !parent.array.equals(name)) {
+                endArray();
+                parent.array = null;
+            }
+            if (parent.array == null) {
+                key(name);
+                if (options.isArray(name)) {
+                    beginArray();
+                    parent.array = name;
+                }
+            }
+        } else {
+            // A gyökérelem egyszer szerepel, sosem tömb
+            key(name);
+        }
+        if (depth == frames.size()) {
+            frames.add(new Frame());
+        }
+        Frame frame = frames.get(depth++);
+        frame.attributes = attributes;
+        frame.opened = false;
+        frame.array = null;
+        frame.ordered = nextCollision < collisions.length && collisions[nextCollision] == elements;
+        if (frame.ordered) {
+            nextCollision++;
+        }
+        elements++;
+    }
+
+    @Override
+    public void endElement(String text) throws IOException {
+        Frame frame = frames.get(--depth);
+        if (!frame.opened && frame.attributes.length == 0) {
+            if (text == null) {
+                nullValue();
+            } else {
+                value(text);
+            }
+        } else {
+            open(frame);
+            if (frame.array != null) {
+                endArray();
+            }
+            if (text != null) {
+                key(options.getTextKey());
+                value(text);
+            }
+            endObject();
+        }
+        frame.attributes = null;
+        // A sorrendben felsorolt gyerek egykulcsos objektuma
+        if (depth > 0 && frames.get(depth - 1).ordered) {
+            endObject();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        endObject();
+        out.append('\n');
+    }
+
+    /**
+     * Kiírja az elem objektumának elejét és az attribútumait, ha még nincs kiírva.
+     */
+    private void open(Frame frame) throws IOException {
+        if (frame.opened) {
+            return;
+        }
+        frame.opened = true;
+        beginObject();
+        String[] attributes = frame.attributes;
+        for (int i = 0; i < attributes.length; i += 2) {
+            key(options.getAttributePrefix().isEmpty() ? attributes[i] : options.getAttributePrefix() + attributes[i]);
+            value(attributes[i + 1]);
+        }
+    }
+
+    /**
+     * Egy objektum kezdete, a következő érték helyén.
+     */
+    protected abstract void beginObject() throws IOException;
+
+    /**
+     * Az utoljára megkezdett objektum vége.
+     */
+    protected abstract void endObject() throws IOException;
+
+    /**
+     * Egy tömb kezdete, a következő érték helyén.
+     */
+    protected abstract void beginArray() throws IOException;
+
+    /**
+     * Az utoljára megkezdett tömb vége.
+     */
+    protected abstract void endArray() throws IOException;
+
+    /**
+     * A nyitott objektum következő kulcsa; utána egy érték, objektum vagy tömb következik.
+     */
+    protected abstract void key(@NotNull String key) throws IOException;
+
+    /**
+     * Egy szöveges érték.
+     */
+    protected abstract void value(@NotNull String value) throws IOException;
+
+    /**
+     * A hiányzó érték.
+     */
+    protected abstract void nullValue() throws IOException;
+
+    /**
+     * Az előzetes menet: megkeresi azokat az elemeket, amelyekben egy kulcs többször szerepelne, és a menet végén
+     * átadja a sorszámukat a konvertálónak.
+     */
+    private final class KeyScanner implements OutputConverter {
+
+        /**
+         * A nyitott elemek kulcsai; a keretek újra felhasználódnak.
+         */
+        private final List<Keys> open = new ArrayList<>();
+        private int depth;
+        private long elements;
+        private long[] found = new long[16];
+        private int count;
+
+        @Override
+        public void start(@NotNull Appendable out) {
+        }
+
+        @Override
+        public void startElement(@NotNull String name, @NotNull String[] attributes) {
+            if (depth > 0) {
+                Keys parent = open.get(depth - 1);
+                // Az azonos nevű szomszéd a nyitott tömböt folytatja, különben új kulcs
+                if (parent.array == null || !parent.array.equals(name)) {
+                    parent.array = options.isArray(name) ? name : null;
+                    if (!parent.names.add(name)) {
+                        collision(parent);
+                    }
+                }
+            }
+            if (depth == open.size()) {
+                open.add(new Keys());
+            }
+            Keys keys = open.get(depth++);
+            keys.names.clear();
+            keys.array = null;
+            keys.ordinal = elements++;
+            keys.collides = false;
+            // Üres előtagnál az attribútum és a gyerek kulcsa is ütközhet
+            for (int i = 0; i < attributes.length; i += 2) {
+                keys.names.add(options.getAttributePrefix() + attributes[i]);
+            }
+        }
+
+        @Override
+        public void endElement(String text) {
+            Keys keys = open.get(--depth);
+            if (text != null && keys.names.contains(options.getTextKey())) {
+                collision(keys);
+            }
+            keys.names.clear();
+        }
+
+        @Override
+        public void end() {
+            long[] result = Arrays.copyOf(found, count);
+            Arrays.sort(result);
+            collisions = result;
+        }
+
+        private void collision(Keys keys) {
+            if (keys.collides) {
+                return;
+            }
+            keys.collides = true;
+            if (count == found.length) {
+                found = Arrays.copyOf(found, 2 * count);
+            }
+            found[count++] = keys.ordinal;
+        }
+    }
+
+    /**
+     * Egy nyitott elem gyerekeinek kulcsai az előzetes menetben.
+     */
+    private static final class Keys {
+        final Set<String> names = new HashSet<>();
+        String array;
+        long ordinal;
+        boolean collides;
+    }
+
+    /**
+     * Kiírja a szöveget JSON szövegliterálként, idézőjelekkel és a szükséges kódolással.
+     * A kódolást nem igénylő szakaszok egyben íródnak ki.
+     * @param out A kimenet célja.
+     * @param value A szöveg.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    static void writeQuoted(@NotNull Appendable out, @NotNull String value) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029) {
+                continue;
+            }
+            Indentation.write(out, value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        Indentation.write(out, value, start, value.length());
+        out.append('"');
+    }
+
+    /**
+     * Kiír egy sortörést és a megadott szintű behúzást.
+     * @param out A kimenet célja.
+     * @param level A behúzás szintje; szintenként két szóköz.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    static void newLine(@NotNull Appendable out, int level) throws IOException {
+        INDENTATION.newLine(out, level);
+    }
+}
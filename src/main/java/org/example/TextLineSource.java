@@ -0,0 +1,90 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memóriában lévő szövegen alapuló sorforrás, a szerializált XML előnézetéhez.
+ */
+public class TextLineSource extends PagedLineSource {
+
+    private final String text;
+    private final int[] pageStarts;
+    private final int lineCount;
+
+    /**
+     * Konstruktor, amely felépíti a szöveg lapindexét.
+     * @param text A megjelenítendő szöveg.
+     */
+    public TextLineSource(@NotNull String text) {
+        this.text = text;
+        int[] starts = new int[16];
+        int pages = 0;
+        int lines = 0;
+        int pos = 0;
+        while (pos < text.length()) {
+            if (lines % PAGE_LINES == 0) {
+                if (pages == starts.length) {
+                    starts = Arrays.copyOf(starts, pages * 2);
+                }
+                starts[pages++] = pos;
+            }
+            pos = lineEnd(text, pos, text.length());
+            lines++;
+        }
+        this.pageStarts = Arrays.copyOf(starts, pages);
+        this.lineCount = lines;
+    }
+
+    @Override
+    public int lineCount() {
+        return lineCount;
+    }
+
+    @Override
+    protected String[] readPage(int page) {
+        int end = page + 1 < pageStarts.length ? pageStarts[page + 1] : text.length();
+        List<String> lines = new ArrayList<>(PAGE_LINES);
+        int pos = pageStarts[page];
+        while (pos < end) {
+            int next = lineEnd(text, pos, end);
+            int contentEnd = next;
+            // A sortörés karakterek nem részei a megjelenített sornak
+            if (contentEnd > pos && text.charAt(contentEnd - 1) == '\n') {
+                contentEnd--;
+            }
+            if (contentEnd > pos && text.charAt(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            lines.add(text.substring(pos, contentEnd));
+            pos = next;
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /**
+     * Megkeresi a `start` pozíción kezdődő sor utáni első pozíciót.
+     * A sor a sortörésnél, vagy `MAX_LINE_LENGTH` karakter után ér véget; karakterpár közepén nem törünk.
+     * @param text A szöveg.
+     * @param start A sor kezdete.
+     * @param limit A keresés felső határa.
+     * @return A következő sor kezdőpozíciója.
+     */
+    private static int lineEnd(String text, int start, int limit) {
+        int pos = start;
+        while (pos < limit) {
+            char c = text.charAt(pos);
+            if (c == '\n') {
+                return pos + 1;
+            }
+            if (pos - start >= MAX_LINE_LENGTH && !Character.isLowSurrogate(c)) {
+                return pos;
+            }
+            pos++;
+        }
+        return pos;
+    }
+}
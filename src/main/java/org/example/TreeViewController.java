@@ -1,23 +1,113 @@
 package org.example;
 
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.Tooltip;
 import javafx.scene.control.TreeItem;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.NodeList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
 /**
  * A `TreeViewController` osztály felelős a fa nézet létrehozásáért az XML dokumentum megjelenítéséhez.
- * Az osztály létrehoz egy fa struktúrát az XML dokumentum elemeiből és attribútumaiból,
- * majd megjeleníti ezt a fa struktúrát a felhasználói felületen.
+ * Az osztály a beolvasott XML dokumentum csomópontjait jeleníti meg a felhasználói felületen.
+ * Alapértelmezetten lusta módban működik: a fa elemek csak a kinyitáskor jönnek létre.
+ * A szerkesztések (beszúrás, módosítás, törlés) az {@link EditHistory}-ba kerülnek, így visszavonhatók,
+ * és a {@link SearchIndex} és a {@link ReferenceValidator} is velük együtt frissül.
+ * A hibás hivatkozású elemek a fa nézetben jelölve, a hibaüzenetekkel mint tooltippel jelennek meg;
+ * egy másik dokumentummal való összehasonlításkor ugyanígy az eltérő elemek is (lásd {@link XmlDiff}).
+ * A visszavonás, az újra végrehajtás és a tömeges szerkesztés csak a modellt módosítja lépésenként;
+ * a fa nézet a végén, szülőnként egyetlen változással igazodik hozzá.
  */
-public class TreeViewController {
+public class TreeViewController implements EditHistory.Listener {
+
+    /**
+     * A lusta megjelenítési módot szabályozó rendszertulajdonság neve.
+     * `-Dxmlconverter.lazyTree=false` esetén a teljes fa azonnal létrejön.
+     */
+    public static final String LAZY_TREE_PROPERTY = "xmlconverter.lazyTree";
+
+    /**
+     * A fa nézetben megjelenített szöveges tartalom legnagyobb hossza.
+     */
+    private static final int DISPLAYED_TEXT_LENGTH = 60;
 
     /**
      * A `PrimaryController` osztály referenciája, amely tartalmazza az XML dokumentumot és a felhasználói felületet.
      */
     private final PrimaryController pc;
 
+    /**
+     * Igaz, ha a fa elemek csak a kinyitáskor jönnek létre.
+     */
+    private boolean lazy = Boolean.parseBoolean(System.getProperty(LAZY_TREE_PROPERTY, "true"));
+
+    /**
+     * A megjelenített dokumentum gyökér csomópontja.
+     */
+    private XmlNode rootNode;
+
+    /**
+     * A megnyitott dokumentum szerkesztéseinek előzménye.
+     */
+    private final EditHistory history = new EditHistory(this);
+
+    /**
+     * A megnyitott dokumentum keresőindexe.
+     */
+    private SearchIndex searchIndex = new SearchIndex();
+
+    /**
+     * A megnyitott dokumentum hivatkozásainak ellenőrzője.
+     */
+    private ReferenceValidator validator = new ReferenceValidator();
+
+    /**
+     * Azok a szülők, amelyek gyerekei a folyamatban lévő visszavonás, újra végrehajtás vagy tömeges szerkesztés
+     * alatt megváltoztak; a fa nézet a végén ezekhez igazodik.
+     */
+    private final Set<XmlNode> changedParents = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * A legutóbb érintett csomópont; a művelet végén ez lesz kijelölve.
+     */
+    private XmlNode lastTouched;
+
+    /**
+     * A hibás elemek jelölése a fa nézetben.
+     */
+    private static final String PROBLEM_MARKER = "\u26A0 ";
+    private static final String PROBLEM_STYLE = "-fx-text-fill: #b00020;";
+
+    /**
+     * Az összehasonlítás eredménye, vagy null, ha nincs folyamatban összehasonlítás.
+     */
+    private XmlDiff diff;
+
+    /**
+     * Az eltérések jelölése a fa nézetben.
+     */
+    private static final String REMOVED_MARKER = "\u2212 ";
+    private static final String CHANGED_MARKER = "\u00B1 ";
+    private static final String REMOVED_STYLE = "-fx-text-fill: #9e3a00; -fx-strikethrough: true;";
+    private static final String CHANGED_STYLE = "-fx-text-fill: #8a6d00;";
+    private static final String ADDED_STYLE = "-fx-text-fill: #1b5e20;";
+
+    /**
+     * Egy elem alatti új elemek közül a tooltipben felsoroltak száma.
+     */
+    private static final int SHOWN_ADDED = 10;
+
     /**
      * Konstruktor, amely inicializálja a `TreeViewController` osztályt egy `PrimaryController` példánnyal.
      * @param pc A `PrimaryController` példány, amely tartalmazza az XML dokumentumot és a felhasználói felületet.
@@ -27,15 +117,89 @@ public class TreeViewController {
     }
 
     /**
-     * Létrehoz egy fa struktúrát az XML dokumentum elemeiből és attribútumaiból,
-     * majd megjeleníti ezt a fa struktúrát a felhasználói felületen.
+     * Beállítja a fa nézet celláit: a cellák szövege közvetlenül a csomópont nevéből, attribútumaiból
+     * és szövegéből készül, csak a látható elemekre.
      */
-    protected void createTreeView() {
-        if (pc.xmldoc != null) {
-            // Gyökér fa elem létrehozása az XML deklarációval
-            TreeItem<String> rootItem = new TreeItem<>("?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?");
-            // Fa struktúra létrehozása az XML dokumentum gyökér eleméből
-            createTree(pc.xmldoc.getDocumentElement(), rootItem);
+    protected void initialize() {
+        pc.primaryTreeView.setCellFactory(view -> new TreeCell<XmlNode>() {
+            @Override
+            protected void updateItem(XmlNode node, boolean empty) {
+                super.updateItem(node, empty);
+                if (empty || node == null) {
+                    setText(null);
+                    setStyle(null);
+                    setTooltip(null);
+                    return;
+                }
+                String text = displayText(node);
+                String style = null;
+                List<String> tooltip = new ArrayList<>(validator.getProblems(node));
+                if (diff != null) {
+                    XmlDiff.Change change = diff.getChange(node);
+                    if (change != null && change.getKind() == XmlDiff.Kind.REMOVED) {
+                        text = REMOVED_MARKER + text;
+                        style = REMOVED_STYLE;
+                        tooltip.add("Csak ebben a dokumentumban");
+                    } else if (change != null) {
+                        text = CHANGED_MARKER + text;
+                        style = CHANGED_STYLE;
+                        tooltip.add("A másik dokumentumban: " + displayText(change.getOther()));
+                    }
+                    List<XmlNode> added = diff.getAdded(node);
+                    if (!added.isEmpty()) {
+                        text = text + " (+" + added.size() + ")";
+                        style = style == null ? ADDED_STYLE : style;
+                        tooltip.add(added.size() + " új elem a másik dokumentumban:");
+                        for (int i = 0; i < Math.min(added.size(), SHOWN_ADDED); i++) {
+                            tooltip.add("+ " + displayText(added.get(i)));
+                        }
+                    }
+                }
+                if (!validator.getProblems(node).isEmpty()) {
+                    text = PROBLEM_MARKER + text;
+                    style = PROBLEM_STYLE;
+                }
+                setText(text);
+                setStyle(style);
+                setTooltip(tooltip.isEmpty() ? null : new Tooltip(String.join("\n", tooltip)));
+            }
+        });
+    }
+
+    /**
+     * Előállítja a csomópont fa nézetben megjelenő szövegét.
+     * @param node A megjelenítendő csomópont.
+     * @return Az elem neve és attribútumai, valamint a szöveg rövidített eleje.
+     */
+    static String displayText(@NotNull XmlNode node) {
+        String display = node.toString();
+        String text = node.getText();
+        if (text == null) {
+            return display;
+        }
+        return display + " : " + (text.length() > DISPLAYED_TEXT_LENGTH ? text.substring(0, DISPLAYED_TEXT_LENGTH) + "..." : text);
+    }
+
+    /**
+     * Megjeleníti a beolvasás során felépített dokumentumot a felhasználói felületen.
+     * @param rootNode A dokumentum gyökér csomópontja, amely az XML deklarációt és a dokumentum elemeit tartalmazza.
+     * @param searchIndex A dokumentum beolvasáskor felépített keresőindexe.
+     * @param validator A dokumentum beolvasáskor lefuttatott hivatkozás-ellenőrzője.
+     */
+    protected void createTreeView(@NotNull XmlNode rootNode, @NotNull SearchIndex searchIndex,
+                                  @NotNull ReferenceValidator validator) {
+        this.rootNode = rootNode;
+        this.searchIndex = searchIndex;
+        this.validator = validator;
+        this.diff = null;
+        history.clear();
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.TREE_BUILD)) {
+            // Gyökér fa elem létrehozása; a gyerekek lusta módban csak kinyitáskor jönnek létre
+            LazyTreeItem rootItem = new LazyTreeItem(rootNode);
+            if (!lazy) {
+                rootItem.materializeAll();
+                timer.items(XmlSerializer.countNodes(rootNode));
+            }
             // Gyökér fa elem beállítása a fa nézet gyökerelemének
             pc.primaryTreeView.setRoot(rootItem);
             // Gyökér fa elem kinyitása
@@ -44,48 +208,406 @@ public class TreeViewController {
     }
 
     /**
-     * Rekurzív metódus, amely végigmegy az XML dokumentum elemein és attribútumain,
-     * és létrehoz egy fa struktúrát a megjelenítéshez.
-     * @param node Az aktuális XML csomópont.
-     * @param parentItem A szülő fa elem a fa struktúrában.
+     * @return A megjelenített dokumentum gyökér csomópontja, vagy null, ha nincs megnyitott dokumentum.
      */
-    protected void createTree(org.w3c.dom.Node node, TreeItem<String> parentItem) {
-        if (node instanceof Element) {
-            Element element = (Element) node;
-            // Az XML elem attribútumaival létrehozott fa elem létrehozása
-            TreeItem<String> currentItem = createItemWithAttributes(element);
-            // Az aktuális fa elem hozzáadása a szülő fa elemhez
-            parentItem.getChildren().add(currentItem);
+    public XmlNode getRootNode() {
+        return rootNode;
+    }
 
-            // Az XML elem gyerekeinek feldolgozása
-            NodeList nodeList = element.getChildNodes();
-            for (int i = 0; i < nodeList.getLength(); i++) {
-                org.w3c.dom.Node child = nodeList.item(i);
-                // Ha a gyerek csomópont XML elem, akkor rekurzívan hozzunk létre fa elemeket
-                if (child.getNodeType() == org.w3c.dom.Node.ELEMENT_NODE) {
-                    createTree(child, currentItem);
+    /**
+     * @return A megjelenített dokumentum keresőindexe.
+     */
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * @return A megjelenített dokumentum hivatkozás-ellenőrzője.
+     */
+    public ReferenceValidator getValidator() {
+        return validator;
+    }
+
+    /**
+     * @return Az összehasonlítás eredménye, vagy null, ha nincs folyamatban összehasonlítás.
+     */
+    public XmlDiff getDiff() {
+        return diff;
+    }
+
+    /**
+     * Beállítja az összehasonlítás eredményét, és ennek megfelelően jelöli az eltérő elemeket.
+     * @param diff Az összehasonlítás eredménye, vagy null az összehasonlítás befejezéséhez.
+     */
+    public void setDiff(XmlDiff diff) {
+        this.diff = diff;
+        pc.primaryTreeView.refresh();
+    }
+
+    /**
+     * @return Igaz, ha a fa elemek csak a kinyitáskor jönnek létre.
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Beállítja a megjelenítési módot; a következő megnyitott dokumentumra érvényes.
+     * @param lazy Igaz esetén a fa elemek csak a kinyitáskor jönnek létre.
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * Új elemet szúr be a megadott szülő fa elem gyerekei közé, a dokumentumban és a fa nézetben is.
+     * @param parentItem A szülő fa elem.
+     * @param index A beszúrás helye a gyerekek között.
+     * @param node Az új elem csomópontja.
+     * @return Az új elemhez tartozó fa elem.
+     */
+    public TreeItem<XmlNode> insertChild(@NotNull TreeItem<XmlNode> parentItem, int index, @NotNull XmlNode node) {
+        LazyTreeItem item = ((LazyTreeItem) parentItem).insertChild(index, node);
+        indexAdded(node);
+        history.recordInsert(parentItem.getValue(), index, node);
+        // Az új elem más elemek hivatkozásait is feloldhatja
+        pc.primaryTreeView.refresh();
+        return item;
+    }
+
+    /**
+     * Módosítja a fa elem csomópontjának nevét, attribútumait és szövegét, majd frissíti a fa nézetet.
+     * @param item A módosítandó fa elem.
+     * @param name Az új név.
+     * @param attributes Az új attribútumok név-érték párjai egymás után.
+     * @param text Az új szöveges tartalom, vagy null.
+     */
+    public void update(@NotNull TreeItem<XmlNode> item, @NotNull String name, @NotNull String[] attributes, String text) {
+        XmlNode node = item.getValue();
+        String oldName = node.getName();
+        String[] oldAttributes = node.getAttributes();
+        String oldText = node.getText();
+        node.update(name, attributes, text);
+        indexUpdated(node, oldName, oldAttributes);
+        history.recordUpdate(node, oldName, oldAttributes, oldText);
+        // A fa elem értéke ugyanaz a csomópont maradt, ezért a cellákat kézzel frissítjük
+        pc.primaryTreeView.refresh();
+    }
+
+    /**
+     * Eltávolítja a fa elemet a szülőjéből, a dokumentumban és a fa nézetben is.
+     * @param item Az eltávolítandó fa elem.
+     */
+    public void remove(@NotNull TreeItem<XmlNode> item) {
+        XmlNode node = item.getValue();
+        XmlNode parent = node.getParent();
+        int index = parent == null ? -1 : parent.indexOf(node);
+        ((LazyTreeItem) item).removeFromParent();
+        if (parent != null) {
+            indexRemoved(node);
+            history.recordRemove(parent, index, node);
+        }
+        pc.primaryTreeView.refresh();
+    }
+
+    /**
+     * Tömeges szerkesztés: a művelet végrehajtása a megadott csomópontokon egyetlen menetben,
+     * egyetlen visszavonható lépésként, a fa nézet egyszeri frissítésével.
+     * Törlésnél a már törölt elemek leszármazottai kimaradnak.
+     * @param nodes A módosítandó csomópontok dokumentumsorrendben (például egy {@link NodePath} találatai).
+     * @param edit A művelet.
+     * @return A ténylegesen módosított vagy törölt elemek száma.
+     */
+    public int apply(@NotNull List<XmlNode> nodes, @NotNull BulkEdit edit) {
+        return group(() -> {
+            int changed = 0;
+            Set<XmlNode> deleted = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (XmlNode node : nodes) {
+                if (edit.deletes()) {
+                    if (node.getParent() == null || hasAncestorIn(node, deleted)) {
+                        continue;
+                    }
+                    deleted.add(node);
+                    removeNode(node);
+                    changed++;
+                } else if (updateNode(node, edit.name(node), edit.attributes(node), edit.text(node))) {
+                    changed++;
+                }
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Átveszi az összehasonlított dokumentum új és módosult elemeit, egyetlen visszavonható lépésként.
+     * A csak a megnyitott dokumentumban létező elemek megmaradnak; azok szükség szerint külön törölhetők.
+     * Az összehasonlítás eredménye ezután elavult, ezért a jelölések is eltűnnek.
+     * @param diff Az összehasonlítás eredménye.
+     * @return Az átvett eltérések száma.
+     */
+    public int merge(@NotNull XmlDiff diff) {
+        List<XmlDiff.Change> changes = diff.getChanges();
+        int merged = group(() -> {
+            int count = 0;
+            // Fordított sorrendben az azonos horgony után beszúrt új elemek a jobb oldali sorrendjükbe kerülnek
+            for (int i = changes.size() - 1; i >= 0; i--) {
+                XmlDiff.Change change = changes.get(i);
+                if (change.getKind() == XmlDiff.Kind.ADDED && isAttached(change.getParent())) {
+                    XmlNode parent = change.getParent();
+                    int index = 0;
+                    if (change.getAnchor() != null) {
+                        // Ha a horgonyt időközben törölték, az új elem a végére kerül
+                        int anchor = parent.indexOf(change.getAnchor());
+                        index = anchor < 0 ? parent.getChildCount() : anchor + 1;
+                    }
+                    insertNode(parent, index, XmlDiff.copy(change.getNode()));
+                    count++;
+                } else if (change.getKind() == XmlDiff.Kind.CHANGED && isAttached(change.getNode())) {
+                    XmlNode other = change.getOther();
+                    if (updateNode(change.getNode(), other.getName(), other.getAttributes(), other.getText())) {
+                        count++;
+                    }
                 }
             }
+            return count;
+        });
+        setDiff(null);
+        return merged;
+    }
+
+    /**
+     * Egyetlen visszavonható lépésként futtatja a szerkesztéseket; az indexek kötegben, a fa nézet a végén egyszer frissül.
+     */
+    private int group(IntSupplier edits) {
+        lastTouched = null;
+        history.beginGroup();
+        searchIndex.beginBatch();
+        try {
+            return edits.getAsInt();
+        } finally {
+            searchIndex.endBatch();
+            history.endGroup();
+            syncView();
+        }
+    }
+
+    private void insertNode(XmlNode parent, int index, XmlNode child) {
+        parent.addChild(index, child);
+        inserted(parent, index, child);
+        history.recordInsert(parent, index, child);
+    }
+
+    private void removeNode(XmlNode node) {
+        XmlNode parent = node.getParent();
+        int index = parent.removeChild(node);
+        removed(parent, index, node);
+        history.recordRemove(parent, index, node);
+    }
+
+    /**
+     * @return Hamis, ha az új értékek megegyeznek a régiekkel, és így nem volt mit módosítani.
+     */
+    private boolean updateNode(XmlNode node, String name, String[] attributes, String text) {
+        String oldName = node.getName();
+        String[] oldAttributes = node.getAttributes();
+        String oldText = node.getText();
+        if (name.equals(oldName) && Arrays.equals(attributes, oldAttributes) && Objects.equals(text, oldText)) {
+            return false;
+        }
+        node.update(name, attributes, text);
+        updated(node, oldName, oldAttributes);
+        history.recordUpdate(node, oldName, oldAttributes, oldText);
+        return true;
+    }
+
+    /**
+     * @return Igaz, ha a csomópont (még) a megnyitott dokumentum része.
+     */
+    private boolean isAttached(XmlNode node) {
+        XmlNode current = node;
+        while (current != null && current != rootNode) {
+            current = current.getParent();
+        }
+        return current != null;
+    }
+
+    private static boolean hasAncestorIn(XmlNode node, Set<XmlNode> nodes) {
+        for (XmlNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            if (nodes.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visszavonja a legutóbbi szerkesztést.
+     * @return Hamis, ha nincs visszavonható szerkesztés.
+     */
+    public boolean undo() {
+        return replay(history::undo);
+    }
+
+    /**
+     * Újra végrehajtja a legutóbb visszavont szerkesztést.
+     * @return Hamis, ha nincs újra végrehajtható szerkesztés.
+     */
+    public boolean redo() {
+        return replay(history::redo);
+    }
+
+    /**
+     * Lefuttatja az előzmény egy lépését (amely akár egy egész tömeges szerkesztés is lehet), majd egyszer frissíti a nézetet.
+     */
+    private boolean replay(BooleanSupplier step) {
+        lastTouched = null;
+        searchIndex.beginBatch();
+        try {
+            return step.getAsBoolean();
+        } finally {
+            searchIndex.endBatch();
+            syncView();
+        }
+    }
+
+    /**
+     * @return Igaz, ha van visszavonható szerkesztés.
+     */
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    /**
+     * @return Igaz, ha van újra végrehajtható szerkesztés.
+     */
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    @Override
+    public void inserted(@NotNull XmlNode parent, int index, @NotNull XmlNode child) {
+        indexAdded(child);
+        changedParents.add(parent);
+        lastTouched = child;
+    }
+
+    @Override
+    public void removed(@NotNull XmlNode parent, int index, @NotNull XmlNode child) {
+        indexRemoved(child);
+        changedParents.add(parent);
+        lastTouched = parent;
+    }
+
+    @Override
+    public void updated(@NotNull XmlNode node, @NotNull String previousName, @NotNull String[] previousAttributes) {
+        indexUpdated(node, previousName, previousAttributes);
+        lastTouched = node;
+    }
+
+    /**
+     * A fa nézetet a megváltozott gyerekű szülőkhöz igazítja, felülről lefelé, hogy az ősök fa elemei
+     * már a modellt kövessék, mire a leszármazottaké sorra kerül; majd kijelöli a legutóbb érintett csomópontot.
+     */
+    private void syncView() {
+        List<XmlNode> parents = new ArrayList<>(changedParents);
+        changedParents.clear();
+        parents.sort(Comparator.comparingInt(TreeViewController::depth));
+        for (XmlNode parent : parents) {
+            LazyTreeItem item = findItem(parent);
+            if (item != null) {
+                item.syncChildren();
+            }
+        }
+        if (lastTouched != null) {
+            LazyTreeItem item = findItem(lastTouched);
+            if (item != null) {
+                pc.primaryTreeView.getSelectionModel().select(item);
+            }
+            lastTouched = null;
+        }
+        // A fa elemek értékei ugyanazok a csomópontok maradtak, ezért a cellákat kézzel frissítjük
+        pc.primaryTreeView.refresh();
+    }
+
+    private static int depth(XmlNode node) {
+        int depth = 0;
+        for (XmlNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private void indexAdded(XmlNode node) {
+        searchIndex.add(node);
+        validator.add(node);
+    }
+
+    private void indexRemoved(XmlNode node) {
+        searchIndex.remove(node);
+        validator.remove(node);
+    }
+
+    private void indexUpdated(XmlNode node, String oldName, String[] oldAttributes) {
+        searchIndex.update(node, oldName, oldAttributes);
+        validator.update(node, oldName, oldAttributes);
+    }
+
+    /**
+     * Megjeleníti a csomópontot a fa nézetben: kinyitja az őseit, kijelöli, és odagörget.
+     * @param node A megjelenítendő csomópont.
+     */
+    public void reveal(@NotNull XmlNode node) {
+        LazyTreeItem item = findItem(node, true);
+        if (item == null) {
+            return;
+        }
+        for (TreeItem<XmlNode> parent = item.getParent(); parent != null; parent = parent.getParent()) {
+            parent.setExpanded(true);
+        }
+        pc.primaryTreeView.getSelectionModel().select(item);
+        int row = pc.primaryTreeView.getRow(item);
+        if (row >= 0) {
+            pc.primaryTreeView.scrollTo(Math.max(0, row - 3));
         }
     }
 
     /**
-     * Létrehoz egy fa elemet az XML elem attribútumaival együtt.
-     * @param element Az XML elem, amelyből a fa elem létre lesz hozva.
-     * @return Az újonnan létrehozott fa elem az XML elem attribútumaival.
+     * Megkeresi a csomóponthoz tartozó fa elemet a gyökértől lefelé, a csomópont ősein át.
+     * Csak a már létrehozott fa elemeket járja be, új elemeket nem hoz létre.
+     * @param node A keresett csomópont.
+     * @return A csomópont fa eleme, vagy null, ha egy őse még nincs kibontva.
      */
-    @Contract("_ -> new")
-    private @NotNull TreeItem<String> createItemWithAttributes(@NotNull Element element) {
-        StringBuilder itemText = new StringBuilder(element.getNodeName());
-        NamedNodeMap attributes = element.getAttributes();
-        if (attributes != null) {
-            for (int i = 0; i < attributes.getLength(); i++) {
-                org.w3c.dom.Node attribute = attributes.item(i);
-                // Az attribútum nevének és értékének hozzáadása az elem szövegéhez
-                itemText.append(" ").append(attribute.getNodeName()).append("=").append("\"").append(attribute.getNodeValue()).append("\"");
+    private LazyTreeItem findItem(@NotNull XmlNode node) {
+        return findItem(node, false);
+    }
+
+    /**
+     * Megkeresi a csomóponthoz tartozó fa elemet a gyökértől lefelé, a csomópont ősein át.
+     * @param node A keresett csomópont.
+     * @param materialize Igaz esetén az út menti, még ki nem bontott elemek gyerekei létrejönnek.
+     * @return A csomópont fa eleme, vagy null, ha nem található (vagy egy őse nincs kibontva).
+     */
+    private LazyTreeItem findItem(@NotNull XmlNode node, boolean materialize) {
+        TreeItem<XmlNode> root = pc.primaryTreeView.getRoot();
+        if (!(root instanceof LazyTreeItem)) {
+            return null;
+        }
+        Deque<XmlNode> path = new ArrayDeque<>();
+        XmlNode current = node;
+        for (; current != null && current != rootNode; current = current.getParent()) {
+            path.push(current);
+        }
+        if (current == null) {
+            // A csomópont már nem része a dokumentumnak
+            return null;
+        }
+        LazyTreeItem item = (LazyTreeItem) root;
+        for (XmlNode step : path) {
+            if (!materialize && !item.isMaterialized()) {
+                return null;
             }
+            item = (LazyTreeItem) item.getChildren().get(item.getNode().indexOf(step));
         }
-        // Az elem nevével és attribútumaival létrehozott fa elem létrehozása és visszaadása
-        return new TreeItem<>(itemText.toString());
+        return item;
     }
 }
@@ -0,0 +1,413 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Két dokumentum szerkezeti összehasonlítása. Minden részfához Merkle-stílusú, 64 bites hash készül
+ * (a név, az attribútumok, a szöveg és a gyerekek hash-eiből), így az azonos részfák egyetlen összehasonlítással
+ * kimaradnak, és a munka csak az eltérő ágakon halad lefelé.
+ * A testvérek sorrendje és az attribútumok sorrendje nem számít eltérésnek, mert a konfigurációkban nincs jelentése.
+ *
+ * Egy összetartozó szülőpár gyerekei négy lépésben párosodnak: azonos részfa hash, azonos név és `name` attribútum,
+ * azonos saját tartalom (név, attribútumok, szöveg), végül azonos elemnév a sorrend szerint. A pár nélkül maradt
+ * bal oldali elemek törölt, a jobb oldaliak új elemek; a párosított, de eltérő tartalmú elemek módosultak.
+ */
+public final class XmlDiff {
+
+    /**
+     * Az eltérés fajtája, a bal oldali (megnyitott) dokumentumhoz képest.
+     */
+    public enum Kind {
+        /**
+         * Csak a jobb oldali dokumentumban létező elem.
+         */
+        ADDED,
+        /**
+         * Csak a bal oldali dokumentumban létező elem.
+         */
+        REMOVED,
+        /**
+         * Mindkét oldalon létező elem, eltérő névvel, attribútumokkal vagy szöveggel.
+         */
+        CHANGED
+    }
+
+    /**
+     * Egy eltérés.
+     */
+    public static final class Change {
+        private final Kind kind;
+        private final XmlNode node;
+        private final XmlNode other;
+        private final XmlNode parent;
+        private final XmlNode anchor;
+
+        /**
+         * A rendezési kulcs: a bal oldali preorder sorszám kétszerese; új elemnél az előtte álló csomópont
+         * sorszámának kétszerese plusz egy, hogy a helyén, de az ott álló elem eltérése után következzen.
+         */
+        private final int position;
+
+        Change(Kind kind, XmlNode node, XmlNode other, XmlNode parent, XmlNode anchor, int position) {
+            this.kind = kind;
+            this.node = node;
+            this.other = other;
+            this.parent = parent;
+            this.anchor = anchor;
+            this.position = position;
+        }
+
+        /**
+         * @return Az eltérés fajtája.
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return A bal oldali elem; új elemnél a jobb oldali elem.
+         */
+        public XmlNode getNode() {
+            return node;
+        }
+
+        /**
+         * @return Módosult elemnél a jobb oldali párja, egyébként null.
+         */
+        public XmlNode getOther() {
+            return other;
+        }
+
+        /**
+         * @return Új elemnél a bal oldali szülő, ahová az elem tartozna; egyébként null.
+         */
+        public XmlNode getParent() {
+            return parent;
+        }
+
+        /**
+         * @return Új elemnél az a bal oldali testvér, amely után az elem következne, vagy null, ha a szülő elejére kerülne.
+         */
+        public XmlNode getAnchor() {
+            return anchor;
+        }
+    }
+
+    /**
+     * Egy dokumentum részfáinak hash-ei és méretei, a csomópontok preorder sorszáma szerint.
+     * Egy csomópont első gyereke a sorszáma után következik, a következő testvér pedig a részfa mérete után,
+     * így a gyerekek sorszámai csomópontonkénti tábla nélkül is bejárhatók.
+     */
+    private static final class Hashes {
+        final long[] subtree;
+        final int[] size;
+
+        Hashes(XmlNode root, ProgressMonitor monitor) {
+            List<XmlNode> order = new ArrayList<>();
+            Deque<XmlNode> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                XmlNode node = stack.pop();
+                order.add(node);
+                for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                    stack.push(node.getChild(i));
+                }
+            }
+            int count = order.size();
+            subtree = new long[count];
+            size = new int[count];
+            // Fordított preorder sorrendben a gyerekek mindig a szülőjük előtt készülnek el
+            for (int i = count - 1; i >= 0; i--) {
+                XmlNode node = order.get(i);
+                long children = node.getChildCount();
+                int nodes = 1;
+                for (int c = 0, child = i + 1; c < node.getChildCount(); c++, child += size[child]) {
+                    // Összeadással a gyerekek sorrendje nem számít
+                    children += mix(subtree[child]);
+                    nodes += size[child];
+                }
+                subtree[i] = mix(ownHash(node) * 31 + children);
+                size[i] = nodes;
+                if ((i & 0xFFFF) == 0 && monitor.isCancelled()) {
+                    throw new CancellationException("Compare cancelled");
+                }
+            }
+        }
+    }
+
+    private final List<Change> changes;
+    private final Map<XmlNode, Change> byNode = new IdentityHashMap<>();
+    private final Map<XmlNode, List<XmlNode>> addedByParent = new IdentityHashMap<>();
+    private final int[] counts = new int[Kind.values().length];
+
+    private XmlDiff(List<Change> changes) {
+        this.changes = changes;
+        for (Change change : changes) {
+            counts[change.kind.ordinal()]++;
+            if (change.kind == Kind.ADDED) {
+                addedByParent.computeIfAbsent(change.parent, key -> new ArrayList<>()).add(change.node);
+            } else {
+                byNode.put(change.node, change);
+            }
+        }
+    }
+
+    /**
+     * Összehasonlítja a két dokumentumot.
+     * @param left A bal oldali (megnyitott) dokumentum gyökér csomópontja.
+     * @param right A jobb oldali (összehasonlított) dokumentum gyökér csomópontja.
+     * @param monitor Az előrehaladás figyelője; megszakítást kérhet.
+     * @return Az eltérések, a bal oldali dokumentum sorrendjében.
+     * @throws CancellationException Ha a figyelő megszakítást kért.
+     */
+    public static XmlDiff compare(@NotNull XmlNode left, @NotNull XmlNode right, @NotNull ProgressMonitor monitor) {
+        return compare(left, new Hashes(left, monitor), right, new Hashes(right, monitor), monitor);
+    }
+
+    private static XmlDiff compare(XmlNode leftRoot, Hashes left, XmlNode rightRoot, Hashes right, ProgressMonitor monitor) {
+        List<Change> changes = new ArrayList<>();
+        Deque<Object[]> pairs = new ArrayDeque<>();
+        pairs.push(new Object[]{leftRoot, 0, rightRoot, 0});
+        long compared = 0;
+        while (!pairs.isEmpty()) {
+            Object[] pair = pairs.pop();
+            XmlNode l = (XmlNode) pair[0];
+            int li = (Integer) pair[1];
+            XmlNode r = (XmlNode) pair[2];
+            int ri = (Integer) pair[3];
+            if (left.subtree[li] == right.subtree[ri]) {
+                continue;
+            }
+            if (!ownEquals(l, r)) {
+                changes.add(new Change(Kind.CHANGED, l, r, null, null, 2 * li));
+            }
+            matchChildren(l, li, left, r, ri, right, pairs, changes);
+            if ((++compared & 0x3FF) == 0) {
+                monitor.progress(compared);
+                if (monitor.isCancelled()) {
+                    throw new CancellationException("Compare cancelled");
+                }
+            }
+        }
+        // Stabil rendezés: az azonos pozíciójú új elemek a jobb oldali sorrendjükben maradnak
+        changes.sort(Comparator.comparingInt(change -> change.position));
+        return new XmlDiff(changes);
+    }
+
+    /**
+     * Párosítja egy szülőpár gyerekeit; a részfa hash szerint azonos párok kimaradnak,
+     * a többi pár a további összehasonlításra kerül, a pár nélküliek eltérésként.
+     */
+    private static void matchChildren(XmlNode l, int li, Hashes left, XmlNode r, int ri, Hashes right,
+                                      Deque<Object[]> pairs, List<Change> changes) {
+        int leftCount = l.getChildCount();
+        int rightCount = r.getChildCount();
+        int[] leftIndex = childIndexes(li, leftCount, left);
+        int[] rightIndex = childIndexes(ri, rightCount, right);
+        // A jobb oldali gyerekek bal oldali párja, vagy -1
+        int[] rightMatch = new int[rightCount];
+        Arrays.fill(rightMatch, -1);
+        boolean[] leftMatched = new boolean[leftCount];
+        List<int[]> matched = new ArrayList<>();
+
+        for (int pass = 0; pass < 4; pass++) {
+            Map<Object, Deque<Integer>> candidates = new HashMap<>();
+            for (int j = 0; j < rightCount; j++) {
+                if (rightMatch[j] < 0) {
+                    Object key = matchKey(pass, r.getChild(j), right.subtree[rightIndex[j]]);
+                    if (key != null) {
+                        candidates.computeIfAbsent(key, k -> new ArrayDeque<>()).add(j);
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < leftCount; i++) {
+                if (leftMatched[i]) {
+                    continue;
+                }
+                Object key = matchKey(pass, l.getChild(i), left.subtree[leftIndex[i]]);
+                Deque<Integer> queue = key == null ? null : candidates.get(key);
+                Integer j = queue == null ? null : queue.poll();
+                if (j != null) {
+                    leftMatched[i] = true;
+                    rightMatch[j] = i;
+                    // Az első lépés párjai azonos részfák, azokkal nincs további teendő
+                    if (pass > 0) {
+                        matched.add(new int[]{i, j});
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < leftCount; i++) {
+            if (!leftMatched[i]) {
+                changes.add(new Change(Kind.REMOVED, l.getChild(i), null, null, null, 2 * leftIndex[i]));
+            }
+        }
+        int anchor = -1;
+        for (int j = 0; j < rightCount; j++) {
+            if (rightMatch[j] >= 0) {
+                anchor = rightMatch[j];
+                continue;
+            }
+            XmlNode anchorNode = anchor < 0 ? null : l.getChild(anchor);
+            // Az új elem a horgony részfája (vagy a szülő) után következik a bal oldali sorrendben
+            int position = 2 * (anchor < 0 ? li : leftIndex[anchor] + left.size[leftIndex[anchor]] - 1) + 1;
+            changes.add(new Change(Kind.ADDED, r.getChild(j), null, l, anchorNode, position));
+        }
+        // Fordított sorrendben, hogy a veremből dokumentumsorrendben jöjjenek ki
+        for (int m = matched.size() - 1; m >= 0; m--) {
+            int[] pair = matched.get(m);
+            pairs.push(new Object[]{l.getChild(pair[0]), leftIndex[pair[0]], r.getChild(pair[1]), rightIndex[pair[1]]});
+        }
+    }
+
+    /**
+     * @return A párosítási lépés kulcsa a csomóponthoz, vagy null, ha az adott lépésben nem párosítható.
+     */
+    private static Object matchKey(int pass, XmlNode node, long subtree) {
+        switch (pass) {
+            case 0:
+                return subtree;
+            case 1:
+                String name = node.getAttribute("name");
+                return name == null ? null : node.getName() + '\u0000' + name;
+            case 2:
+                return ownHash(node);
+            default:
+                return node.getName();
+        }
+    }
+
+    private static int[] childIndexes(int index, int count, Hashes hashes) {
+        int[] indexes = new int[count];
+        for (int c = 0, child = index + 1; c < count; c++, child += hashes.size[child]) {
+            indexes[c] = child;
+        }
+        return indexes;
+    }
+
+    /**
+     * @return Az összes eltérés a bal oldali dokumentum sorrendjében; az új elemek a helyükön, a horgonyuk után.
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * @param kind Az eltérés fajtája.
+     * @return Az ilyen fajtájú eltérések száma.
+     */
+    public int count(@NotNull Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    /**
+     * @return Igaz, ha a két dokumentum szerkezetileg azonos.
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @param node A bal oldali dokumentum egy csomópontja.
+     * @return A csomópont törlése vagy módosítása, vagy null, ha a csomópont maga nem tér el.
+     */
+    public Change getChange(@NotNull XmlNode node) {
+        return byNode.get(node);
+    }
+
+    /**
+     * @param parent A bal oldali dokumentum egy csomópontja.
+     * @return A jobb oldalon a csomópont alá tartozó új elemek.
+     */
+    public List<XmlNode> getAdded(@NotNull XmlNode parent) {
+        List<XmlNode> added = addedByParent.get(parent);
+        return added == null ? Collections.emptyList() : Collections.unmodifiableList(added);
+    }
+
+    /**
+     * Készít a (jobb oldali) részfáról egy független másolatot, a beolvasáséhoz hasonlóan saját veremmel.
+     * @param node A másolandó részfa gyökere.
+     * @return A másolat.
+     */
+    public static XmlNode copy(@NotNull XmlNode node) {
+        XmlNode root = new XmlNode(node.getName(), node.getAttributes(), node.getText());
+        Deque<XmlNode[]> stack = new ArrayDeque<>();
+        stack.push(new XmlNode[]{node, root});
+        while (!stack.isEmpty()) {
+            XmlNode[] pair = stack.pop();
+            for (XmlNode child : pair[0].getChildren()) {
+                XmlNode copy = new XmlNode(child.getName(), child.getAttributes(), child.getText());
+                pair[1].addChild(copy);
+                stack.push(new XmlNode[]{child, copy});
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @return Igaz, ha a két elem neve, szövege és attribútumai (sorrendtől függetlenül) megegyeznek.
+     */
+    private static boolean ownEquals(XmlNode a, XmlNode b) {
+        if (!a.getName().equals(b.getName()) || !Objects.equals(a.getText(), b.getText())
+                || a.getAttributeCount() != b.getAttributeCount()) {
+            return false;
+        }
+        for (int i = 0; i < a.getAttributeCount(); i++) {
+            if (!a.getAttributeValue(i).equals(b.getAttribute(a.getAttributeName(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Az elem saját tartalmának (név, attribútumok sorrendtől függetlenül, szöveg) hash-e.
+     */
+    private static long ownHash(XmlNode node) {
+        long hash = hash(node.getName());
+        long attributes = 0;
+        for (int i = 0; i < node.getAttributeCount(); i++) {
+            attributes += mix(hash(node.getAttributeName(i)) * 31 + hash(node.getAttributeValue(i)));
+        }
+        String text = node.getText();
+        return mix(hash * 31 + attributes) * 31 + (text == null ? 0 : mix(hash(text)));
+    }
+
+    /**
+     * 64 bites FNV-1a hash; a `String.hashCode` 32 bitje egy nagy dokumentumban túl sok ütközést adna.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Bitkeverő lépés (a SplitMix64 véglegesítője), hogy az összeadott hash-ek is jól szóródjanak.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,354 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A dokumentumot közvetlenül a csomópontokból, a deklarációjában megadott (alapértelmezés szerint UTF-8)
+ * kódolással fájlba író osztály; a más formátumba konvertált kimenetek UTF-8 kódolásúak.
+ * A kiírás egy rögzített méretű pufferen át egy `FileChannel`-be megy, így a memóriahasználat
+ * a fájl méretétől független. A tartalom egy ideiglenes fájlba kerül, amely a lemezre írás után
+ * atomi átnevezéssel váltja le a célfájlt: hiba vagy megszakítás esetén a régi fájl érintetlen marad.
+ * Az új fájl az alapértelmezett (umask szerinti) jogosultságokat kapja, a felülírt fájl pedig megtartja a sajátjait.
+ * Ha a célfájl kiterjesztése egy tömörítési formátumé (például `.xml.gz`, lásd {@link Compression#forTarget}),
+ * a kódolt bájtok a kodek tömörítő folyamán át kerülnek a fájlba.
+ */
+public final class XmlFileExporter {
+
+    /**
+     * A kódolt bájtok pufferének mérete.
+     */
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * A kódolásra váró karakterek pufferének mérete.
+     */
+    private static final int CHAR_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * A célfájl tartalmát előállító művelet.
+     * @param <E> A művelet által dobott további ellenőrzött kivétel (például a bemenet olvasásából).
+     */
+    @FunctionalInterface
+    public interface Content<E extends Exception> {
+        /**
+         * @param out A kimenet, amelybe a tartalmat írni kell.
+         * @throws IOException Ha hiba történik az írás során.
+         * @throws E Ha a tartalom nem állítható elő.
+         */
+        void write(@NotNull Writer out) throws IOException, E;
+    }
+
+    private XmlFileExporter() {
+    }
+
+    /**
+     * Kiírja a dokumentumot a célfájlba.
+     * @param rootNode A kiírandó dokumentum gyökér csomópontja.
+     * @param target A célfájl; ha létezik, felülíródik.
+     * @param serializer A kimenet formáját és a folyamatfigyelőt meghatározó szerializáló.
+     * @throws IOException Ha hiba történik az írás vagy az átnevezés során.
+     */
+    public static void export(@NotNull XmlNode rootNode, @NotNull Path target, @NotNull XmlSerializer serializer)
+            throws IOException {
+        export(target, serializer.charset(rootNode), out -> serializer.write(rootNode, out));
+    }
+
+    /**
+     * Kiírja a művelet által előállított tartalmat a célfájlba, ugyanazzal a pufferrel és atomi cserével,
+     * mint a dokumentumot; így íródnak a más formátumba konvertált kimenetek is.
+     * @param target A célfájl; ha létezik, felülíródik.
+     * @param content A tartalmat előállító művelet.
+     * @param <E> A művelet által dobott további ellenőrzött kivétel.
+     * @throws IOException Ha hiba történik az írás vagy az átnevezés során.
+     * @throws E Ha a tartalom nem állítható elő; ekkor a célfájl érintetlen marad.
+     */
+    public static <E extends Exception> void export(@NotNull Path target, @NotNull Content<E> content)
+            throws IOException, E {
+        export(target, StandardCharsets.UTF_8, content);
+    }
+
+    /**
+     * Kiírja a művelet által előállított tartalmat a célfájlba a megadott kódolással.
+     * @param target A célfájl; ha létezik, felülíródik.
+     * @param charset A kimenet kódolása; a nem ábrázolható karakterek hibát okoznak.
+     * @param content A tartalmat előállító művelet.
+     * @param <E> A művelet által dobott további ellenőrzött kivétel.
+     * @throws IOException Ha hiba történik az írás vagy az átnevezés során.
+     * @throws E Ha a tartalom nem állítható elő; ekkor a célfájl érintetlen marad.
+     */
+    private static <E extends Exception> void export(Path target, Charset charset, Content<E> content)
+            throws IOException, E {
+        Path absolute = target.toAbsolutePath();
+        Path directory = absolute.getParent();
+        Files.createDirectories(directory);
+        // Az ideiglenes fájl ugyanabban a mappában van, így az átnevezés ugyanazon a fájlrendszeren marad
+        Path temp = createTempFile(directory, absolute.getFileName().toString());
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.EXPORT)) {
+            try (ChannelWriter writer = new ChannelWriter(FileChannel.open(temp,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), charset, Compression.forTarget(absolute))) {
+                content.write(writer);
+                writer.force();
+                timer.bytes(writer.channel.size());
+            }
+            try {
+                Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            // Sikeres áthelyezés után már nem létezik; hiba vagy megszakítás esetén itt törlődik
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Létrehozza az ideiglenes fájlt. A `Files.createTempFile` csak a tulajdonosnak ad jogot (0600),
+     * és az átnevezés ezt vinné át a célfájlra; itt az új fájl az alapértelmezett jogosultságokat kapja,
+     * létező célfájl esetén pedig annak jogosultságait, és ha lehet, a tulajdonosát és a csoportját.
+     * @param directory A célfájl mappája.
+     * @param prefix Az ideiglenes fájl nevének eleje.
+     * @return Az üres ideiglenes fájl.
+     * @throws IOException Ha a fájl nem hozható létre, vagy a jogosultságai nem állíthatók be.
+     */
+    private static Path createTempFile(Path directory, String prefix) throws IOException {
+        Path temp;
+        while (true) {
+            temp = directory.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                // A CREATE_NEW nem követ meglévő fájlt vagy hivatkozást, így a név nem téríthető el
+                Files.newByteChannel(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // Foglalt név, új próbálkozás
+            }
+        }
+        try {
+            copyPermissions(directory.resolve(prefix), temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Átmásolja a létező célfájl POSIX jogosultságait az ideiglenes fájlra; a tulajdonos és a csoport
+     * átvétele csak akkor sikerül, ha a folyamat jogosult rá, különben az ideiglenes fájlé marad.
+     * Nem POSIX fájlrendszeren, vagy ha a célfájl még nem létezik, nem csinál semmit.
+     */
+    private static void copyPermissions(Path target, Path temp) throws IOException {
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        PosixFileAttributeView tempView = Files.getFileAttributeView(temp, PosixFileAttributeView.class,
+                LinkOption.NOFOLLOW_LINKS);
+        if (targetView == null || tempView == null) {
+            return;
+        }
+        PosixFileAttributes attributes;
+        try {
+            attributes = targetView.readAttributes();
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        try {
+            tempView.setOwner(attributes.owner());
+        } catch (IOException e) {
+            // Más tulajdonosa csak a rendszergazda lehet
+        }
+        try {
+            tempView.setGroup(attributes.group());
+        } catch (IOException e) {
+            // Csak olyan csoport állítható be, amelynek a folyamat tagja
+        }
+        // A tulajdonos cseréje törli a setuid/setgid bitet, ezért a jogosultságok utoljára
+        tempView.setPermissions(attributes.permissions());
+    }
+
+    /**
+     * `FileChannel`-be a megadott kódolással író, pufferelt `Writer`; tömörítéskor a bájtok a kodeken át jutnak a csatornába.
+     * A páratlan helyettesítő karakterek (surrogate) és a nem ábrázolható karakterek hibát okoznak, nem cserélődnek le csendben.
+     */
+    private static final class ChannelWriter extends Writer {
+
+        private final FileChannel channel;
+        /**
+         * A kodek tömörítő folyama, vagy null, ha a kimenet nem tömörített.
+         */
+        private final OutputStream compressed;
+        private final CharsetEncoder encoder;
+        private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        private final ByteBuffer bytes;
+        private boolean closed;
+
+        ChannelWriter(FileChannel channel, Charset charset, CompressionCodec codec) throws IOException {
+            this.channel = channel;
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+            // A tömörítő folyam tömböt vár, a csatorna a közvetlen puffert másolás nélkül írja
+            this.bytes = codec == null ? ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE) : ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+            try {
+                this.compressed = codec == null ? null : codec.compress(new ChannelOutputStream(channel));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            chars.put((char) c);
+        }
+
+        @Override
+        public void write(@NotNull char[] buffer, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!chars.hasRemaining()) {
+                    encode(false);
+                }
+                int count = Math.min(length, chars.remaining());
+                chars.put(buffer, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public void write(@NotNull String text, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!chars.hasRemaining()) {
+                    encode(false);
+                }
+                int count = Math.min(length, chars.remaining());
+                chars.put(text, offset, offset + count);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public Writer append(CharSequence text) throws IOException {
+            String value = String.valueOf(text);
+            write(value, 0, value.length());
+            return this;
+        }
+
+        /**
+         * Kódolja a pufferelt karaktereket, és a megtelt bájt puffert a csatornába írja.
+         * Egy pár első fele a karakter pufferben maradhat a következő hívásig.
+         * @param endOfInput Igaz, ha több karakter nem érkezik.
+         * @throws IOException Ha a karakterek nem kódolhatók, vagy az írás nem sikerül.
+         */
+        private void encode(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isError()) {
+                    result.throwException();
+                } else {
+                    break;
+                }
+            }
+            chars.compact();
+        }
+
+        /**
+         * A bájt puffer tartalmát a csatornába írja.
+         * @throws IOException Ha az írás nem sikerül.
+         */
+        private void drain() throws IOException {
+            bytes.flip();
+            if (compressed != null) {
+                compressed.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            } else {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            encode(false);
+            drain();
+        }
+
+        /**
+         * Kiírja a pufferek tartalmát, és megvárja, amíg a fájl tartalma a lemezre kerül.
+         * @throws IOException Ha az írás nem sikerül.
+         */
+        void force() throws IOException {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            drain();
+            if (compressed != null) {
+                // A tömörítő folyam lezárása írja ki a formátum zárását; a csatorna nyitva marad
+                compressed.close();
+            }
+            channel.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * A tömörítő folyam célja: a csatornába ír, de nem zárja le, hogy a tartalom még a lemezre kényszeríthető legyen.
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+
+        ChannelOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(@NotNull byte[] buffer, int offset, int length) throws IOException {
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer, offset, length);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Az XML dokumentum egy elemét reprezentáló, tömör csomópont.
+ * Az elem neve internált szöveg, az attribútumok egyetlen név-érték tömbben,
+ * a szöveges tartalom külön mezőben tárolódik, így sem a megjelenítés, sem a szerializálás
+ * nem igényli egy összefűzött szöveg újbóli feldarabolását.
+ * A beolvasott dokumentum ezekből a csomópontokból álló fában él; a fa nézet elemei
+ * csak a ténylegesen megjelenített csomópontokhoz jönnek létre.
+ * Az elemeken kívül a deklaráció, a megjegyzések, a feldolgozási utasítások, a dokumentumtípus-deklaráció
+ * és a vegyes tartalomban a gyerekek után következő szövegrészek is csomópontok; ezeket a név első karaktere
+ * különbözteti meg, amely elemnévben nem fordulhat elő (lásd {@link #isElement()}), a tartalmuk pedig
+ * a szöveg mezőben van. Az elem saját szövege az első gyereke előtti szövegrész.
+ */
+public class XmlNode {
+
+    /**
+     * Az XML deklarációt reprezentáló gyökér csomópont neve.
+     */
+    public static final String DECLARATION_NAME = "?xml";
+
+    /**
+     * A megjegyzés csomópontok neve; a szövegük a megjegyzés tartalma.
+     */
+    public static final String COMMENT_NAME = "#comment";
+
+    /**
+     * A vegyes tartalomban egy gyerek után következő szövegrész csomópontjának neve; a szövege a szövegrész.
+     */
+    public static final String TEXT_NAME = "#text";
+
+    /**
+     * A dokumentumtípus-deklaráció csomópont neve; a szövege a teljes `<!DOCTYPE ...>` deklaráció.
+     */
+    public static final String DOCTYPE_NAME = "!DOCTYPE";
+
+    /**
+     * Közös üres attribútum tömb az attribútum nélküli elemekhez.
+     */
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    /**
+     * Az elem- és attribútumnevek közös táblája; a nevek száma a dokumentum méretétől független,
+     * így az azonos nevek egyetlen példányon osztoznak.
+     */
+    private static final ConcurrentMap<String, String> NAMES = new ConcurrentHashMap<>();
+
+    /**
+     * Az elem (internált) neve.
+     */
+    private String name;
+
+    /**
+     * Az attribútumok név-érték párjai egymás után: `[nev0, ertek0, nev1, ertek1, ...]`.
+     */
+    private String[] attributes;
+
+    /**
+     * Az elem szöveges tartalma, vagy null, ha nincs.
+     */
+    private String text;
+
+    /**
+     * A szülő csomópont, vagy null a gyökér esetén.
+     */
+    private XmlNode parent;
+
+    /**
+     * A gyerek csomópontok listája; levél elemeknél null, hogy ne foglaljon memóriát.
+     */
+    private List<XmlNode> children;
+
+    /**
+     * A részfa szerializált alakjának sorszáma, vagy -1, ha érvénytelen.
+     * Csak a struktúra változása (gyerek beszúrása, törlése, szöveg megjelenése vagy eltűnése)
+     * érvényteleníti, az ősökkel együtt.
+     */
+    private int lineCount = -1;
+
+    /**
+     * A gyerekek részfáinak kezdősora a gyerekek blokkján belül (prefix összegek), vagy null, ha érvénytelen.
+     * Az utolsó elem a gyerekek összes sorának száma.
+     */
+    private int[] childLineStarts;
+
+    /**
+     * Konstruktor, attribútumok és szöveg nélküli elemhez.
+     * @param name Az elem neve.
+     */
+    public XmlNode(@NotNull String name) {
+        this(name, NO_ATTRIBUTES, null);
+    }
+
+    /**
+     * Konstruktor, amely beállítja az elem nevét, attribútumait és szövegét.
+     * @param name Az elem neve.
+     * @param attributes Az attribútumok név-érték párjai egymás után; a tömb a csomóponté lesz.
+     * @param text A szöveges tartalom, vagy null.
+     */
+    public XmlNode(@NotNull String name, @NotNull String[] attributes, String text) {
+        if (attributes.length % 2 != 0) {
+            throw new IllegalArgumentException("Attributes must be name-value pairs");
+        }
+        this.name = intern(name);
+        this.attributes = attributes.length == 0 ? NO_ATTRIBUTES : attributes;
+        this.text = text;
+    }
+
+    /**
+     * Visszaadja a névnek a közös táblában tárolt példányát.
+     * @param name Az elem- vagy attribútumnév.
+     * @return A névvel egyenlő, megosztott példány.
+     */
+    static String intern(@NotNull String name) {
+        String shared = NAMES.putIfAbsent(name, name);
+        return shared == null ? name : shared;
+    }
+
+    /**
+     * Megvizsgálja, hogy a szöveg megfelel-e az XML 1.0 `Name` szabályának (elem- és attribútumnév).
+     * @param name A vizsgált név.
+     * @return Igaz, ha a név nem üres, névkezdő karakterrel kezdődik, és csak névkarakterekből áll.
+     */
+    public static boolean isValidName(@NotNull String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); ) {
+            int c = name.codePointAt(i);
+            if (i == 0 ? !isNameStartChar(c) : !isNameChar(c)) {
+                return false;
+            }
+            i += Character.charCount(c);
+        }
+        return true;
+    }
+
+    private static boolean isNameStartChar(int c) {
+        return c == ':' || c == '_' || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+                || (c >= 0xC0 && c <= 0xD6) || (c >= 0xD8 && c <= 0xF6) || (c >= 0xF8 && c <= 0x2FF)
+                || (c >= 0x370 && c <= 0x37D) || (c >= 0x37F && c <= 0x1FFF) || (c >= 0x200C && c <= 0x200D)
+                || (c >= 0x2070 && c <= 0x218F) || (c >= 0x2C00 && c <= 0x2FEF) || (c >= 0x3001 && c <= 0xD7FF)
+                || (c >= 0xF900 && c <= 0xFDCF) || (c >= 0xFDF0 && c <= 0xFFFD) || (c >= 0x10000 && c <= 0xEFFFF);
+    }
+
+    private static boolean isNameChar(int c) {
+        return isNameStartChar(c) || c == '-' || c == '.' || (c >= '0' && c <= '9') || c == 0xB7
+                || (c >= 0x300 && c <= 0x36F) || (c >= 0x203F && c <= 0x2040);
+    }
+
+    /**
+     * Ellenőrzi egy csomópont új nevét, attribútumait és szövegét, mielőtt a modellbe kerülnének,
+     * hogy a kiírt dokumentum jól formált maradjon. Elemnél a névnek és az attribútumneveknek érvényes XML névnek
+     * kell lennie, és egy név csak egyszer szerepelhet; megjegyzésben nem lehet `--`, és nem végződhet `-` jelre,
+     * feldolgozási utasítás adatában pedig nem lehet `?>`.
+     * @param name A csomópont neve.
+     * @param attributes Az attribútumok név-érték párjai egymás után.
+     * @param text A szöveges tartalom, vagy null.
+     * @throws IllegalArgumentException Ha a csomópont így nem írható ki; az üzenet megnevezi a hibás részt.
+     */
+    public static void checkContent(@NotNull String name, @NotNull String[] attributes, String text) {
+        if (name.equals(COMMENT_NAME)) {
+            if (text != null && (text.contains("--") || text.endsWith("-"))) {
+                throw new IllegalArgumentException("A comment cannot contain '--' or end with '-'");
+            }
+            return;
+        }
+        if (name.startsWith("?") && !name.equals(DECLARATION_NAME)) {
+            if (text != null && text.contains("?>")) {
+                throw new IllegalArgumentException("A processing instruction cannot contain '?>'");
+            }
+            return;
+        }
+        if (name.equals(TEXT_NAME) || name.equals(DOCTYPE_NAME)) {
+            return;
+        }
+        if (!name.equals(DECLARATION_NAME) && !isValidName(name)) {
+            throw new IllegalArgumentException("Invalid element name: " + name);
+        }
+        for (int i = 0; i < attributes.length; i += 2) {
+            if (!isValidName(attributes[i])) {
+                throw new IllegalArgumentException("Invalid attribute name: " + attributes[i]);
+            }
+            for (int j = 0; j < i; j += 2) {
+                if (attributes[j].equals(attributes[i])) {
+                    throw new IllegalArgumentException("Duplicate attribute: " + attributes[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Létrehozza az XML deklarációt reprezentáló gyökér csomópontot.
+     * @param attributes A deklaráció attribútumai (version, encoding, standalone) a forrás sorrendjében;
+     *                   üres tömb esetén a forrásban nem volt deklaráció, és a kimenetbe sem kerül.
+     * @return Az új deklaráció csomópont.
+     */
+    public static XmlNode declaration(@NotNull String[] attributes) {
+        return new XmlNode(DECLARATION_NAME, attributes, null);
+    }
+
+    /**
+     * Létrehoz egy megjegyzés csomópontot.
+     * @param content A megjegyzés tartalma a `<!--` és `-->` jelek között.
+     * @return Az új csomópont.
+     */
+    public static XmlNode comment(@NotNull String content) {
+        return new XmlNode(COMMENT_NAME, NO_ATTRIBUTES, content);
+    }
+
+    /**
+     * Létrehoz egy szövegrész csomópontot a vegyes tartalom egy gyerek után következő szövegéhez.
+     * @param content A szövegrész.
+     * @return Az új csomópont.
+     */
+    public static XmlNode text(@NotNull String content) {
+        return new XmlNode(TEXT_NAME, NO_ATTRIBUTES, content);
+    }
+
+    /**
+     * Létrehoz egy feldolgozási utasítás csomópontot; a neve a `?` jel és a cél.
+     * @param target Az utasítás célja.
+     * @param data Az utasítás adata, vagy null, ha nincs.
+     * @return Az új csomópont.
+     */
+    public static XmlNode processingInstruction(@NotNull String target, String data) {
+        return new XmlNode("?" + target, NO_ATTRIBUTES, data == null || data.isEmpty() ? null : data);
+    }
+
+    /**
+     * Létrehoz egy dokumentumtípus-deklaráció csomópontot.
+     * @param declaration A teljes `<!DOCTYPE ...>` deklaráció, a belső részhalmazzal együtt.
+     * @return Az új csomópont.
+     */
+    public static XmlNode doctype(@NotNull String declaration) {
+        return new XmlNode(DOCTYPE_NAME, NO_ATTRIBUTES, declaration);
+    }
+
+    /**
+     * @return Az elem neve.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Igaz, ha a csomópont az XML deklarációt reprezentáló gyökér.
+     */
+    public boolean isDeclaration() {
+        return name.equals(DECLARATION_NAME);
+    }
+
+    /**
+     * @return Igaz, ha a csomópont a forrásban nem szereplő, attribútumok nélküli deklaráció, amely nem íródik ki.
+     */
+    public boolean isImplicitDeclaration() {
+        return attributes.length == 0 && isDeclaration();
+    }
+
+    /**
+     * @return Igaz, ha a csomópont elem; hamis a deklaráció, a megjegyzések, a szövegrészek,
+     * a feldolgozási utasítások és a dokumentumtípus-deklaráció esetén.
+     */
+    public boolean isElement() {
+        return name.isEmpty() || "?#!".indexOf(name.charAt(0)) < 0;
+    }
+
+    /**
+     * @return Igaz, ha a csomópont megjegyzés.
+     */
+    public boolean isComment() {
+        return name.equals(COMMENT_NAME);
+    }
+
+    /**
+     * @return Igaz, ha a csomópont egy gyerek után következő szövegrész.
+     */
+    public boolean isText() {
+        return name.equals(TEXT_NAME);
+    }
+
+    /**
+     * @return Igaz, ha a csomópont feldolgozási utasítás (a deklaráció nem az).
+     */
+    public boolean isProcessingInstruction() {
+        return name.startsWith("?") && !isDeclaration();
+    }
+
+    /**
+     * @return Igaz, ha a csomópont dokumentumtípus-deklaráció.
+     */
+    public boolean isDoctype() {
+        return name.equals(DOCTYPE_NAME);
+    }
+
+    /**
+     * @return Az attribútumok száma.
+     */
+    public int getAttributeCount() {
+        return attributes.length / 2;
+    }
+
+    /**
+     * @param index Az attribútum sorszáma.
+     * @return Az attribútum neve.
+     */
+    public String getAttributeName(int index) {
+        return attributes[2 * index];
+    }
+
+    /**
+     * @param index Az attribútum sorszáma.
+     * @return Az attribútum értéke.
+     */
+    public String getAttributeValue(int index) {
+        return attributes[2 * index + 1];
+    }
+
+    /**
+     * @param attributeName Az attribútum neve.
+     * @return Az attribútum értéke, vagy null, ha az elemnek nincs ilyen attribútuma.
+     */
+    public String getAttribute(@NotNull String attributeName) {
+        for (int i = 0; i < attributes.length; i += 2) {
+            if (attributes[i].equals(attributeName)) {
+                return attributes[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Az attribútumok név-érték párjainak másolata.
+     */
+    public String[] getAttributes() {
+        return attributes.length == 0 ? NO_ATTRIBUTES : attributes.clone();
+    }
+
+    /**
+     * @return Az elem szöveges tartalma, vagy null, ha nincs.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Egyszerre beállítja az elem nevét, attribútumait és szövegét.
+     * @param name Az új név.
+     * @param attributes Az új attribútumok név-érték párjai egymás után.
+     * @param text Az új szöveges tartalom, vagy null.
+     */
+    public void update(@NotNull String name, @NotNull String[] attributes, String text) {
+        if (attributes.length % 2 != 0) {
+            throw new IllegalArgumentException("Attributes must be name-value pairs");
+        }
+        this.name = intern(name);
+        this.attributes = attributes.length == 0 ? NO_ATTRIBUTES : attributes.clone();
+        setText(text);
+    }
+
+    /**
+     * Beállítja az elem szöveges tartalmát.
+     * @param text Az új szöveges tartalom, vagy null.
+     */
+    public void setText(String text) {
+        boolean hadText = this.text != null;
+        this.text = text;
+        // A szöveg megjelenése vagy eltűnése a gyerekekkel rendelkező elem sorszámát változtatja
+        if (hadText != (text != null)) {
+            invalidateLines();
+        }
+    }
+
+    /**
+     * @return A szülő csomópont, vagy null a gyökér esetén.
+     */
+    public XmlNode getParent() {
+        return parent;
+    }
+
+    /**
+     * @return A gyerek csomópontok nem módosítható listája.
+     */
+    public List<XmlNode> getChildren() {
+        return children == null ? Collections.emptyList() : Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @param index A gyerek pozíciója.
+     * @return A megadott pozíción lévő gyerek csomópont.
+     */
+    public XmlNode getChild(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * @return A gyerek csomópontok száma.
+     */
+    public int getChildCount() {
+        return children == null ? 0 : children.size();
+    }
+
+    /**
+     * Hozzáadja a csomópontot az utolsó gyerekként.
+     * @param child Az új gyerek csomópont.
+     */
+    public void addChild(@NotNull XmlNode child) {
+        addChild(getChildCount(), child);
+    }
+
+    /**
+     * Beszúrja a csomópontot a megadott pozícióra a gyerekek közé.
+     * @param index A beszúrás helye.
+     * @param child Az új gyerek csomópont.
+     */
+    public void addChild(int index, @NotNull XmlNode child) {
+        if (children == null) {
+            children = new ArrayList<>(4);
+        }
+        children.add(index, child);
+        child.parent = this;
+        invalidateLines();
+    }
+
+    /**
+     * Eltávolítja a megadott gyerek csomópontot.
+     * @param child Az eltávolítandó gyerek.
+     * @return A gyerek korábbi pozíciója, vagy -1, ha nem volt a gyerekek között.
+     */
+    public int removeChild(@NotNull XmlNode child) {
+        int index = indexOf(child);
+        if (index >= 0) {
+            children.remove(index);
+            child.parent = null;
+            invalidateLines();
+        }
+        return index;
+    }
+
+    /**
+     * @param child A keresett gyerek csomópont.
+     * @return A gyerek pozíciója, vagy -1, ha nem a csomópont gyereke.
+     */
+    public int indexOf(@NotNull XmlNode child) {
+        if (children == null) {
+            return -1;
+        }
+        // Azonosság szerinti keresés: két azonos tartalmú elem is különböző csomópont
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) == child) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Visszaadja a részfa szerializált alakjának sorszámát; érvénytelen gyorsítótár esetén újraszámolja.
+     * A deklaráció egy sor (ha kiíródik), a levél elem egy sor (a szövegével együtt), a többi elem a nyitó
+     * és záró sor, az esetleges szöveg sora, plusz a gyerekek sorai. A szövegrész, a megjegyzés, a feldolgozási
+     * utasítás és a dokumentumtípus-deklaráció egy sor; az utóbbiak a tartalmuk sortöréseivel együtt.
+     * @return A részfa sorainak száma.
+     */
+    public int lineCount() {
+        if (lineCount < 0) {
+            int childLines = childLineStarts()[getChildCount()];
+            if (isDeclaration()) {
+                lineCount = (isImplicitDeclaration() ? 0 : 1) + childLines;
+            } else if (getChildCount() == 0) {
+                lineCount = 1;
+            } else {
+                lineCount = 2 + (text != null ? 1 : 0) + childLines;
+            }
+        }
+        return lineCount;
+    }
+
+    /**
+     * Visszaadja a gyerekek részfáinak kezdősorát a gyerekek blokkján belül; szükség esetén újraszámolja.
+     * @return Prefix összegek tömbje, `getChildCount() + 1` elemmel; az utolsó a gyerekek összes sora.
+     */
+    public int[] childLineStarts() {
+        if (childLineStarts == null) {
+            int count = getChildCount();
+            int[] starts = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                starts[i + 1] = starts[i] + children.get(i).lineCount();
+            }
+            childLineStarts = starts;
+        }
+        return childLineStarts;
+    }
+
+    /**
+     * Érvényteleníti a sorszám gyorsítótárat a csomóponttól a gyökérig.
+     * Ha egy ős már érvénytelen, az ő ősei is azok, így ott megállhatunk.
+     */
+    private void invalidateLines() {
+        for (XmlNode node = this; node != null; node = node.parent) {
+            if (node.lineCount < 0 && node.childLineStarts == null) {
+                break;
+            }
+            node.lineCount = -1;
+            node.childLineStarts = null;
+        }
+    }
+
+    /**
+     * Csökkenti a gyereklista lefoglalt méretét a tényleges méretre.
+     * A beolvasás végén hívjuk, hogy a nagy dokumentumok ne foglaljanak felesleges memóriát.
+     */
+    void trimToSize() {
+        if (children instanceof ArrayList) {
+            ((ArrayList<XmlNode>) children).trimToSize();
+        }
+    }
+
+    /**
+     * A fa nézetben megjelenített szöveg: az elem neve és attribútumai `nev a="x" b="y"` formában.
+     * @return A megjelenítendő szöveg.
+     */
+    @Override
+    public String toString() {
+        StringBuilder display = new StringBuilder(name);
+        for (int i = 0; i < attributes.length; i += 2) {
+            display.append(' ').append(attributes[i]).append("=\"").append(attributes[i + 1]).append('"');
+        }
+        if (isDeclaration()) {
+            display.append('?');
+        }
+        return display.toString();
+    }
+}
@@ -0,0 +1,188 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Közös XML értelmező és átalakító szolgáltatás.
+ * A factory-k létrehozása szolgáltatáskereséssel (service loader) jár, a `DocumentBuilder`
+ * és a `Transformer` létrehozása pedig szintén drága, ezért ezeket nem hívásonként hozzuk létre:
+ * a factory-k egyszer készülnek el, a példányokból pedig szálanként egy-egy jön létre,
+ * amelyet a következő használat előtt alaphelyzetbe állítunk.
+ * A példányok nem szálbiztosak, ezért csak azon a szálon használhatók, amelyik elkérte őket.
+ */
+public final class XmlParsers {
+
+    /**
+     * A szálanként tárolt példányok fajtái, a találati statisztikához.
+     */
+    public enum Kind {
+        DOCUMENT_BUILDER, TRANSFORMER, INPUT_FACTORY
+    }
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+    private static final TransformerFactory TRANSFORMER_FACTORY = createTransformerFactory();
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = new ThreadLocal<>();
+    private static final ThreadLocal<Transformer> TRANSFORMERS = new ThreadLocal<>();
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORIES = new ThreadLocal<>();
+
+    private static final LongAdder[] HITS = adders();
+    private static final LongAdder[] MISSES = adders();
+
+    private XmlParsers() {
+    }
+
+    /**
+     * Létrehozza és beállítja a DOM értelmezők factory-ját; a külső DTD-k és sémák betöltése le van tiltva.
+     * @return A beállított factory.
+     */
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setExpandEntityReferences(false);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory;
+    }
+
+    /**
+     * Létrehozza és beállítja az átalakítók factory-ját; külső stíluslapok és DTD-k nem tölthetők be.
+     * @return A beállított factory.
+     */
+    private static TransformerFactory createTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+        return factory;
+    }
+
+    /**
+     * Létrehozza és beállítja a folyamatos beolvasáshoz használt factory-t.
+     * A külső entitások feloldása le van tiltva, a szöveg darabjait a beolvasó maga fűzi össze.
+     * @return A beállított factory.
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * @return Az aktuális szál `DocumentBuilder` példánya, alaphelyzetben.
+     * @throws ParserConfigurationException Ha az értelmező nem hozható létre.
+     */
+    public static DocumentBuilder documentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = DOCUMENT_BUILDERS.get();
+        if (builder != null) {
+            builder.reset();
+            hit(Kind.DOCUMENT_BUILDER);
+            return builder;
+        }
+        builder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        DOCUMENT_BUILDERS.set(builder);
+        miss(Kind.DOCUMENT_BUILDER);
+        return builder;
+    }
+
+    /**
+     * @return Az aktuális szál `Transformer` példánya, alaphelyzetben (az előző használat kimeneti beállításai nélkül).
+     * @throws TransformerConfigurationException Ha az átalakító nem hozható létre.
+     */
+    public static Transformer transformer() throws TransformerConfigurationException {
+        Transformer transformer = TRANSFORMERS.get();
+        if (transformer != null) {
+            transformer.reset();
+            hit(Kind.TRANSFORMER);
+            return transformer;
+        }
+        transformer = TRANSFORMER_FACTORY.newTransformer();
+        TRANSFORMERS.set(transformer);
+        miss(Kind.TRANSFORMER);
+        return transformer;
+    }
+
+    /**
+     * Az `XMLInputFactory` a szabvány szerint nem szálbiztos, ezért szálanként külön példány tartozik hozzá.
+     * @return Az aktuális szál `XMLInputFactory` példánya.
+     */
+    public static XMLInputFactory inputFactory() {
+        XMLInputFactory factory = INPUT_FACTORIES.get();
+        if (factory != null) {
+            hit(Kind.INPUT_FACTORY);
+            return factory;
+        }
+        factory = createInputFactory();
+        INPUT_FACTORIES.set(factory);
+        miss(Kind.INPUT_FACTORY);
+        return factory;
+    }
+
+    /**
+     * @param kind A példány fajtája.
+     * @return Hányszor kaptunk már létező példányt.
+     */
+    public static long hits(@NotNull Kind kind) {
+        return HITS[kind.ordinal()].sum();
+    }
+
+    /**
+     * @param kind A példány fajtája.
+     * @return Hányszor kellett új példányt létrehozni.
+     */
+    public static long misses(@NotNull Kind kind) {
+        return MISSES[kind.ordinal()].sum();
+    }
+
+    /**
+     * Nullázza a találati statisztikát.
+     */
+    public static void resetMetrics() {
+        for (Kind kind : Kind.values()) {
+            HITS[kind.ordinal()].reset();
+            MISSES[kind.ordinal()].reset();
+        }
+    }
+
+    /**
+     * @return A találati statisztika szövegesen, például naplózáshoz.
+     */
+    public static String metrics() {
+        StringBuilder metrics = new StringBuilder();
+        for (Kind kind : Kind.values()) {
+            if (metrics.length() > 0) {
+                metrics.append(", ");
+            }
+            metrics.append(kind.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(hits(kind)).append(" hits/").append(misses(kind)).append(" misses");
+        }
+        return metrics.toString();
+    }
+
+    private static void hit(Kind kind) {
+        HITS[kind.ordinal()].increment();
+    }
+
+    private static void miss(Kind kind) {
+        MISSES[kind.ordinal()].increment();
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Kind.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import javafx.collections.FXCollections;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
+import javafx.scene.control.skin.VirtualFlow;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+
+/**
+ * Az XML előnézet megjelenítéséért felelős osztály.
+ * Az előnézet egy virtualizált lista, amely csak a látható sorokat kéri le a sorforrástól,
+ * így több millió soros dokumentumok is akadás nélkül görgethetők.
+ */
+public class XmlPreviewController {
+
+    /**
+     * Egy sor magassága pixelben; a rögzített sormagasság gyorsítja a görgetést.
+     */
+    private static final double LINE_HEIGHT = 18.0;
+
+    /**
+     * A `PrimaryController` osztály referenciája, amely tartalmazza az előnézet listáját.
+     */
+    private final PrimaryController pc;
+
+    /**
+     * Az éppen megjelenített sorforrás, vagy null, ha nincs megnyitott dokumentum.
+     */
+    private LineSource source;
+
+    /**
+     * Konstruktor, amely inicializálja az osztályt egy `PrimaryController` példánnyal.
+     * @param pc A `PrimaryController` példány, amely tartalmazza az előnézet listáját.
+     */
+    public XmlPreviewController(PrimaryController pc) {
+        this.pc = pc;
+    }
+
+    /**
+     * Beállítja az előnézet listájának megjelenését és a kezdeti szöveget.
+     */
+    public void initialize() {
+        pc.xmlPreviewList.setFixedCellSize(LINE_HEIGHT);
+        pc.xmlPreviewList.setStyle("-fx-font-family: monospace;");
+        pc.xmlPreviewList.setPlaceholder(new Label("Import a document please..."));
+    }
+
+    /**
+     * @return Az éppen megjelenített sorforrás, vagy null, ha nincs megnyitott dokumentum.
+     */
+    public LineSource getSource() {
+        return source;
+    }
+
+    /**
+     * Megjeleníti a sorforrás tartalmát; a görgetési pozíció megmarad.
+     * A lista mérete a megjelenítéskor rögzül: a csomópontokból olvasott forrás a szerkesztéssel azonnal változik,
+     * a lista viszont csak az összevont frissítéskor kap új forrást, addig a rögzített méretet látja.
+     * @param source A megjelenítendő sorok forrása.
+     */
+    public void show(@NotNull LineSource source) {
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.PREVIEW_RENDER)) {
+            int firstVisible = firstVisibleLine();
+            this.source = source;
+            int lineCount = source.lineCount();
+            pc.xmlPreviewList.setItems(FXCollections.observableList(new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    // A frissítésig a forrás rövidebb is lehet a rögzített méretnél; a hiányzó sorok üresek
+                    return index < source.lineCount() ? source.line(index) : "";
+                }
+
+                @Override
+                public int size() {
+                    return lineCount;
+                }
+            }));
+            if (firstVisible > 0) {
+                pc.xmlPreviewList.scrollTo(Math.min(firstVisible, lineCount - 1));
+            }
+            timer.items(lineCount);
+        }
+    }
+
+    /**
+     * Megjeleníti a megadott szöveget az előnézetben.
+     * @param text A megjelenítendő szöveg.
+     */
+    public void showText(@NotNull String text) {
+        show(new TextLineSource(text));
+    }
+
+    /**
+     * @return Az első látható sor indexe, vagy -1, ha a lista még nem jelent meg.
+     */
+    private int firstVisibleLine() {
+        VirtualFlow<?> flow = (VirtualFlow<?>) pc.xmlPreviewList.lookup(".virtual-flow");
+        if (flow == null) {
+            return -1;
+        }
+        IndexedCell<?> cell = flow.getFirstVisibleCell();
+        return cell == null ? -1 : cell.getIndex();
+    }
+}
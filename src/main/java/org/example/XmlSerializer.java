@@ -0,0 +1,596 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Az `XmlNode` csomópontokból álló dokumentumot XML szöveggé alakító osztály.
+ * A kimenet közvetlenül a megadott célba (például fájlba) íródik, köztes szöveg nélkül: a címkék és a kódolt
+ * szövegek darabonként kerülnek ki, a behúzás pedig egy előre elkészített pufferből (lásd {@link Indentation}),
+ * így a formázás soronként nem hoz létre új objektumot.
+ * A megjegyzések, a feldolgozási utasítások és a dokumentumtípus-deklaráció változatlanul, a vegyes tartalom
+ * gyerekek utáni szövegrészei kódolva, saját sorukban íródnak ki. A dokumentum a deklarációjában megadott kódolással íródik (lásd {@link #charset(XmlNode)});
+ * a kódolásban nem ábrázolható karakterek a szövegekben és az attribútumokban karakter hivatkozásként kerülnek ki.
+ */
+public class XmlSerializer {
+
+    /**
+     * A kimenet formája.
+     */
+    public enum Mode {
+        /**
+         * Behúzott, soronként egy elem; a szöveges levélelem egy sorban.
+         */
+        PRETTY,
+        /**
+         * Tömörített: behúzás és sortörések nélkül.
+         */
+        MINIFIED,
+        /**
+         * Normalizált, összehasonlításra szánt alak: deklaráció, megjegyzések és dokumentumtípus nélkül,
+         * UTF-8 kódolással, rendezett attribútumokkal, a felesleges névtér deklarációk nélkül, az üres elemek
+         * nyitó és záró címkével; az attribútumok sorrendje és a kódolás a Canonical XML 1.0 szabályait követi.
+         * Ez nem Canonical XML (C14N): a modell a beolvasáskor levágja a szövegek széleit, és elhagyja a csak
+         * szóközökből álló szövegeket, a DTD alapértelmezett attribútumai nem kerülnek bele, és a legfelső szintű
+         * csomópontok között nincs sortörés, így a kimenet nem bájtra egyezik egy C14N megvalósításéval.
+         */
+        NORMALIZED
+    }
+
+    /**
+     * Ennyi kiírt elemenként értesíti a folyamatfigyelőt a szerializáló.
+     */
+    private static final int REPORT_INTERVAL = 4096;
+
+    private static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+    private final ProgressMonitor monitor;
+    private final Mode mode;
+    private final Indentation indentation;
+    private long nodes;
+
+    /**
+     * Az éppen kiírt dokumentum kódolója, vagy null, ha a kódolás minden karaktert ábrázol.
+     */
+    private CharsetEncoder encoder;
+
+    /**
+     * A normalizált kimenet attribútumainak sorrendje; elemenként újra felhasználva.
+     */
+    private int[] order = new int[8];
+    private String[] namespaces = new String[8];
+
+    /**
+     * Konstruktor, folyamatfigyelő nélkül.
+     */
+    public XmlSerializer() {
+        this(ProgressMonitor.NONE);
+    }
+
+    /**
+     * Konstruktor, amely beállítja a folyamatfigyelőt.
+     * @param monitor A kiírás előrehaladását figyelő objektum.
+     */
+    public XmlSerializer(@NotNull ProgressMonitor monitor) {
+        this(monitor, true);
+    }
+
+    /**
+     * Konstruktor, amely beállítja a folyamatfigyelőt és a kimenet formáját.
+     * @param monitor A kiírás előrehaladását figyelő objektum.
+     * @param pretty Igaz esetén formázott, hamis esetén tömörített (minified) kimenet.
+     */
+    public XmlSerializer(@NotNull ProgressMonitor monitor, boolean pretty) {
+        this(monitor, pretty ? Mode.PRETTY : Mode.MINIFIED, Indentation.TAB);
+    }
+
+    /**
+     * Konstruktor, amely beállítja a folyamatfigyelőt, a kimenet formáját és a behúzást.
+     * @param monitor A kiírás előrehaladását figyelő objektum.
+     * @param mode A kimenet formája.
+     * @param indentation A behúzás; csak a formázott kimenetnél számít.
+     */
+    public XmlSerializer(@NotNull ProgressMonitor monitor, @NotNull Mode mode, @NotNull Indentation indentation) {
+        this.monitor = monitor;
+        this.mode = mode;
+        this.indentation = indentation;
+    }
+
+    /**
+     * Szöveggé alakítja a megadott csomópontot és a teljes részfáját.
+     * @param node A szerializálandó csomópont.
+     * @return Az XML szöveg.
+     */
+    public static String toXml(@NotNull XmlNode node) {
+        StringBuilder xml = new StringBuilder();
+        try {
+            new XmlSerializer().write(node, xml);
+        } catch (IOException e) {
+            // StringBuilder írása nem dob kivételt
+            throw new UncheckedIOException(e);
+        }
+        return xml.toString();
+    }
+
+    /**
+     * Megszámolja a csomópontokat a részfában; a kiírás előrehaladásának becsléséhez.
+     * @param node A részfa gyökere.
+     * @return A részfa csomópontjainak száma, a gyökeret is beleértve.
+     */
+    public static long countNodes(@NotNull XmlNode node) {
+        long count = 1;
+        for (XmlNode child : node.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    /**
+     * Visszaadja a kimenet karakterkódolását: a deklaráció `encoding` attribútuma szerintit, ennek hiányában,
+     * és a normalizált formában mindig, UTF-8-at. A kimenetet ezzel a kódolással kell bájtokká alakítani.
+     * @param rootNode A dokumentum gyökér csomópontja.
+     * @return A kimenet kódolása.
+     * @throws IOException Ha a deklarációban megadott kódolás nem ismert.
+     */
+    public Charset charset(@NotNull XmlNode rootNode) throws IOException {
+        String encoding = rootNode.isDeclaration() ? rootNode.getAttribute("encoding") : null;
+        if (encoding == null || mode == Mode.NORMALIZED) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IOException("Unsupported encoding in the XML declaration: " + encoding, e);
+        }
+    }
+
+    /**
+     * Kiírja a csomópontot és a teljes részfáját a megadott célba.
+     * A deklarációtól kezdett kiírásnál a szövegek a {@link #charset(XmlNode)} kódolásához igazodnak.
+     * @param node A szerializálandó csomópont.
+     * @param out A kimenet célja.
+     * @throws IOException Ha hiba történik az írás során.
+     * @throws CancellationException Ha a folyamatfigyelő a kiírás megszakítását kérte.
+     */
+    public void write(@NotNull XmlNode node, @NotNull Appendable out) throws IOException {
+        long startNodes = nodes;
+        Charset charset = charset(node);
+        // A Unicode kódolások minden karaktert ábrázolnak, ezeknél nem kell karakterenként ellenőrizni
+        encoder = charset.name().startsWith("UTF-") || !charset.canEncode() ? null : charset.newEncoder();
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.SERIALIZE)) {
+            switch (mode) {
+                case PRETTY:
+                    writePretty(node, 0, out);
+                    break;
+                case MINIFIED:
+                    writeCompact(node, out);
+                    break;
+                default:
+                    writeNormalized(node, out);
+            }
+            timer.items(nodes - startNodes);
+        }
+        monitor.progress(nodes);
+    }
+
+    /**
+     * Számolja a kiírt elemeket, és időnként értesíti a figyelőt.
+     * @throws CancellationException Ha a folyamatfigyelő a kiírás megszakítását kérte.
+     */
+    private void countNode() {
+        if (++nodes % REPORT_INTERVAL == 0) {
+            if (monitor.isCancelled()) {
+                throw new CancellationException("Serialization cancelled");
+            }
+            monitor.progress(nodes);
+        }
+    }
+
+    // Recursive function to write an XmlNode in XML format
+    private void writePretty(XmlNode item, int depth, Appendable out) throws IOException {
+        countNode();
+
+        // The XML declaration is written as is, and the document element stays at the same depth
+        if (item.isDeclaration()) {
+            if (!item.isImplicitDeclaration()) {
+                writeOpenTag(item, out, encoder);
+                out.append('\n');
+            }
+            for (XmlNode child : item.getChildren()) {
+                writePretty(child, depth, out);
+            }
+            return;
+        }
+
+        indentation.indent(out, depth);
+        writeOpenTag(item, out, encoder);
+        out.append('\n');
+
+        // Add the text line, the children recursively, then the closing tag
+        if (item.getChildCount() > 0) {
+            if (item.getText() != null) {
+                indentation.indent(out, depth + 1);
+                escape(item.getText(), false, out, encoder);
+                out.append('\n');
+            }
+            for (XmlNode child : item.getChildren()) {
+                writePretty(child, depth + 1, out);
+            }
+            indentation.indent(out, depth);
+            writeCloseTag(item, out);
+            out.append('\n');
+        }
+    }
+
+    // Same as write, without indentation and line breaks
+    private void writeCompact(XmlNode item, Appendable out) throws IOException {
+        countNode();
+        if (item.isDeclaration()) {
+            if (!item.isImplicitDeclaration()) {
+                writeOpenTag(item, out, encoder);
+            }
+            for (XmlNode child : item.getChildren()) {
+                writeCompact(child, out);
+            }
+            return;
+        }
+        writeOpenTag(item, out, encoder);
+        if (item.getChildCount() > 0) {
+            if (item.getText() != null) {
+                escape(item.getText(), false, out, encoder);
+            }
+            for (XmlNode child : item.getChildren()) {
+                writeCompact(child, out);
+            }
+            writeCloseTag(item, out);
+        }
+    }
+
+    // Normalized form: no declaration, comments or doctype, sorted attributes, explicit end tags
+    private void writeNormalized(XmlNode item, Appendable out) throws IOException {
+        countNode();
+        if (item.isDeclaration()) {
+            for (XmlNode child : item.getChildren()) {
+                writeNormalized(child, out);
+            }
+            return;
+        }
+        if (item.isProcessingInstruction()) {
+            writeOpenTag(item, out, null);
+            return;
+        }
+        if (item.isText()) {
+            if (item.getText() != null) {
+                escapeNormalized(item.getText(), false, out);
+            }
+            return;
+        }
+        if (!item.isElement()) {
+            return;
+        }
+        out.append('<').append(item.getName());
+        int count = sortAttributes(item);
+        for (int i = 0; i < count; i++) {
+            int index = order[i];
+            out.append(' ').append(item.getAttributeName(index)).append("=\"");
+            escapeNormalized(item.getAttributeValue(index), true, out);
+            out.append('"');
+        }
+        out.append('>');
+        if (item.getText() != null) {
+            escapeNormalized(item.getText(), false, out);
+        }
+        for (XmlNode child : item.getChildren()) {
+            writeNormalized(child, out);
+        }
+        writeCloseTag(item, out);
+    }
+
+    /**
+     * Az `order` tömbbe rendezi a kiírandó attribútumok indexeit a Canonical XML szerint: előbb a névtér
+     * deklarációk a prefix szerint, utána a többi attribútum a névtér URI, majd a helyi név szerint.
+     * A szülőnél már ugyanígy érvényes névtér deklarációk kimaradnak.
+     * @param item Az elem.
+     * @return A kiírandó attribútumok száma.
+     */
+    private int sortAttributes(XmlNode item) {
+        int attributeCount = item.getAttributeCount();
+        if (order.length < attributeCount) {
+            order = new int[Math.max(attributeCount, 2 * order.length)];
+            namespaces = new String[order.length];
+        }
+        int count = 0;
+        for (int i = 0; i < attributeCount; i++) {
+            String name = item.getAttributeName(i);
+            if (isNamespaceDeclaration(name)) {
+                String inherited = inScope(item.getParent(), name);
+                String value = item.getAttributeValue(i);
+                if (inherited == null ? value.isEmpty() && name.length() == 5 : inherited.equals(value)) {
+                    continue;
+                }
+                namespaces[i] = null;
+            } else {
+                int colon = name.indexOf(':');
+                namespaces[i] = colon < 0 ? "" : namespaceUri(item, name.substring(0, colon));
+            }
+            // Beszúrásos rendezés: az elemeknek kevés attribútuma van, és így nem kell új tömb
+            int position = count++;
+            while (position > 0 && compareAttributes(item, order[position - 1], i) > 0) {
+                order[position] = order[position - 1];
+                position--;
+            }
+            order[position] = i;
+        }
+        return count;
+    }
+
+    private int compareAttributes(XmlNode item, int left, int right) {
+        String leftName = item.getAttributeName(left);
+        String rightName = item.getAttributeName(right);
+        boolean leftDeclaration = namespaces[left] == null;
+        boolean rightDeclaration = namespaces[right] == null;
+        if (leftDeclaration != rightDeclaration) {
+            return leftDeclaration ? -1 : 1;
+        }
+        if (leftDeclaration) {
+            // Az alapértelmezett névtér (xmlns) megelőzi a prefixeseket (xmlns:p)
+            return leftName.compareTo(rightName);
+        }
+        int byNamespace = namespaces[left].compareTo(namespaces[right]);
+        return byNamespace != 0 ? byNamespace : localName(leftName).compareTo(localName(rightName));
+    }
+
+    private static boolean isNamespaceDeclaration(String name) {
+        return name.equals("xmlns") || name.startsWith("xmlns:");
+    }
+
+    private static String localName(String name) {
+        int colon = name.indexOf(':');
+        return colon < 0 ? name : name.substring(colon + 1);
+    }
+
+    /**
+     * @return A prefixhez tartozó névtér URI az elemen vagy az ősein, vagy a prefix maga, ha nincs deklarálva.
+     */
+    private static String namespaceUri(XmlNode item, String prefix) {
+        if (prefix.equals("xml")) {
+            return XML_NAMESPACE;
+        }
+        String uri = inScope(item, "xmlns:" + prefix);
+        return uri != null ? uri : prefix;
+    }
+
+    /**
+     * @return Az attribútum értéke a legközelebbi elemen (a megadottal kezdve, felfelé), amelyen szerepel, vagy null.
+     */
+    private static String inScope(XmlNode item, String attributeName) {
+        for (XmlNode node = item; node != null && !node.isDeclaration(); node = node.getParent()) {
+            String value = node.getAttribute(attributeName);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Előállítja a csomópont első sorát behúzás nélkül: a deklarációt, a nyitó címkét,
+     * gyerek nélküli elemnél pedig a teljes elemet (szöveggel együtt), vagy az önzáró címkét;
+     * a szövegrészt, a megjegyzést, a feldolgozási utasítást és a dokumentumtípus-deklarációt pedig egészben.
+     * Az előnézet és a fájlba írás ugyanezt használja, így a kettő soronként egyezik
+     * (a többsoros megjegyzések az előnézetben egy sort foglalnak).
+     * @param item A csomópont.
+     * @return A nyitó sor szövege.
+     */
+    static String openTag(XmlNode item) {
+        StringBuilder tag = new StringBuilder();
+        try {
+            writeOpenTag(item, tag, null);
+        } catch (IOException e) {
+            // StringBuilder írása nem dob kivételt
+            throw new UncheckedIOException(e);
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Kiírja a csomópont első sorát behúzás nélkül (lásd {@link #openTag(XmlNode)}).
+     * A megjegyzés, a feldolgozási utasítás és a dokumentumtípus tartalma nem kódolható, így változatlanul kerül ki.
+     * @param item A csomópont.
+     * @param out A kimenet.
+     * @param encoder A kimenet kódolója, vagy null, ha minden karakter ábrázolható.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    private static void writeOpenTag(XmlNode item, Appendable out, CharsetEncoder encoder) throws IOException {
+        if (item.isComment()) {
+            out.append("<!--");
+            if (item.getText() != null) {
+                out.append(item.getText());
+            }
+            out.append("-->");
+            return;
+        }
+        if (item.isDoctype()) {
+            out.append(item.getText());
+            return;
+        }
+        if (item.isText()) {
+            if (item.getText() != null) {
+                escape(item.getText(), false, out, encoder);
+            }
+            return;
+        }
+        out.append('<').append(item.getName());
+        if (item.isProcessingInstruction()) {
+            if (item.getText() != null) {
+                out.append(' ').append(item.getText());
+            }
+            out.append("?>");
+            return;
+        }
+        for (int i = 0; i < item.getAttributeCount(); i++) {
+            out.append(' ').append(item.getAttributeName(i)).append("=\"");
+            escape(item.getAttributeValue(i), true, out, encoder);
+            out.append('"');
+        }
+        if (item.isDeclaration()) {
+            out.append("?>");
+        } else if (item.getChildCount() > 0) {
+            out.append('>');
+        } else if (item.getText() != null) {
+            // Gyerek nélküli, szöveges elem egy sorban
+            out.append('>');
+            escape(item.getText(), false, out, encoder);
+            out.append("</").append(item.getName()).append('>');
+        } else {
+            out.append("/>");
+        }
+    }
+
+    /**
+     * Előállítja a gyerekekkel rendelkező csomópont szövegének sorát behúzás nélkül.
+     * @param item A csomópont.
+     * @return A szöveg sora, vagy üres szöveg, ha az elemnek nincs szövege.
+     */
+    static String textLine(XmlNode item) {
+        StringBuilder line = new StringBuilder();
+        if (item.getText() != null) {
+            try {
+                escape(item.getText(), false, line, null);
+            } catch (IOException e) {
+                // StringBuilder írása nem dob kivételt
+                throw new UncheckedIOException(e);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Előállítja a gyerekekkel rendelkező csomópont záró címkéjét.
+     * @param item A csomópont.
+     * @return A záró címke szövege.
+     */
+    static String closeTag(XmlNode item) {
+        return "</" + item.getName() + ">";
+    }
+
+    private static void writeCloseTag(XmlNode item, Appendable out) throws IOException {
+        out.append("</").append(item.getName()).append('>');
+    }
+
+    /**
+     * Hozzáfűzi a szöveget a kimenethez az XML speciális karaktereinek kódolásával.
+     * A sortörések is kódolva kerülnek ki, így minden elem szövege egyetlen sorban marad.
+     * A kimenet kódolásában nem ábrázolható karakterek (a helyettesítő párok egyben) karakter hivatkozásként íródnak ki.
+     * A kódolást nem igénylő szakaszok egyben íródnak ki.
+     * @param value A kódolandó szöveg.
+     * @param attribute Igaz, ha attribútum értékről van szó (ekkor az idézőjel is kódolandó).
+     * @param out A kimenet.
+     * @param encoder A kimenet kódolója, vagy null, ha minden karakter ábrázolható.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    private static void escape(String value, boolean attribute, Appendable out, CharsetEncoder encoder)
+            throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = attribute ? "&quot;" : null;
+                    break;
+                case '\n':
+                    replacement = "&#10;";
+                    break;
+                case '\r':
+                    replacement = "&#13;";
+                    break;
+                case '\t':
+                    replacement = attribute ? "&#9;" : null;
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement == null && c >= 0x80 && encoder != null && !encoder.canEncode(c)) {
+                int codePoint = value.codePointAt(i);
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    Indentation.write(out, value, start, i);
+                    out.append("&#").append(Integer.toString(codePoint)).append(';');
+                    start = ++i + 1;
+                    continue;
+                }
+                // A páratlan helyettesítő karakter nem hivatkozható; a kódoló hibát jelez rá
+                replacement = Character.isSurrogate(c) ? null : "&#" + codePoint + ";";
+            }
+            if (replacement != null) {
+                Indentation.write(out, value, start, i);
+                out.append(replacement);
+                start = i + 1;
+            }
+        }
+        Indentation.write(out, value, start, value.length());
+    }
+
+    /**
+     * Hozzáfűzi a szöveget a kimenethez a Canonical XML szerinti kódolással: szövegben `&amp; &lt; &gt; &#xD;`,
+     * attribútumban `&amp; &lt; &quot; &#x9; &#xA; &#xD;`.
+     * @param value A kódolandó szöveg.
+     * @param attribute Igaz, ha attribútum értékről van szó.
+     * @param out A kimenet.
+     * @throws IOException Ha hiba történik az írás során.
+     */
+    private static void escapeNormalized(String value, boolean attribute, Appendable out) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+            switch (value.charAt(i)) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = attribute ? null : "&gt;";
+                    break;
+                case '"':
+                    replacement = attribute ? "&quot;" : null;
+                    break;
+                case '\t':
+                    replacement = attribute ? "&#x9;" : null;
+                    break;
+                case '\n':
+                    replacement = attribute ? "&#xA;" : null;
+                    break;
+                case '\r':
+                    replacement = "&#xD;";
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement != null) {
+                Indentation.write(out, value, start, i);
+                out.append(replacement);
+                start = i + 1;
+            }
+        }
+        Indentation.write(out, value, start, value.length());
+    }
+}
@@ -0,0 +1,311 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Az XML fájlok folyamatos (streaming) beolvasásáért felelős osztály.
+ * Az `XMLStreamReader` segítségével egyetlen menetben építi fel az `XmlNode` csomópontok fáját
+ * (nevekkel, attribútumokkal és szöveges tartalommal, valamint a megjegyzésekkel, a feldolgozási utasításokkal,
+ * a dokumentumtípus-deklarációval és a forrás XML deklarációjával),
+ * köztes DOM dokumentum és a teljes fájltartalmat tároló szöveg nélkül.
+ * Vegyes tartalomnál a gyerekek utáni szövegrészek saját csomópontot kapnak (lásd {@link XmlNode#text(String)}),
+ * így a helyükön maradnak; a szövegek széleiről viszont a szóközök levágódnak (lásd {@link TextNormalization}),
+ * és a kiírt dokumentum ilyenkor nem azonos a beolvasottal.
+ */
+public class XmlStreamImporter {
+
+    /**
+     * A beolvasáskor a modellhez igazított szövegek számlálója: a szövegek széleiről a szóközök levágódnak.
+     * A csak szóközökből álló szöveg (a formázás behúzása) nem számít.
+     */
+    public static final class TextNormalization {
+        private long trimmed;
+
+        /**
+         * Üres számláló egy beolvasáshoz.
+         */
+        public TextNormalization() {
+        }
+
+        TextNormalization(long trimmed) {
+            this.trimmed = trimmed;
+        }
+
+        /**
+         * @return Azon szövegrészek száma, amelyek széleiről szóköz vágódott le.
+         */
+        public long getTrimmed() {
+            return trimmed;
+        }
+
+        /**
+         * @return Igaz, ha a beolvasás egyetlen szöveget sem változtatott meg.
+         */
+        public boolean isLossless() {
+            return trimmed == 0;
+        }
+    }
+
+    /**
+     * A beolvasáshoz használt puffer mérete bájtban.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Ennyi felépített elemenként értesíti a folyamatfigyelőt a beolvasó.
+     */
+    private static final int REPORT_INTERVAL = 4096;
+
+    /**
+     * Beolvassa a megadott XML fájlt és felépíti belőle a fa struktúrát.
+     * @param file A beolvasandó XML fájl.
+     * @return A fa gyökér csomópontja, amely az XML deklarációt és a dokumentum gyökér elemét tartalmazza.
+     * @throws IOException Ha hiba történik az olvasás közben.
+     * @throws XMLStreamException Ha a fájl nem jól formált XML.
+     */
+    public XmlNode importFile(@NotNull File file) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(openFile(file.toPath()), BUFFER_SIZE)) {
+            return importStream(in);
+        }
+    }
+
+    /**
+     * Megnyitja a fájlt olvasásra. A tömörített fájlok (lásd {@link Compression}) tartalma egy külön szálon
+     * csomagolódik ki; a többi fájl a {@link #openRawFile} szerint nyílik meg. A visszaadott folyam nem pufferelt.
+     * @param path A megnyitandó fájl.
+     * @return A fájl (kicsomagolt) tartalmát szolgáltató folyam.
+     * @throws IOException Ha a fájl nem nyitható meg.
+     */
+    public static InputStream openFile(@NotNull Path path) throws IOException {
+        CompressionCodec codec = Compression.detect(path);
+        InputStream raw = openRawFile(path);
+        return codec == null ? raw : Compression.decompress(codec, raw);
+    }
+
+    /**
+     * Megnyitja a fájlt olvasásra, kicsomagolás nélkül: a nagy fájlokat memóriába leképezve, csúszó ablakokkal,
+     * a kisebbeket hagyományos folyamként. A visszaadott folyam nem pufferelt.
+     * @param path A megnyitandó fájl.
+     * @return A fájl bájtjait szolgáltató folyam.
+     * @throws IOException Ha a fájl nem nyitható meg.
+     */
+    public static InputStream openRawFile(@NotNull Path path) throws IOException {
+        if (Files.size(path) >= MappedInputStream.MAP_THRESHOLD) {
+            return new MappedInputStream(path);
+        }
+        return Files.newInputStream(path);
+    }
+
+    /**
+     * Beolvassa az XML tartalmat a megadott folyamból és felépíti belőle a fa struktúrát.
+     * A folyam lezárása a hívó feladata.
+     * @param in Az XML tartalmat szolgáltató folyam.
+     * @return A fa gyökér csomópontja.
+     * @throws XMLStreamException Ha a tartalom nem jól formált XML.
+     */
+    public XmlNode importStream(@NotNull InputStream in) throws XMLStreamException {
+        return importStream(in, ProgressMonitor.NONE);
+    }
+
+    /**
+     * Beolvassa az XML tartalmat a megadott folyamból, és a felépítés közben értesíti a figyelőt.
+     * A folyam lezárása a hívó feladata.
+     * @param in Az XML tartalmat szolgáltató folyam.
+     * @param monitor A folyamatot figyelő objektum.
+     * @return A fa gyökér csomópontja.
+     * @throws XMLStreamException Ha a tartalom nem jól formált XML.
+     * @throws CancellationException Ha a figyelő a beolvasás megszakítását kérte.
+     */
+    public XmlNode importStream(@NotNull InputStream in, @NotNull ProgressMonitor monitor) throws XMLStreamException {
+        return importStream(in, monitor, new TextNormalization());
+    }
+
+    /**
+     * Beolvassa az XML tartalmat a megadott folyamból, és megszámolja a normalizált szövegeket.
+     * A folyam lezárása a hívó feladata.
+     * @param in Az XML tartalmat szolgáltató folyam.
+     * @param monitor A folyamatot figyelő objektum.
+     * @param normalization A normalizált szövegek számlálója; a beolvasás növeli.
+     * @return A fa gyökér csomópontja.
+     * @throws XMLStreamException Ha a tartalom nem jól formált XML.
+     * @throws CancellationException Ha a figyelő a beolvasás megszakítását kérte.
+     */
+    public XmlNode importStream(@NotNull InputStream in, @NotNull ProgressMonitor monitor,
+                                @NotNull TextNormalization normalization) throws XMLStreamException {
+        CountingInputStream counter = new CountingInputStream(in);
+        XMLStreamReader reader = XmlParsers.inputFactory().createXMLStreamReader(counter);
+        long nodes = 0;
+        try (Metrics.Timer timer = Metrics.start(Metrics.Phase.PARSE)) {
+            XmlNode rootNode = XmlNode.declaration(declarationAttributes(reader));
+            Deque<XmlNode> stack = new ArrayDeque<>();
+            stack.push(rootNode);
+            // Az aktuális elem szöveges tartalma; a szöveg több eseményben is érkezhet
+            StringBuilder text = new StringBuilder();
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    // Új elem: a szülő addigi szövegét lezárjuk, az elemet hozzáadjuk, és ő lesz az új szülő
+                    applyText(stack.peek(), text, normalization);
+                    XmlNode node = createNode(reader);
+                    stack.peek().addChild(node);
+                    stack.push(node);
+                    if (++nodes % REPORT_INTERVAL == 0) {
+                        if (monitor.isCancelled()) {
+                            throw new CancellationException("Import cancelled");
+                        }
+                        monitor.progress(nodes);
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    applyText(stack.peek(), text, normalization);
+                    // A lezárt elem gyereklistája már nem nő, a felesleges kapacitás felszabadítható
+                    stack.pop().trimToSize();
+                } else if (event == XMLStreamConstants.COMMENT) {
+                    applyText(stack.peek(), text, normalization);
+                    stack.peek().addChild(XmlNode.comment(reader.getText()));
+                } else if (event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                    applyText(stack.peek(), text, normalization);
+                    stack.peek().addChild(XmlNode.processingInstruction(reader.getPITarget(), reader.getPIData()));
+                } else if (event == XMLStreamConstants.DTD) {
+                    // A belső részhalmaz entitásai a szövegekben már kifejtve érkeznek
+                    rootNode.addChild(XmlNode.doctype(reader.getText()));
+                }
+            }
+            monitor.progress(nodes);
+            timer.items(nodes).bytes(counter.getCount());
+            return rootNode;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Összegyűjti a forrás XML deklarációjának attribútumait, hogy a kiírt dokumentum ugyanazt a deklarációt kapja.
+     * @param reader Az olvasó, amely a dokumentum elején (START_DOCUMENT eseményen) áll.
+     * @return A deklaráció attribútumai; üres tömb, ha a forrásban nem volt deklaráció.
+     */
+    private static String[] declarationAttributes(XMLStreamReader reader) {
+        if (reader.getVersion() == null) {
+            return new String[0];
+        }
+        List<String> attributes = new ArrayList<>(6);
+        attributes.add("version");
+        attributes.add(reader.getVersion());
+        if (reader.getCharacterEncodingScheme() != null) {
+            attributes.add("encoding");
+            attributes.add(reader.getCharacterEncodingScheme());
+        }
+        if (reader.standaloneSet()) {
+            attributes.add("standalone");
+            attributes.add(reader.isStandalone() ? "yes" : "no");
+        }
+        return attributes.toArray(new String[0]);
+    }
+
+    /**
+     * Létrehozza a csomópontot az aktuális kezdő elem nevéből és attribútumaiból.
+     * @param reader Az olvasó, amely egy START_ELEMENT eseményen áll.
+     * @return Az új csomópont.
+     */
+    private static XmlNode createNode(XMLStreamReader reader) {
+        return new XmlNode(elementName(reader), attributes(reader), null);
+    }
+
+    /**
+     * @param reader Az olvasó, amely egy START_ELEMENT eseményen áll.
+     * @return Az aktuális elem minősített neve.
+     */
+    static String elementName(@NotNull XMLStreamReader reader) {
+        return qualifiedName(reader.getPrefix(), reader.getLocalName());
+    }
+
+    /**
+     * Összegyűjti az aktuális elem attribútumait.
+     * A névtér deklarációk a DOM-hoz hasonlóan attribútumként szerepelnek.
+     * @param reader Az olvasó, amely egy START_ELEMENT eseményen áll.
+     * @return Az attribútumok név-érték párjai egymás után; a nevek a közös névtáblából.
+     */
+    static String[] attributes(@NotNull XMLStreamReader reader) {
+        int namespaces = reader.getNamespaceCount();
+        int attributeCount = reader.getAttributeCount();
+        String[] attributes = new String[2 * (namespaces + attributeCount)];
+        int pos = 0;
+        for (int i = 0; i < namespaces; i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            attributes[pos++] = XmlNode.intern(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix);
+            attributes[pos++] = reader.getNamespaceURI(i);
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            attributes[pos++] = XmlNode.intern(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)));
+            attributes[pos++] = reader.getAttributeValue(i);
+        }
+        return attributes;
+    }
+
+    /**
+     * Az összegyűjtött szöveget az elemhez adja, majd kiüríti a gyűjtőt.
+     * A csak szóközökből álló szöveg (a formázás behúzásai) nem kerül a modellbe; az első gyerek előtti szöveg
+     * az elem szövege, a gyerekek utáni szövegrész pedig új szövegrész csomópontként kerül a gyerekek közé.
+     * @param node Az elem, amelyhez a szöveg tartozik.
+     * @param text Az összegyűjtött szöveg.
+     * @param normalization A levágott szövegrészek számlálója.
+     */
+    private static void applyText(XmlNode node, StringBuilder text, TextNormalization normalization) {
+        if (isBlank(text)) {
+            text.setLength(0);
+            return;
+        }
+        String content = text.toString().strip();
+        if (content.length() != text.length()) {
+            normalization.trimmed++;
+        }
+        text.setLength(0);
+        if (!content.isEmpty() && !node.isDeclaration()) {
+            if (node.getChildCount() > 0) {
+                node.addChild(XmlNode.text(content));
+            } else {
+                node.setText(content);
+            }
+        }
+    }
+
+    /**
+     * @param text A vizsgált szöveg.
+     * @return Igaz, ha a szöveg üres vagy csak szóközökből áll; ekkor nem kell szöveggé alakítani.
+     */
+    private static boolean isBlank(StringBuilder text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Előállítja a minősített nevet a prefixből és a helyi névből.
+     * @param prefix A névtér prefix (lehet üres vagy null).
+     * @param localName A helyi név.
+     * @return A `prefix:nev` vagy `nev` alakú név.
+     */
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+}
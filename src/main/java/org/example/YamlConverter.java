@@ -0,0 +1,181 @@
+package org.example;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * YAML kimenetet író konvertáló, blokk stílusban; a leképezést lásd {@link StructuredConverter}.
+ * A szövegek csak akkor kerülnek idézőjelbe (JSON-kompatibilis kódolással), ha különben számként, logikai
+ * értékként vagy YAML szintaxisként olvasódnának.
+ */
+public final class YamlConverter extends StructuredConverter {
+
+    /**
+     * Az idézőjel nélkül logikai vagy null értékként olvasott szavak.
+     */
+    private static final Set<String> RESERVED = Set.of("true", "false", "yes", "no", "on", "off", "y", "n", "null", "~");
+
+    /**
+     * Szintenként igaz, ha a nyitott gyűjtemény tömb.
+     */
+    private boolean[] sequence = new boolean[32];
+    /**
+     * Szintenként igaz, ha a nyitott gyűjteményben már van elem.
+     */
+    private boolean[] nonEmpty = new boolean[32];
+    private int level = -1;
+
+    /**
+     * Igaz, ha az utolsó kiírt elem egy kulcs.
+     */
+    private boolean afterKey;
+
+    /**
+     * Igaz, ha az utolsó kiírt elem egy tömbelem jele (`- `), így az objektum első kulcsa ugyanabba a sorba kerül.
+     */
+    private boolean afterDash;
+
+    /**
+     * Igaz, amíg a kimenetbe még semmi sem került.
+     */
+    private boolean first = true;
+
+    /**
+     * Konstruktor, amely beállítja a kimenet beállításait.
+     * @param options A kimenet beállításai.
+     */
+    public YamlConverter(@NotNull ConversionOptions options) {
+        super(options);
+    }
+
+    /**
+     * A következő érték helye: kulcs után ugyanaz a sor, tömbben új sor a `- ` jellel.
+     * @return Igaz, ha az érték előtt szóköz kell.
+     */
+    private boolean item() throws IOException {
+        if (afterKey) {
+            afterKey = false;
+            return true;
+        }
+        if (level >= 0 && sequence[level]) {
+            nonEmpty[level] = true;
+            newLine(out, level);
+            out.append("- ");
+            afterDash = true;
+        }
+        return false;
+    }
+
+    private void begin(boolean isSequence) throws IOException {
+        item();
+        if (++level == sequence.length) {
+            sequence = Arrays.copyOf(sequence, 2 * level);
+            nonEmpty = Arrays.copyOf(nonEmpty, 2 * level);
+        }
+        sequence[level] = isSequence;
+        nonEmpty[level] = false;
+    }
+
+    private void finish(String empty) throws IOException {
+        if (!nonEmpty[level]) {
+            out.append(afterDash ? "" : " ").append(empty);
+            afterDash = false;
+        }
+        level--;
+    }
+
+    @Override
+    protected void beginObject() throws IOException {
+        begin(false);
+    }
+
+    @Override
+    protected void endObject() throws IOException {
+        finish("{}");
+    }
+
+    @Override
+    protected void beginArray() throws IOException {
+        begin(true);
+    }
+
+    @Override
+    protected void endArray() throws IOException {
+        finish("[]");
+    }
+
+    @Override
+    protected void key(@NotNull String key) throws IOException {
+        nonEmpty[level] = true;
+        if (afterDash) {
+            afterDash = false;
+        } else if (first) {
+            first = false;
+        } else {
+            // A gyökér objektum kulcsai behúzás nélkül, a mélyebbek szintenként két szóközzel
+            newLine(out, level);
+        }
+        scalar(key);
+        out.append(':');
+        afterKey = true;
+    }
+
+    @Override
+    protected void value(@NotNull String value) throws IOException {
+        if (item()) {
+            out.append(' ');
+        }
+        afterDash = false;
+        scalar(value);
+    }
+
+    @Override
+    protected void nullValue() throws IOException {
+        if (item()) {
+            out.append(' ');
+        }
+        afterDash = false;
+        out.append('~');
+    }
+
+    /**
+     * Kiírja a szöveget; idézőjel nélkül, ha az egyszerű szó, különben JSON szövegliterálként.
+     */
+    private void scalar(String value) throws IOException {
+        if (isPlain(value)) {
+            out.append(value);
+        } else {
+            writeQuoted(out, value);
+        }
+    }
+
+    /**
+     * @param value A szöveg.
+     * @return Igaz, ha a szöveg idézőjel nélkül is szövegként olvasódik vissza: betűvel vagy aláhúzással kezdődik,
+     * csak betűket, számjegyeket, szóközt és `_ . - /` jeleket tartalmaz, nem végződik szóközzel,
+     * és nem foglalt szó.
+     */
+    static boolean isPlain(@NotNull String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char firstChar = value.charAt(0);
+        if (!Character.isLetter(firstChar) && firstChar != '_') {
+            return false;
+        }
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '-' && c != '/' && c != ' ') {
+                return false;
+            }
+        }
+        if (value.charAt(value.length() - 1) == ' ') {
+            return false;
+        }
+        return value.length() > 5 || !RESERVED.contains(value.toLowerCase(Locale.ROOT));
+    }
+}